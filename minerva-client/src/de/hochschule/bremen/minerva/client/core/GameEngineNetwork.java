@@ -30,12 +30,15 @@
 package de.hochschule.bremen.minerva.client.core;
 
 import java.awt.image.BufferedImage;
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.Map;
 import java.util.Observable;
 import java.util.Observer;
 import java.util.Vector;
@@ -48,6 +51,7 @@ import de.hochschule.bremen.minerva.commons.exceptions.CountriesNotInRelationExc
 import de.hochschule.bremen.minerva.commons.exceptions.CountryOwnerException;
 import de.hochschule.bremen.minerva.commons.exceptions.DataAccessException;
 import de.hochschule.bremen.minerva.commons.exceptions.GameAlreadyStartedException;
+import de.hochschule.bremen.minerva.commons.exceptions.GameDoesNotExistException;
 import de.hochschule.bremen.minerva.commons.exceptions.IsOwnCountryException;
 import de.hochschule.bremen.minerva.commons.exceptions.NoPlayerLoggedInException;
 import de.hochschule.bremen.minerva.commons.exceptions.NoPlayerSlotAvailableException;
@@ -64,10 +68,16 @@ import de.hochschule.bremen.minerva.commons.exceptions.WorldNotStorable;
 import de.hochschule.bremen.minerva.commons.exceptions.WrongPasswordException;
 import de.hochschule.bremen.minerva.commons.net.ClientExecutables;
 import de.hochschule.bremen.minerva.commons.net.ServerExecutables;
+import de.hochschule.bremen.minerva.commons.util.HashTool;
 import de.hochschule.bremen.minerva.commons.util.MapTool;
 import de.hochschule.bremen.minerva.commons.vo.AttackResult;
 import de.hochschule.bremen.minerva.commons.vo.Country;
 import de.hochschule.bremen.minerva.commons.vo.CountryCard;
+import de.hochschule.bremen.minerva.commons.vo.GameCommand;
+import de.hochschule.bremen.minerva.commons.vo.GameCommandResult;
+import de.hochschule.bremen.minerva.commons.vo.GameInfo;
+import de.hochschule.bremen.minerva.commons.vo.GameSnapshot;
+import de.hochschule.bremen.minerva.commons.vo.GameStateDelta;
 import de.hochschule.bremen.minerva.commons.vo.Mission;
 import de.hochschule.bremen.minerva.commons.vo.Player;
 import de.hochschule.bremen.minerva.commons.vo.PlayerState;
@@ -96,11 +106,25 @@ public class GameEngineNetwork extends Observable implements GameEngine, ClientE
 
 	private static final long serialVersionUID = 7809319868203138075L;
 
+	// The map images are delivered as png files.
+	private static final String MAP_CACHE_FILE_EXTENSION = ".png";
+
 	private static GameEngineNetwork instance = null;
 	
 	private ServerExecutables serverEngine = null;
 	
 	private Player clientPlayer = null;
+
+	// The local copy of the running game. It will be kept up to date by
+	// the game state changes, which are pushed by the server.
+	private boolean gameStarted = false;
+	private World gameWorld = null;
+	private Vector<Player> gamePlayers = null;
+	private long gameVersion = GameStateDelta.NO_VERSION;
+	private boolean gameFinished = false;
+	private int gameCurrentPlayerIndex = -1;
+	private int gameAllocatableArmyCount = 0;
+	private int gameWinnerIndex = -1;
 	
 	/**
 	 * Creates the engine.
@@ -152,6 +176,10 @@ public class GameEngineNetwork extends Observable implements GameEngine, ClientE
      * Login a given player on the server and pass the {@link ClientExecutables} implementation.
      * So that, the server is able to invoke methods on the client.
      *
+     * The server returns the session of the player. All further calls are executed
+     * on this session. After the login the player joins the first game, which is
+     * not running. If there is no such game, a new one will be created.
+     *
      * @param player The player value object.
      *
      * @throws GameAlreadyStartedException It is not possible to login a player if the game is already running. 
@@ -164,7 +192,79 @@ public class GameEngineNetwork extends Observable implements GameEngine, ClientE
 	@Override
 	public void login(Player player) throws PlayerAlreadyLoggedInException, GameAlreadyStartedException, WrongPasswordException, PlayerDoesNotExistException, NoPlayerSlotAvailableException, DataAccessException {
 		try {
-			this.serverEngine.login(player, GameEngineNetwork.getEngine());
+			this.serverEngine = this.serverEngine.login(player, GameEngineNetwork.getEngine());
+		} catch (SimonRemoteException e) {
+			throw new DataAccessException(e);
+		}
+
+		for (GameInfo game : this.getGames()) {
+			if (!game.isRunning()) {
+				try {
+					this.joinGame(game.getId());
+					return;
+				} catch (GameDoesNotExistException e) {
+					// The game was killed in the meantime. Try the next one.
+				} catch (GameAlreadyStartedException e) {
+					// The game was started in the meantime. Try the next one.
+				} catch (NoPlayerSlotAvailableException e) {
+					// The game is full. Try the next one.
+				}
+			}
+		}
+
+		this.createGame();
+	}
+
+	/**
+	 * Creates a new game on the server. The client player
+	 * joins the game as the gamemaster.
+	 *
+	 * @return The id of the created game.
+	 *
+	 * @throws DataAccessException
+	 *
+	 */
+	@Override
+	public int createGame() throws DataAccessException {
+		try {
+			return this.serverEngine.createGame();
+		} catch (SimonRemoteException e) {
+			throw new DataAccessException(e);
+		}
+	}
+
+	/**
+	 * Requests the list of the games, which are hosted by the server.
+	 *
+	 * @return The game descriptions.
+	 *
+	 * @throws DataAccessException
+	 *
+	 */
+	@Override
+	public Vector<GameInfo> getGames() throws DataAccessException {
+		try {
+			return this.serverEngine.getGames();
+		} catch (SimonRemoteException e) {
+			throw new DataAccessException(e);
+		}
+	}
+
+	/**
+	 * Joins the game with the given id.
+	 *
+	 * @param gameId The id of the game.
+	 *
+	 * @throws GameDoesNotExistException
+	 * @throws GameAlreadyStartedException
+	 * @throws NoPlayerSlotAvailableException
+	 * @throws DataAccessException
+	 *
+	 */
+	@Override
+	public void joinGame(int gameId) throws GameDoesNotExistException, GameAlreadyStartedException, NoPlayerSlotAvailableException, DataAccessException {
+		try {
+			this.serverEngine.joinGame(gameId);
 		} catch (SimonRemoteException e) {
 			throw new DataAccessException(e);
 		}
@@ -303,6 +403,11 @@ public class GameEngineNetwork extends Observable implements GameEngine, ClientE
 		} catch (SimonRemoteException e) {
 			throw new DataAccessException(e);
 		}
+
+		synchronized (this) {
+			this.gameStarted = false;
+			this.resetGameState();
+		}
 	}
 
     /**
@@ -315,7 +420,12 @@ public class GameEngineNetwork extends Observable implements GameEngine, ClientE
      *
      */
 	@Override
-	public Vector<Player> getGamePlayers() throws DataAccessException {
+	public synchronized Vector<Player> getGamePlayers() throws DataAccessException {
+		if (this.gameStarted) {
+			this.loadGameState();
+			return this.gamePlayers;
+		}
+
 		try {
 			return this.serverEngine.getGamePlayers();
 		} catch (SimonRemoteException e) {
@@ -323,6 +433,29 @@ public class GameEngineNetwork extends Observable implements GameEngine, ClientE
 		}
 	}
 
+    /**
+     * Returns a consistent snapshot of the game. The snapshot will be
+     * created from the local copy of the running game, which is kept up
+     * to date by the pushed game state changes. So there is no server call,
+     * if the local copy was already loaded.
+     *
+     * @return The snapshot (with detached copies of the world and the players).
+     *
+     * @throws DataAccessException
+     *
+     */
+	@Override
+	public synchronized GameSnapshot getGameSnapshot() throws DataAccessException {
+		this.loadGameState();
+
+		Vector<Player> players = new Vector<Player>(this.gamePlayers.size());
+		for (Player player : this.gamePlayers) {
+			players.add(player.copy());
+		}
+
+		return new GameSnapshot(this.gameVersion, this.gameWorld.copy(), players, this.gameCurrentPlayerIndex, this.gameAllocatableArmyCount, this.gameFinished, this.gameWinnerIndex);
+	}
+
     /**
      * Sets the world on which the game should be played.
      * Will only be defined if the game is not running.
@@ -351,7 +484,12 @@ public class GameEngineNetwork extends Observable implements GameEngine, ClientE
      *
      */
 	@Override
-	public World getGameWorld() throws DataAccessException {
+	public synchronized World getGameWorld() throws DataAccessException {
+		if (this.gameStarted) {
+			this.loadGameState();
+			return this.gameWorld;
+		}
+
 		try {
 			return this.serverEngine.getGameWorld();
 		} catch (SimonRemoteException e) {
@@ -480,6 +618,25 @@ public class GameEngineNetwork extends Observable implements GameEngine, ClientE
 		}
 	}
 
+    /**
+     * Places several armies at once.
+     *
+     * @param allocations The army count per country id.
+     *
+     * @throws CountryOwnerException 
+     * @throws NotEnoughArmiesException
+     * @throws DataAccessException 
+     * 
+     */
+	@Override
+	public void allocateArmies(Map<Integer, Integer> allocations) throws NotEnoughArmiesException, CountryOwnerException, DataAccessException {
+		try {
+			this.serverEngine.allocateArmies(allocations);
+		} catch (SimonRemoteException e) {
+			throw new DataAccessException(e);
+		}
+	}
+
     /**
      * Attacks a country with an specified army count.
      * 
@@ -502,6 +659,30 @@ public class GameEngineNetwork extends Observable implements GameEngine, ClientE
 		}
 	}
 
+    /**
+     * Attacks a country repeatedly (blitz attack) until it is conquered
+     * or one of the stop conditions is reached.
+     * 
+     * @param source The country from which the attack will be started.
+     * @param destination The country which should be attacked.
+     * @param minAttackerArmies Stop when the source country has less armies than this.
+     * @param maxRounds Maximum number of rounds (0 = unlimited).
+     * 
+     * @throws CountriesNotInRelationException
+     * @throws NotEnoughArmiesException
+     * @throws IsOwnCountryException
+     * @throws DataAccessException
+     * 
+     */
+	@Override
+	public AttackResult blitzAttack(Country source, Country destination, int minAttackerArmies, int maxRounds) throws CountriesNotInRelationException, NotEnoughArmiesException, IsOwnCountryException, DataAccessException {
+		try {
+			return this.serverEngine.blitzAttack(source, destination, minAttackerArmies, maxRounds);
+		} catch (SimonRemoteException e) {
+			throw new DataAccessException(e);
+		}
+	}
+
     /**
      * Moves armies from one country to another country.
      * 
@@ -524,6 +705,24 @@ public class GameEngineNetwork extends Observable implements GameEngine, ClientE
 		}
 	}
 
+    /**
+     * Executes a batch of game commands within one server call.
+     * 
+     * @param commands The game commands.
+     * @return The results (one result per command).
+     *
+     * @throws DataAccessException
+     * 
+     */
+	@Override
+	public Vector<GameCommandResult> executeCommands(Vector<GameCommand> commands) throws DataAccessException {
+		try {
+			return this.serverEngine.executeCommands(commands);
+		} catch (SimonRemoteException e) {
+			throw new DataAccessException(e);
+		}
+	}
+
     /**
      * Starts the next turn.
      * 
@@ -591,22 +790,135 @@ public class GameEngineNetwork extends Observable implements GameEngine, ClientE
 	/**
 	 * Method, which can be invoked from the
 	 * server side. The server calls this method
-	 * and pushes the updated client player object.
+	 * and pushes the changes of the game state
+	 * since the last notification.
 	 * 
-	 * The engine will then inform all observers that
+	 * The engine applies the changes on the local copy of the
+	 * running game and will then inform all observers that
 	 * an "change" occurred.
 	 *
-	 * @param player The 'fresh' player object.
+	 * @param delta The game state changes.
 	 *
 	 */
 	@Override
-	public void refreshPlayer(Player player) {
-		this.clientPlayer = player;
+	public void refreshGameState(GameStateDelta delta) {
+		synchronized (this) {
+			this.gameStarted = delta.isStarted();
+
+			try {
+				if (!this.gameStarted) {
+					this.resetGameState();
+					this.refreshClientPlayer(this.serverEngine.getGamePlayers());
+				} else if (delta.isKilled()) {
+					// The game was killed on the server, so there is nothing to catch up.
+					this.gameFinished = true;
+					this.gameWinnerIndex = -1;
+				} else if (this.gameWorld == null) {
+					this.loadGameState();
+				} else {
+					// We missed some changes, so we have to catch up.
+					if ((delta.getFromVersion() != GameStateDelta.NO_VERSION) && (delta.getFromVersion() != this.gameVersion)) {
+						delta = this.serverEngine.getGameChanges(this.gameVersion);
+					}
+					this.applyGameState(delta);
+				}
+			} catch (SimonRemoteException e) {
+				// The local copy will be loaded again on the next access.
+				this.resetGameState();
+			} catch (DataAccessException e) {
+				this.resetGameState();
+			}
+		}
 
 		this.setChanged();
 		this.notifyObservers();
 	}
 
+	/**
+	 * Loads the local copy of the running game (if not already done).
+	 * The caller must hold the engine lock.
+	 * 
+	 * @throws DataAccessException
+	 *
+	 */
+	private void loadGameState() throws DataAccessException {
+		if (this.gameWorld != null) {
+			return;
+		}
+
+		try {
+			this.gameWorld = this.serverEngine.getGameWorld();
+			this.gamePlayers = this.serverEngine.getGamePlayers();
+			this.applyGameState(this.serverEngine.getGameChanges(GameStateDelta.NO_VERSION));
+		} catch (SimonRemoteException e) {
+			this.resetGameState();
+			throw new DataAccessException(e);
+		}
+	}
+
+	/**
+	 * Applies the game state changes on the local copy of the running game.
+	 * The players will be loaded again, if the country cards of a player
+	 * were changed. The caller must hold the engine lock.
+	 * 
+	 * @param delta The game state changes.
+	 * 
+	 * @throws SimonRemoteException
+	 *
+	 */
+	private void applyGameState(GameStateDelta delta) throws SimonRemoteException {
+		boolean cardsChanged = (delta.getPlayerCount() != this.gamePlayers.size());
+
+		for (int i = 0; (!cardsChanged) && (i < delta.getPlayerCount()); i++) {
+			cardsChanged = (delta.getCardCount(i) != this.gamePlayers.get(i).getCountryCards().size());
+		}
+
+		delta.applyTo(this.gameWorld);
+
+		if (cardsChanged) {
+			this.gamePlayers = this.serverEngine.getGamePlayers();
+		} else {
+			for (int i = 0; i < this.gamePlayers.size(); i++) {
+				delta.applyTo(this.gamePlayers.get(i), i, this.gameWorld);
+			}
+		}
+
+		this.gameVersion = delta.getToVersion();
+		this.gameFinished = delta.isFinished();
+		this.gameCurrentPlayerIndex = delta.getCurrentPlayerIndex();
+		this.gameAllocatableArmyCount = delta.getAllocatableArmyCount();
+		this.gameWinnerIndex = delta.getWinnerIndex();
+		this.refreshClientPlayer(this.gamePlayers);
+	}
+
+	/**
+	 * Replaces the client player by the given (current) player object.
+	 * 
+	 * @param players The game players.
+	 *
+	 */
+	private void refreshClientPlayer(Vector<Player> players) {
+		for (Player player : players) {
+			if (player.getUsername().equals(this.clientPlayer.getUsername())) {
+				this.clientPlayer = player;
+			}
+		}
+	}
+
+	/**
+	 * Discards the local copy of the running game.
+	 *
+	 */
+	private void resetGameState() {
+		this.gameWorld = null;
+		this.gamePlayers = null;
+		this.gameVersion = GameStateDelta.NO_VERSION;
+		this.gameFinished = false;
+		this.gameCurrentPlayerIndex = -1;
+		this.gameAllocatableArmyCount = 0;
+		this.gameWinnerIndex = -1;
+	}
+
 	/**
 	 * Requests the current games "world map image" from the server.
 	 * 
@@ -616,7 +928,7 @@ public class GameEngineNetwork extends Observable implements GameEngine, ClientE
 	@Override
 	public BufferedImage getGameMapImage() throws DataAccessException {
 		try {
-			return MapTool.fromBase64(this.serverEngine.getGameMapImage());
+			return this.loadMapImage(this.serverEngine.getGameMapImageHash(), false);
 		} catch (SimonRemoteException e) {
 			throw new DataAccessException(e);
 		} catch (IOException e) {
@@ -633,11 +945,115 @@ public class GameEngineNetwork extends Observable implements GameEngine, ClientE
 	@Override
 	public BufferedImage getGameMapUnderlayImage() throws DataAccessException {
 		try {
-			return MapTool.fromBase64(this.serverEngine.getGameMapUnderlayImage());
+			return this.loadMapImage(this.serverEngine.getGameMapUnderlayImageHash(), true);
 		} catch (SimonRemoteException e) {
 			throw new DataAccessException(e);
 		} catch (IOException e) {
 			throw new DataAccessException(e, false);
 		}
 	}
+
+	/**
+	 * Loads a map image from the local map cache. The cache files are
+	 * named by the md5 hash of their content, so a map which is known
+	 * from a previous game will not be transferred again. Only if the
+	 * map is unknown (or the cache file is damaged), the original image
+	 * bytes will be requested from the server and stored in the cache.
+	 *
+	 * @param hash The md5 hash of the map image (provided by the server).
+	 * @param underlay Load the map underlay instead of the map image?
+	 *
+	 * @return The decoded map image.
+	 *
+	 * @throws SimonRemoteException
+	 * @throws IOException
+	 *
+	 */
+	private BufferedImage loadMapImage(String hash, boolean underlay) throws SimonRemoteException, IOException {
+		String directory = ApplicationConfigurationManager.get().getWorldCacheDirectory();
+		File cacheFile = null;
+
+		if (directory != null && hash != null && hash.matches("[0-9a-f]{32}")) {
+			cacheFile = new File(directory, hash + MAP_CACHE_FILE_EXTENSION);
+
+			if (cacheFile.isFile()) {
+				try {
+					byte[] cached = this.readMapCacheFile(cacheFile);
+					if (HashTool.md5(cached).equals(hash)) {
+						BufferedImage image = MapTool.fromBytes(cached);
+						if (image != null) {
+							return image;
+						}
+					}
+				} catch (IOException e) {
+					// Damaged cache file. Will be replaced below.
+				}
+			}
+		}
+
+		byte[] bytes = (underlay) ? this.serverEngine.getGameMapUnderlayImage() : this.serverEngine.getGameMapImage();
+
+		if (cacheFile != null && HashTool.md5(bytes).equals(hash)) {
+			try {
+				this.writeMapCacheFile(cacheFile, bytes);
+			} catch (IOException e) {
+				// The cache is optional. The game works without it.
+			}
+		}
+
+		return MapTool.fromBytes(bytes);
+	}
+
+	/**
+	 * Reads a complete map cache file.
+	 *
+	 * @param cacheFile The cache file.
+	 * @return The file content.
+	 *
+	 * @throws IOException
+	 *
+	 */
+	private byte[] readMapCacheFile(File cacheFile) throws IOException {
+		byte[] bytes = new byte[(int)cacheFile.length()];
+
+		DataInputStream stream = new DataInputStream(new FileInputStream(cacheFile));
+		try {
+			stream.readFully(bytes);
+		} finally {
+			stream.close();
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * Writes a map cache file. The bytes will be written to a temporary
+	 * file first, so that a cancelled write never leaves a truncated
+	 * cache file behind.
+	 *
+	 * @param cacheFile The cache file.
+	 * @param bytes The map image bytes.
+	 *
+	 * @throws IOException
+	 *
+	 */
+	private void writeMapCacheFile(File cacheFile, byte[] bytes) throws IOException {
+		File directory = cacheFile.getParentFile();
+		if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Das Cache-Verzeichnis '" + directory.getPath() + "' konnte nicht angelegt werden.");
+		}
+
+		File temporaryFile = new File(cacheFile.getPath() + ".tmp");
+
+		FileOutputStream stream = new FileOutputStream(temporaryFile);
+		try {
+			stream.write(bytes);
+		} finally {
+			stream.close();
+		}
+
+		if (!temporaryFile.renameTo(cacheFile)) {
+			temporaryFile.delete();
+		}
+	}
 }
\ No newline at end of file
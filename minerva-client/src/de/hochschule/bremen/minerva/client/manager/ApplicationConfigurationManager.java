@@ -98,6 +98,9 @@ public class ApplicationConfigurationManager {
 		voReadMethodInvocationMapping.put("directory.assets.userinterface.fileextension", "setUIAssetsFileExtension");
 		voStoreMethodInvocationMapping.put("directory.assets.userinterface.fileextension", "getUIAssetsFileExtension");
 
+		voReadMethodInvocationMapping.put("directory.cache.worlds", "setWorldCacheDirectory");
+		voStoreMethodInvocationMapping.put("directory.cache.worlds", "getWorldCacheDirectory");
+
 		voReadMethodInvocationMapping.put("server.name", "setServerName");
 		voStoreMethodInvocationMapping.put("server.name", "getServerName");
 
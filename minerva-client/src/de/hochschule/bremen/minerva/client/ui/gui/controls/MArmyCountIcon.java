@@ -86,7 +86,20 @@ public class MArmyCountIcon extends JPanel implements MControl {
 	 *
 	 */
 	public void setPlayer(Country country, Player player) {
-		this.armyCount = country.getArmyCount();
+		this.setPlayer(country, player, 0);
+	}
+
+	/**
+	 * Sets the player and the army count of the country plus
+	 * the armies, which are not placed on the server yet.
+	 *
+	 * @param country The country.
+	 * @param player The owner of the country.
+	 * @param stagedArmyCount The armies, which are staged locally.
+	 *
+	 */
+	public void setPlayer(Country country, Player player, int stagedArmyCount) {
+		this.armyCount = country.getArmyCount() + stagedArmyCount;
 		this.color = player.getColor();
 		this.repaint();
 	}
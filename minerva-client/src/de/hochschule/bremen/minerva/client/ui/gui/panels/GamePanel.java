@@ -32,7 +32,6 @@ package de.hochschule.bremen.minerva.client.ui.gui.panels;
 
 import java.awt.Color;
 import java.awt.Font;
-import java.awt.Point;
 import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
 import java.util.HashMap;
@@ -64,12 +63,13 @@ import de.hochschule.bremen.minerva.commons.exceptions.CountryOwnerException;
 import de.hochschule.bremen.minerva.commons.exceptions.DataAccessException;
 import de.hochschule.bremen.minerva.commons.exceptions.IsOwnCountryException;
 import de.hochschule.bremen.minerva.commons.exceptions.NotEnoughArmiesException;
-import de.hochschule.bremen.minerva.commons.util.ColorTool;
-import de.hochschule.bremen.minerva.commons.util.Die;
-import de.hochschule.bremen.minerva.commons.util.MapTool;
+import de.hochschule.bremen.minerva.commons.util.CountryRaster;
 import de.hochschule.bremen.minerva.commons.vo.AttackResult;
 import de.hochschule.bremen.minerva.commons.vo.Country;
 import de.hochschule.bremen.minerva.commons.vo.CountryCard;
+import de.hochschule.bremen.minerva.commons.vo.GameCommand;
+import de.hochschule.bremen.minerva.commons.vo.GameCommandResult;
+import de.hochschule.bremen.minerva.commons.vo.GameSnapshot;
 import de.hochschule.bremen.minerva.commons.vo.Mission;
 import de.hochschule.bremen.minerva.commons.vo.Player;
 import de.hochschule.bremen.minerva.commons.vo.PlayerState;
@@ -86,7 +86,7 @@ import de.hochschule.bremen.minerva.commons.vo.World;
 public class GamePanel extends JLayeredPane implements MControl, TextResources, Observer {
 
 	public MapPanel mapOverlay;
-	public MapPanel mapUnderlay;
+	public CountryRaster countryRaster;
 	public MSlidePanel slidePanel;
 	public JLabel missionLabel;
 
@@ -102,6 +102,11 @@ public class GamePanel extends JLayeredPane implements MControl, TextResources,
 	private Country source = null;
 	private Country destination = null;
 
+	private int allocatableArmyCount = 0;
+	private boolean finished = false;
+	private HashMap<Integer, Integer> stagedArmies = new HashMap<Integer, Integer>();
+	private int stagedArmyCount = 0;
+
 	private static final long serialVersionUID = -2906065533734117968L;
 	
 	/**
@@ -150,10 +155,9 @@ public class GamePanel extends JLayeredPane implements MControl, TextResources,
 			
 			missionPanel.add(missionLabel);
 
-			//lower map
+			//lower map (only for country hit-testing, the image itself is not needed)
 			mapImage = this.engine.getGameMapUnderlayImage();
-			this.mapUnderlay = new MapPanel(mapImage);
-			this.mapUnderlay.setBounds(0,0,500,500);
+			this.countryRaster = new CountryRaster(mapImage, this.world.getCountries());
 			
 			//upper map
 			mapImage = this.engine.getGameMapImage();
@@ -172,18 +176,21 @@ public class GamePanel extends JLayeredPane implements MControl, TextResources,
 		//adds mouse listener to the upper map
 		this.addMapListener();
 		
-		// get the world from the server.
-		HashMap<Country, Point> countryAnchors = MapTool.getCountryAnchors(this.mapOverlay.getMapImage(), mapUnderlay.getMapImage(), this.world);
-
 		this.add(slidePanel, 10000);
 
+		// The country anchors were calculated while importing the world.
+		// A country, which is not on the map, has no anchor.
 		for (Country country : this.world.getCountries()) {
-			MArmyCountIcon aci = new MArmyCountIcon(Color.RED, countryAnchors.get(country));
+			if (country.getAnchor() == null) {
+				continue;
+			}
+
+			MArmyCountIcon aci = new MArmyCountIcon(Color.RED, country.getAnchor());
 			aci.addMouseListener(new MMouseListener() {
 				public void mouseClicked(MouseEvent e) {
 					GamePanel.this.unmarkAll();
-					Color color = ColorTool.fromInteger(GamePanel.this.mapUnderlay.getMapImage().getRGB(((MArmyCountIcon)e.getSource()).getX()+15, ((MArmyCountIcon)e.getSource()).getY()+15));
-					Country country = GamePanel.this.world.getCountry(color);
+					MArmyCountIcon icon = (MArmyCountIcon)e.getSource();
+					Country country = GamePanel.this.countryRaster.getCountry(GamePanel.this.world, icon.getX()+15, icon.getY()+15);
 					GamePanel.this.mapInteraction(country);
 				}
 			});
@@ -195,7 +202,6 @@ public class GamePanel extends JLayeredPane implements MControl, TextResources,
 
 		//Adding everything up
 		this.add(this.mapOverlay,-20000);
-		this.add(this.mapUnderlay,-30000);
 
 		slidePanel.getControlBar().addListeners(this);
 
@@ -214,8 +220,7 @@ public class GamePanel extends JLayeredPane implements MControl, TextResources,
 			public void mouseClicked(MouseEvent e) {
 				GamePanel.this.unmarkAll();
 
-				Color color = ColorTool.fromInteger(GamePanel.this.mapUnderlay.getMapImage().getRGB(e.getX(), e.getY()));
-				Country country = GamePanel.this.world.getCountry(color);
+				Country country = GamePanel.this.countryRaster.getCountry(GamePanel.this.world, e.getX(), e.getY());
 
 				if (country.getId() != ValueObject.getDefaultId()) {
 					GamePanel.this.mapInteraction(country);
@@ -225,31 +230,67 @@ public class GamePanel extends JLayeredPane implements MControl, TextResources,
 	}
 
 	/**
-	 * Allocates one army on a destined country
+	 * Allocates one army on a destined country. The army will be staged
+	 * locally and all staged armies will be sent to the server at once,
+	 * when the last allocatable army was placed.
 	 *
 	 * @param country country to put an army on
 	 *
 	 */
 	private void allocate(Country country) {
-		int armyCount = 0;
-		try {
-			this.engine.allocateArmy(country);
-			armyCount = this.engine.getAllocatableArmyCount();
-		} catch (NotEnoughArmiesException e) {
-			MMessageBox.error(e.getMessage());
-		} catch (CountryOwnerException e) {
+		if (!this.isOwner(this.engine.getClientPlayer(), country)) {
 			if (country.getName() != null) {
-				MMessageBox.error(e.getMessage());
+				MMessageBox.error(new CountryOwnerException(country, this.engine.getClientPlayer()).getMessage());
+			}
+			return;
+		}
+
+		Integer staged = this.stagedArmies.get(country.getId());
+		this.stagedArmies.put(country.getId(), (staged == null) ? 1 : staged + 1);
+		this.stagedArmyCount++;
+
+		if (this.stagedArmyCount < this.allocatableArmyCount) {
+			this.refreshArmyCounts();
+			this.slidePanel.getControlBar().setAllocatableArmiesLabel(" "+(this.allocatableArmyCount - this.stagedArmyCount)+" ");
+			this.repaint();
+			return;
+		}
+
+		this.commitAllocation();
+	}
+
+	/**
+	 * Sends all staged armies to the server and switches to
+	 * the attack phase (one command batch).
+	 *
+	 */
+	private void commitAllocation() {
+		Vector<GameCommand> commands = new Vector<GameCommand>();
+		commands.add(GameCommand.allocateArmies(this.stagedArmies));
+		commands.add(GameCommand.setPlayerState(PlayerState.ATTACK));
+		this.resetAllocation();
+
+		try {
+			for (GameCommandResult result : this.engine.executeCommands(commands)) {
+				if (result.getError() != null) {
+					MMessageBox.error(result.getError().getMessage());
+				}
 			}
 		} catch (DataAccessException e) {
 			MMessageBox.error(e);
 		}
-		if (armyCount == 0) {
-			this.engine.getClientPlayer().setState(PlayerState.ATTACK);
-		}
 		this.updatePanel();
 	}
 
+	/**
+	 * Discards all staged armies.
+	 *
+	 */
+	private void resetAllocation() {
+		this.stagedArmies = new HashMap<Integer, Integer>();
+		this.stagedArmyCount = 0;
+	}
+
 	/**
 	 * Releases a single card
 	 *
@@ -257,7 +298,7 @@ public class GamePanel extends JLayeredPane implements MControl, TextResources,
 	 *
 	 */
 	public void TurnCardIn(CountryCard card) {
-		if (this.currentPlayer.hasCountry(card.getReference())) {
+		if (this.isOwner(this.currentPlayer, card.getReference())) {
 			try {
 				this.engine.releaseCard(card);
 			} catch (DataAccessException e) {
@@ -289,6 +330,8 @@ public class GamePanel extends JLayeredPane implements MControl, TextResources,
 	 * Attack one country from another.
 	 * Use it once to set the sources country and twice to set destination country.
 	 * After setting the destination you'll get an option pane to the army count.
+	 * An army count of 0 starts a blitz attack (until the country is conquered
+	 * or only one army is left on the source country).
 	 *
 	 * @param country first source then destination
 	 *
@@ -301,7 +344,7 @@ public class GamePanel extends JLayeredPane implements MControl, TextResources,
 					this.source = country;
 					this.realArmyIconGetter(this.source).mark(Color.GREEN);
 					for (Country c : GamePanel.this.world.getNeighbours(this.source)) {
-						if (!this.engine.getClientPlayer().hasCountry(c)) {
+						if (!this.isOwner(this.engine.getClientPlayer(), c)) {
 							this.realArmyIconGetter(c).mark(Color.RED);
 						}
 					}
@@ -319,14 +362,19 @@ public class GamePanel extends JLayeredPane implements MControl, TextResources,
 					try {
 						//army count input
 						int wert = Integer.parseInt(JOptionPane.showInputDialog("Wieviele Armeen " +
-								"sollen angreifen? (max: "+this.calcMaxAttackCount(this.source)+")",
+								"sollen angreifen? (max: "+this.calcMaxAttackCount(this.source)+", 0 = Blitzangriff)",
 								""+(this.calcMaxAttackCount(this.source))));
 						
 						try {
 							//actually attack and showing attack result afterwards
-							AttackResult ar = this.engine.attack(this.source, this.destination, wert);
+							AttackResult ar;
+							if (wert == 0) {
+								ar = this.engine.blitzAttack(this.source, this.destination, 2, 0);
+							} else {
+								ar = this.engine.attack(this.source, this.destination, wert);
+							}
 							GamePanel.this.updatePanel();
-							if ((ar != null) && (!this.engine.isGameFinished())) {
+							if ((ar != null) && (!this.finished)) {
 								this.showAttackResult(ar);
 							}
 						} catch (CountriesNotInRelationException e) {
@@ -360,7 +408,7 @@ public class GamePanel extends JLayeredPane implements MControl, TextResources,
 			if (this.source != null) {
 				this.realArmyIconGetter(country).mark(Color.GREEN);
 				for (Country c : GamePanel.this.world.getNeighbours(this.source)) {
-					if (!this.engine.getClientPlayer().hasCountry(c)) {
+					if (!this.isOwner(this.engine.getClientPlayer(), c)) {
 						this.realArmyIconGetter(c).mark(Color.RED);
 					}
 				}
@@ -379,19 +427,22 @@ public class GamePanel extends JLayeredPane implements MControl, TextResources,
 		StringBuilder message = new StringBuilder();
 		message.append(attackResult.getAttacker().getUsername()).append(" (Würfel: ");
 
-		for (Die die : attackResult.getAttackerDice()) {
-			message.append(die.getRollResult()).append(" ");
+		for (int rollResult : attackResult.getAttackerRollResults()) {
+			message.append(rollResult).append(" ");
 		}
 
 		message.append(") hat ").append(attackResult.getDefender().getUsername()).append(" (Würfel: ");
 
-		for (Die die : attackResult.getDefenderDice()) {
-			message.append(die.getRollResult()).append(" ");
+		for (int rollResult : attackResult.getDefenderRollResults()) {
+			message.append(rollResult).append(" ");
 		}
 
 		message.append(") angegriffen.\n").append(attackResult.getAttacker().getUsername()).append(" hat ");
 		message.append(attackResult.getLostAttackerArmies()).append(" und ").append(attackResult.getDefender().getUsername());
 		message.append(" hat ").append(attackResult.getLostDefenderArmies()).append(" Armeen verloren.\n");
+		if (attackResult.getRoundCount() > 1) {
+			message.append("Der Angriff lief über ").append(attackResult.getRoundCount()).append(" Runden (Würfel der letzten Runde).\n");
+		}
 		message.append(attackResult.getAttacker().getUsername()).append(" hat das Land ");
 		message.append((attackResult.isWin() ? "erobert." : "NICHT erobert."));
 
@@ -414,7 +465,7 @@ public class GamePanel extends JLayeredPane implements MControl, TextResources,
 					this.source = country;
 					this.realArmyIconGetter(this.source).mark(Color.GREEN);
 					for (Country c : GamePanel.this.world.getNeighbours(this.source)) {
-						if (this.engine.getClientPlayer().hasCountry(c)) {
+						if (this.isOwner(this.engine.getClientPlayer(), c)) {
 							this.realArmyIconGetter(c).mark(Color.RED);
 						}
 					}
@@ -469,7 +520,7 @@ public class GamePanel extends JLayeredPane implements MControl, TextResources,
 			if (this.source != null) {
 				this.realArmyIconGetter(this.source).mark(Color.GREEN);
 				for (Country c : GamePanel.this.world.getNeighbours(this.source)) {
-					if (this.engine.getClientPlayer().hasCountry(c)) {
+					if (this.isOwner(this.engine.getClientPlayer(), c)) {
 						this.realArmyIconGetter(c).mark(Color.RED);
 					}
 				}
@@ -485,22 +536,26 @@ public class GamePanel extends JLayeredPane implements MControl, TextResources,
 	 */
 	public void updatePanel() {
 		try {
+			GameSnapshot snapshot = this.engine.getGameSnapshot();
+			this.finished = snapshot.isFinished();
+
 			//game finished?
-			if (this.engine.isGameFinished()) {
+			if (snapshot.isFinished()) {
 				MinervaGUI.getEngine().deleteObserver(this);
 				
 				MinervaGUI.getInstance().changePanel(new LoginPanel());
 
-				MMessageBox.show(GAME_FINISHED_ANNOUCEMENT+"\n" + this.engine.getGameWinner().getUsername()
-						+GAME_FINISHED_WINNER);
-			} else {
-				this.world = this.engine.getGameWorld();
-				this.players = this.engine.getGamePlayers();
-				
-				for (Player player : this.players) {
-					if (player.getState() != PlayerState.IDLE)
-					this.currentPlayer = player;
+				if (snapshot.getWinner() == null) {
+					MMessageBox.show(GAME_KILLED_ANNOUCEMENT);
+				} else {
+					MMessageBox.show(GAME_FINISHED_ANNOUCEMENT+"\n" + snapshot.getWinner().getUsername()
+							+GAME_FINISHED_WINNER);
 				}
+			} else {
+				this.world = snapshot.getWorld();
+				this.players = snapshot.getPlayers();
+				this.allocatableArmyCount = snapshot.getAllocatableArmyCount();
+				this.currentPlayer = snapshot.getCurrentPlayer();
 	
 				//source and destination will be reset when player is in wrong state
 				if ((this.engine.getClientPlayer().getState() == PlayerState.RELEASE_CARDS) || 
@@ -514,6 +569,11 @@ public class GamePanel extends JLayeredPane implements MControl, TextResources,
 				if ((this.engine.getClientPlayer().getState() == PlayerState.RELEASE_CARDS) && (this.engine.getClientPlayer().getCountryCards().isEmpty())) {
 					this.engine.setCurrentPlayerState(PlayerState.ALLOCATE_ARMIES);
 				}		
+
+				//staged armies are kept until they were sent to the server
+				if (this.engine.getClientPlayer().getState() != PlayerState.ALLOCATE_ARMIES) {
+					this.resetAllocation();
+				}
 		
 				//refreshing army count icons
 				this.refreshArmyCounts();
@@ -521,7 +581,7 @@ public class GamePanel extends JLayeredPane implements MControl, TextResources,
 				//refreshing control bar
 				this.slidePanel.getControlBar().updateButtons();
 				this.slidePanel.getControlBar().setCurrentPlayerLabel(this.currentPlayer);
-				this.slidePanel.getControlBar().setAllocatableArmiesLabel(" "+this.engine.getAllocatableArmyCount()+" ");
+				this.slidePanel.getControlBar().setAllocatableArmiesLabel(" "+(this.allocatableArmyCount - this.stagedArmyCount)+" ");
 				this.slidePanel.getControlBar().updateCardList(this.currentPlayer.getCountryCards());
 		
 				this.repaint();
@@ -543,7 +603,8 @@ public class GamePanel extends JLayeredPane implements MControl, TextResources,
 			Map.Entry pairs = (Map.Entry)iter.next();
 			for (Country country : this.world.getCountries()) {
 				if (country.getId() == ((Country)pairs.getKey()).getId()) {
-					((MArmyCountIcon)pairs.getValue()).setPlayer(country, this.getPlayer(country));
+					Integer staged = this.stagedArmies.get(country.getId());
+					((MArmyCountIcon)pairs.getValue()).setPlayer(country, this.getPlayer(country), (staged == null) ? 0 : staged);
 				}	
 			}
 		}
@@ -591,19 +652,32 @@ public class GamePanel extends JLayeredPane implements MControl, TextResources,
 	public Player getPlayer(Country byCountry) {
 		if (this.players == null) {
 			try {
-				this.players = this.engine.getGamePlayers();
+				this.players = this.engine.getGameSnapshot().getPlayers();
 			} catch (DataAccessException e) {
 				MMessageBox.error(e);
 			}
 		}
 		for (Player player : this.players) {
-			if (player.hasCountry(byCountry)) {
+			if (this.isOwner(player, byCountry)) {
 				return player;
 			}
 		}
 		return null;
 	}
 
+	/**
+	 * Checks if the given player owns the given country. The
+	 * player knows its countries by the index in the game world.
+	 *
+	 * @param player The player.
+	 * @param country The country.
+	 * @return boolean
+	 *
+	 */
+	private boolean isOwner(Player player, Country country) {
+		return player.hasCountry(this.world.getCountryIndex(country));
+	}
+
 	/**
 	 * Calculates maximum number of armies which can attack from the selected country.
 	 * 
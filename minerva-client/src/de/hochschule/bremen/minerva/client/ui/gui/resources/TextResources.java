@@ -99,6 +99,7 @@ public interface TextResources {
 	public static final String GAME_MOVE_ERROR_SAME_COUNTRY					= "Du kannst nicht auf das selbe Land Armeen verschieben.";
 	public static final String GAME_FINISHED_ANNOUCEMENT					= "Das Spiel ist vorbei!";
 	public static final String GAME_FINISHED_WINNER							= " hat das Spiel gewonnen.";
+	public static final String GAME_KILLED_ANNOUCEMENT						= "Das Spiel wurde vom Spielmaster beendet.";
 	
 	// -- Controls
 
@@ -62,6 +62,7 @@ public class ApplicationConfiguration extends ValueObject {
 	private String appIconPath = null;
 	private String uiAssetsDirectory = null;
 	private String uiAssetsFileExtension = null;
+	private String worldCacheDirectory = null;
 
 	private String serverName = null;
 	private String serverHost = null;
@@ -167,6 +168,27 @@ public class ApplicationConfiguration extends ValueObject {
 		return this.uiAssetsFileExtension;
 	}
 
+	/**
+	 * Sets the world cache directory path.
+	 * This directory holds the map images of the already played worlds.
+	 * 
+	 * @param path The string with the full path to the world cache.
+	 * 
+	 */
+	public void setWorldCacheDirectory(String path) {
+		this.worldCacheDirectory = path;
+	}
+
+	/**
+	 * Returns the world cache directory path.
+	 * 
+	 * @return The path to the world cache.
+	 * 
+	 */
+	public String getWorldCacheDirectory() {
+		return this.worldCacheDirectory;
+	}
+
 	/**
 	 * Sets the server name.
 	 *
@@ -18,6 +18,12 @@ CREATE TABLE country (
 	"color" VARCHAR(8) NOT NULL,
 	"world" INT NOT NULL,
 	"continent" INT NOT NULL,
+	"anchor_x" INT NOT NULL DEFAULT -1,
+	"anchor_y" INT NOT NULL DEFAULT -1,
+	"bounds_x" INT NOT NULL DEFAULT -1,
+	"bounds_y" INT NOT NULL DEFAULT -1,
+	"bounds_width" INT NOT NULL DEFAULT -1,
+	"bounds_height" INT NOT NULL DEFAULT -1,
 	PRIMARY KEY ("id"),
 	UNIQUE("token", "name", "world")
 );
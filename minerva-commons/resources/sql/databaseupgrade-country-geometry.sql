@@ -0,0 +1,10 @@
+-- Upgrades an existing database (see: ant upgrade-database), which was
+-- installed before the country geometry was calculated by the world importer.
+-- The countries of the existing worlds will be located on the map, if the
+-- world is loaded for the first time.
+ALTER TABLE country ADD COLUMN "anchor_x" INT NOT NULL DEFAULT -1;
+ALTER TABLE country ADD COLUMN "anchor_y" INT NOT NULL DEFAULT -1;
+ALTER TABLE country ADD COLUMN "bounds_x" INT NOT NULL DEFAULT -1;
+ALTER TABLE country ADD COLUMN "bounds_y" INT NOT NULL DEFAULT -1;
+ALTER TABLE country ADD COLUMN "bounds_width" INT NOT NULL DEFAULT -1;
+ALTER TABLE country ADD COLUMN "bounds_height" INT NOT NULL DEFAULT -1;
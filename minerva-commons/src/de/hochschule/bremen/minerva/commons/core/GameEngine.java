@@ -31,6 +31,7 @@ package de.hochschule.bremen.minerva.commons.core;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.util.Map;
 import java.util.Observer;
 import java.util.Vector;
 
@@ -38,6 +39,7 @@ import de.hochschule.bremen.minerva.commons.exceptions.CountriesNotInRelationExc
 import de.hochschule.bremen.minerva.commons.exceptions.CountryOwnerException;
 import de.hochschule.bremen.minerva.commons.exceptions.DataAccessException;
 import de.hochschule.bremen.minerva.commons.exceptions.GameAlreadyStartedException;
+import de.hochschule.bremen.minerva.commons.exceptions.GameDoesNotExistException;
 import de.hochschule.bremen.minerva.commons.exceptions.IsOwnCountryException;
 import de.hochschule.bremen.minerva.commons.exceptions.NoPlayerLoggedInException;
 import de.hochschule.bremen.minerva.commons.exceptions.NoPlayerSlotAvailableException;
@@ -55,6 +57,10 @@ import de.hochschule.bremen.minerva.commons.exceptions.WrongPasswordException;
 import de.hochschule.bremen.minerva.commons.vo.AttackResult;
 import de.hochschule.bremen.minerva.commons.vo.Country;
 import de.hochschule.bremen.minerva.commons.vo.CountryCard;
+import de.hochschule.bremen.minerva.commons.vo.GameCommand;
+import de.hochschule.bremen.minerva.commons.vo.GameCommandResult;
+import de.hochschule.bremen.minerva.commons.vo.GameInfo;
+import de.hochschule.bremen.minerva.commons.vo.GameSnapshot;
 import de.hochschule.bremen.minerva.commons.vo.Mission;
 import de.hochschule.bremen.minerva.commons.vo.Player;
 import de.hochschule.bremen.minerva.commons.vo.PlayerState;
@@ -79,6 +85,15 @@ public interface GameEngine {
 
 	public Player getClientPlayer();
 
+	// ---------------------
+	// -- lobby subsystem --
+	// ---------------------
+	public int createGame() throws DataAccessException;
+
+	public Vector<GameInfo> getGames() throws DataAccessException;
+
+	public void joinGame(int gameId) throws GameDoesNotExistException, GameAlreadyStartedException, NoPlayerSlotAvailableException, DataAccessException;
+
 	// ---------------------
 	// -- world subsystem --
 	// ---------------------
@@ -101,6 +116,8 @@ public interface GameEngine {
 
 	public Vector<Player> getGamePlayers() throws DataAccessException;
 
+	public GameSnapshot getGameSnapshot() throws DataAccessException;
+
 	public Vector<Mission> getGameMissions() throws DataAccessException;
 
 	public boolean isGameFinished() throws DataAccessException;
@@ -121,10 +138,16 @@ public interface GameEngine {
 
 	public void allocateArmy(Country allocatable) throws NotEnoughArmiesException, CountryOwnerException, DataAccessException;
 
+	public void allocateArmies(Map<Integer, Integer> allocations) throws NotEnoughArmiesException, CountryOwnerException, DataAccessException;
+
 	public AttackResult attack(Country source, Country destination, int armyCount) throws CountriesNotInRelationException, NotEnoughArmiesException, IsOwnCountryException, DataAccessException;
+
+	public AttackResult blitzAttack(Country source, Country destination, int minAttackerArmies, int maxRounds) throws CountriesNotInRelationException, NotEnoughArmiesException, IsOwnCountryException, DataAccessException;
 	
 	public void move(Country source, Country destination, int armyCount) throws CountriesNotInRelationException, NotEnoughArmiesException, CountryOwnerException, DataAccessException;
 
+	public Vector<GameCommandResult> executeCommands(Vector<GameCommand> commands) throws DataAccessException;
+
 	public void addObserver(Observer o);
 	
 	public void deleteObserver(Observer o);
@@ -29,7 +29,7 @@
  */
 package de.hochschule.bremen.minerva.commons.net;
 
-import de.hochschule.bremen.minerva.commons.vo.Player;
+import de.hochschule.bremen.minerva.commons.vo.GameStateDelta;
 import de.root1.simon.SimonRemote;
 import de.root1.simon.exceptions.SimonRemoteException;
 
@@ -43,7 +43,7 @@ import de.root1.simon.exceptions.SimonRemoteException;
  */
 public interface ClientExecutables extends SimonRemote {
 
-	// Refreshes the clients player object.
-	public void refreshPlayer(Player player) throws SimonRemoteException;
+	// Sends the changes of the game state since the last notification.
+	public void refreshGameState(GameStateDelta delta) throws SimonRemoteException;
 
 }
@@ -30,6 +30,7 @@
 package de.hochschule.bremen.minerva.commons.net;
 
 import java.io.IOException;
+import java.util.Map;
 import java.util.Vector;
 
 import de.root1.simon.SimonRemote;
@@ -38,6 +39,7 @@ import de.hochschule.bremen.minerva.commons.exceptions.CountriesNotInRelationExc
 import de.hochschule.bremen.minerva.commons.exceptions.CountryOwnerException;
 import de.hochschule.bremen.minerva.commons.exceptions.DataAccessException;
 import de.hochschule.bremen.minerva.commons.exceptions.GameAlreadyStartedException;
+import de.hochschule.bremen.minerva.commons.exceptions.GameDoesNotExistException;
 import de.hochschule.bremen.minerva.commons.exceptions.IsOwnCountryException;
 import de.hochschule.bremen.minerva.commons.exceptions.NoPlayerLoggedInException;
 import de.hochschule.bremen.minerva.commons.exceptions.NoPlayerSlotAvailableException;
@@ -55,6 +57,11 @@ import de.hochschule.bremen.minerva.commons.exceptions.WrongPasswordException;
 import de.hochschule.bremen.minerva.commons.vo.AttackResult;
 import de.hochschule.bremen.minerva.commons.vo.Country;
 import de.hochschule.bremen.minerva.commons.vo.CountryCard;
+import de.hochschule.bremen.minerva.commons.vo.GameCommand;
+import de.hochschule.bremen.minerva.commons.vo.GameCommandResult;
+import de.hochschule.bremen.minerva.commons.vo.GameInfo;
+import de.hochschule.bremen.minerva.commons.vo.GameSnapshot;
+import de.hochschule.bremen.minerva.commons.vo.GameStateDelta;
 import de.hochschule.bremen.minerva.commons.vo.Mission;
 import de.hochschule.bremen.minerva.commons.vo.Player;
 import de.hochschule.bremen.minerva.commons.vo.PlayerState;
@@ -64,16 +71,20 @@ import de.hochschule.bremen.minerva.commons.vo.World;
  * The server protocol.
  * Contains methods, which are callable via minerva clients.
  * 
+ * The object, which is bound in the registry, is the "lobby". A successful
+ * login returns the session of the calling client. All further calls have to be
+ * invoked on this session, because the session knows the game the client has
+ * joined (see {@link #createGame()} and {@link #joinGame(int)}).
+ * 
  * @since 1.0
  * @version $Id: ServerExecutables.java 839 2010-08-07 19:50:36Z andre.koenig $
  * 
  */
 public interface ServerExecutables extends SimonRemote {
 
-	// Login a player and add this player to the game (if it was not started)
-	// define the callback interface, which will be called if the client has
-	// to change something.
-	public void login(Player player, ClientExecutables clientExecutables) throws SimonRemoteException, PlayerAlreadyLoggedInException, GameAlreadyStartedException, WrongPasswordException, PlayerDoesNotExistException, NoPlayerSlotAvailableException, DataAccessException;
+	// Login a player and define the callback interface, which will be called if the
+	// client has to change something. Returns the session of the logged in player.
+	public ServerExecutables login(Player player, ClientExecutables clientExecutables) throws SimonRemoteException, PlayerAlreadyLoggedInException, WrongPasswordException, PlayerDoesNotExistException, DataAccessException;
 
 	// Registers a new player.
 	public void register(Player player) throws SimonRemoteException, PlayerExistsException, DataAccessException;
@@ -85,6 +96,19 @@ public interface ServerExecutables extends SimonRemote {
 	// Returns all available world (flatView = no country dependencies)
 	public Vector<World> getWorlds(boolean flatView) throws SimonRemoteException, DataAccessException;
 
+	// -- Lobby subsystem --
+
+	// Creates a new game and adds the session player as the gamemaster. Returns the game id.
+	public int createGame() throws SimonRemoteException;
+
+	// Returns all games, which are hosted by this server.
+	public Vector<GameInfo> getGames() throws SimonRemoteException;
+
+	// Adds the session player to the game with the given id (if it was not started).
+	public void joinGame(int gameId) throws SimonRemoteException, GameDoesNotExistException, GameAlreadyStartedException, NoPlayerSlotAvailableException;
+
+	// -- Game subsystem (routed to the game the session player has joined) --
+
 	// Start the game (the gamemaster can do this!)
 	public void startGame() throws SimonRemoteException, NotEnoughPlayersLoggedInException, NoPlayerLoggedInException, WorldNotDefinedException, DataAccessException;
 
@@ -100,6 +124,12 @@ public interface ServerExecutables extends SimonRemote {
 	// Returns the current game players (logged in and assigned to the game).-
 	public Vector<Player> getGamePlayers() throws SimonRemoteException;
 
+	// Returns a consistent view of the game (world, players, current player, allocatable armies, finished flag, winner).
+	public GameSnapshot getGameSnapshot() throws SimonRemoteException;
+
+	// Returns the changes of the game state since the given version (catch-up for the refreshGameState notifications).
+	public GameStateDelta getGameChanges(long sinceVersion) throws SimonRemoteException;
+
 	// Returns the game missions.
 	public Vector<Mission> getGameMissions() throws SimonRemoteException;
 
@@ -109,11 +139,17 @@ public interface ServerExecutables extends SimonRemote {
 	// Game session finished?
 	public boolean isGameFinished() throws SimonRemoteException;
 
-	// Gets the current game map image from the server (base64 encoded).
-	public String getGameMapImage() throws SimonRemoteException, IOException;
+	// Gets the current game map image from the server (the original png bytes).
+	public byte[] getGameMapImage() throws SimonRemoteException, IOException;
+
+	// Gets the md5 hash of the current game map image (client side cache key).
+	public String getGameMapImageHash() throws SimonRemoteException, IOException;
+
+	// Gets the current game map underlay image from the server (the original png bytes).
+	public byte[] getGameMapUnderlayImage() throws SimonRemoteException, IOException;	
 
-	// Gets the current game map underlay image from the server (base64 encoded).
-	public String getGameMapUnderlayImage() throws SimonRemoteException, IOException;	
+	// Gets the md5 hash of the current game map underlay image (client side cache key).
+	public String getGameMapUnderlayImageHash() throws SimonRemoteException, IOException;
 	
 	// -- Game core subsystem --
 
@@ -132,9 +168,18 @@ public interface ServerExecutables extends SimonRemote {
 	// Place one army on the given country.
 	public void allocateArmy(Country allocatable) throws SimonRemoteException, NotEnoughArmiesException, CountryOwnerException;
 
+	// Place several armies at once (country id -> army count).
+	public void allocateArmies(Map<Integer, Integer> allocations) throws SimonRemoteException, NotEnoughArmiesException, CountryOwnerException;
+
 	// The attack method.
 	public AttackResult attack(Country source, Country destination, int armyCount) throws SimonRemoteException, CountriesNotInRelationException, NotEnoughArmiesException, IsOwnCountryException;
 
+	// Attack repeatedly until the country is conquered or a stop condition is reached.
+	public AttackResult blitzAttack(Country source, Country destination, int minAttackerArmies, int maxRounds) throws SimonRemoteException, CountriesNotInRelationException, NotEnoughArmiesException, IsOwnCountryException;
+
+	// Executes several game commands at once (one notification).
+	public Vector<GameCommandResult> executeCommands(Vector<GameCommand> commands) throws SimonRemoteException;
+
 	// Move the specified army count from one country to another.
 	public void move(Country source, Country destination, int armyCount) throws SimonRemoteException, CountriesNotInRelationException, NotEnoughArmiesException, CountryOwnerException;
 
@@ -0,0 +1,153 @@
+/*
+ * Minerva - Game, Copyright 2010 Christian Bollmann, Carina Strempel, André König
+ * Hochschule Bremen - University of Applied Sciences - All Rights Reserved.
+ *
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Contact:
+ *     Christian Bollmann: cbollmann@stud.hs-bremen.de
+ *     Carina Strempel: cstrempel@stud.hs-bremen.de
+ *     André König: akoenig@stud.hs-bremen.de
+ * 
+ * Web:
+ *     http://minerva.idira.de
+ * 
+ */
+package de.hochschule.bremen.minerva.commons.util;
+
+import java.util.Arrays;
+
+/**
+ * A small hash map from rgb colors to int values (country indices for
+ * example). It uses open addressing with linear probing on plain int
+ * arrays, so a lookup needs neither boxing nor string formatting.<br />
+ * 
+ * The alpha channel is ignored, so colors read from an image (argb) and
+ * colors from a value object (rgb) are equal if their rgb values are equal.
+ * 
+ * @since 1.0
+ * @version $Id$
+ * 
+ */
+public class ColorIndex {
+
+	// The value, which will be returned for an unknown color.
+	public static final int NOT_FOUND = -1;
+
+	// Marks an empty slot (a masked rgb value is never negative).
+	private static final int EMPTY = -1;
+
+	private final int[] keys;
+	private final int[] values;
+	private final int mask;
+	private final int shift;
+
+	private int size = 0;
+
+	/**
+	 * Creates an empty color index for the given number of colors.
+	 * The capacity is at least twice the expected size, so the probe
+	 * sequences stay short.
+	 * 
+	 * @param expectedSize The number of colors.
+	 * 
+	 */
+	public ColorIndex(int expectedSize) {
+		int capacity = 4;
+		while (capacity < expectedSize * 2) {
+			capacity <<= 1;
+		}
+
+		this.keys = new int[capacity];
+		this.values = new int[capacity];
+		this.mask = capacity - 1;
+		this.shift = 32 - Integer.numberOfTrailingZeros(capacity);
+
+		Arrays.fill(this.keys, EMPTY);
+	}
+
+	/**
+	 * Maps the given color to the given value. An existing
+	 * mapping will be replaced.
+	 * 
+	 * @param rgb The (a)rgb color.
+	 * @param value The value (must not be NOT_FOUND).
+	 * 
+	 */
+	public void put(int rgb, int value) {
+		int key = rgb & 0xFFFFFF;
+		int slot = this.slot(key);
+
+		while (this.keys[slot] != EMPTY) {
+			if (this.keys[slot] == key) {
+				this.values[slot] = value;
+				return;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+
+		if (this.size * 2 >= this.keys.length) {
+			throw new IllegalStateException("Der Farbindex ist voll (" + this.size + " Farben).");
+		}
+
+		this.keys[slot] = key;
+		this.values[slot] = value;
+		this.size++;
+	}
+
+	/**
+	 * Returns the value of the given color.
+	 * 
+	 * @param rgb The (a)rgb color.
+	 * @return The value or NOT_FOUND, if the color is unknown.
+	 * 
+	 */
+	public int get(int rgb) {
+		int key = rgb & 0xFFFFFF;
+		int slot = this.slot(key);
+
+		while (this.keys[slot] != EMPTY) {
+			if (this.keys[slot] == key) {
+				return this.values[slot];
+			}
+			slot = (slot + 1) & this.mask;
+		}
+
+		return NOT_FOUND;
+	}
+
+	/**
+	 * Returns the number of mapped colors.
+	 * 
+	 * @return The number of colors.
+	 * 
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Spreads the color bits over the table (fibonacci hashing).
+	 * 
+	 * @param key The masked rgb value.
+	 * @return The first slot of the probe sequence.
+	 * 
+	 */
+	private int slot(int key) {
+		return (key * 0x9E3779B9) >>> this.shift;
+	}
+}
@@ -32,14 +32,24 @@ package de.hochschule.bremen.minerva.commons.util;
 
 import de.hochschule.bremen.minerva.commons.vo.Country;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Vector;
 
 /**
  * Represents a graph adt, which we use for country
  * relationship visualization.
  *
+ * The connections will be collected in an edge list. On the first
+ * query, the graph is compacted into a CSR (compressed sparse row)
+ * structure: The neighbour ids of all countries are stored (sorted)
+ * in one int array, the offsets array points to the neighbours of
+ * each country. The countries are addressed by (country id - smallest id).
+ * For small worlds, there is an additional adjacency bitset, so that
+ * {@link #neighbours(Country, Country)} is a single bit test.
+ *
  * @since 1.0
  * @version $Id: CountryGraph.java 735 2010-07-05 07:25:28Z andre.koenig $
  * 
@@ -48,8 +58,23 @@ public class CountryGraph implements Serializable {
 
 	private static final long serialVersionUID = 800121527454876742L;
 
-	// HashMap for neighbour relations.
-	private HashMap<Integer, Vector<Integer>> neighbours = new HashMap<Integer, Vector<Integer>>();
+	// Up to this id range, we create the adjacency bitset (range^2 bits).
+	private static final int BITSET_MAX_RANGE = 256;
+
+	// The edge list (see connect()). Null, if the graph is compacted.
+	// Note that the edge sources are written at last (volatile), so that
+	// all threads are able to see the compacted graph.
+	private volatile int[] edgeSources = null;
+	private int[] edgeTargets = null;
+	private int edgeCount = 0;
+
+	// The compacted graph (CSR).
+	private int idOffset = 0;
+	private int[] offsets = new int[] {0};
+	private int[] targets = new int[0];
+
+	// The adjacency bitset. Will be created on demand.
+	private transient long[] adjacency = null;
 
 	/**
 	 * Connects country one with country two.
@@ -58,17 +83,20 @@ public class CountryGraph implements Serializable {
 	 * @param two The country to connect with the first one.
 	 * 
 	 */
-	public void connect(Country one, Country two) {
-		Vector<Integer> connections;
+	public synchronized void connect(Country one, Country two) {
+		if (this.edgeSources == null) {
+			this.expand();
+		}
 
-		if (neighbours.containsKey(one.getId())) {
-			 connections = neighbours.get(one.getId());
-		} else {
-			connections = new Vector<Integer>();
+		if (this.edgeCount == this.edgeSources.length) {
+			int capacity = Math.max(16, this.edgeCount * 2);
+			this.edgeSources = Arrays.copyOf(this.edgeSources, capacity);
+			this.edgeTargets = Arrays.copyOf(this.edgeTargets, capacity);
 		}
 
-		connections.add(two.getId());
-		neighbours.put(one.getId(), connections);
+		this.edgeSources[this.edgeCount] = one.getId();
+		this.edgeTargets[this.edgeCount] = two.getId();
+		this.edgeCount++;
 	}
 	
 	/**
@@ -83,10 +111,36 @@ public class CountryGraph implements Serializable {
 	 * 
 	 */
 	public boolean neighbours(Country one, Country two) {
-		if (neighbours.get(one.getId()).contains(two.getId())) {
-			return true;
+		return this.neighbours(one.getId(), two.getId());
+	}
+
+	/**
+	 * Checks if two countries are neighbours or not.
+	 * 
+	 * @param oneId The id of the first country.
+	 * @param twoId The id of the second country.
+	 * 
+	 * @return boolean
+	 * 
+	 */
+	public boolean neighbours(int oneId, int twoId) {
+		this.compact();
+
+		int range = this.offsets.length - 1;
+		int one = oneId - this.idOffset;
+		int two = twoId - this.idOffset;
+
+		if ((one < 0) || (one >= range) || (two < 0) || (two >= range)) {
+			return false;
 		}
-		return false;
+
+		long[] adjacency = this.adjacency;
+		if (adjacency != null) {
+			int bit = one * range + two;
+			return ((adjacency[bit >>> 6] & (1L << bit)) != 0);
+		}
+
+		return (Arrays.binarySearch(this.targets, this.offsets[one], this.offsets[one + 1], twoId) >= 0);
 	}
 
 	/**
@@ -98,7 +152,47 @@ public class CountryGraph implements Serializable {
 	 * 
 	 */
 	public Vector<Integer> getNeighbours(int byCountryId) {
-		return this.neighbours.get(byCountryId);
+		int count = this.getNeighbourCount(byCountryId);
+		Vector<Integer> neighbours = new Vector<Integer>(count);
+
+		for (int i = 0; i < count; i++) {
+			neighbours.add(this.getNeighbour(byCountryId, i));
+		}
+		return neighbours;
+	}
+
+	/**
+	 * Returns the neighbour count of the given country. Use this
+	 * method together with {@link #getNeighbour(int, int)} for iterating
+	 * over the neighbours without creating objects.
+	 * 
+	 * @param countryId The country id.
+	 * @return The neighbour count.
+	 * 
+	 */
+	public int getNeighbourCount(int countryId) {
+		this.compact();
+
+		int node = countryId - this.idOffset;
+		if ((node < 0) || (node >= this.offsets.length - 1)) {
+			return 0;
+		}
+		return this.offsets[node + 1] - this.offsets[node];
+	}
+
+	/**
+	 * Returns the id of the n-th neighbour of the given country.
+	 * The neighbours are sorted by id.
+	 * 
+	 * @param countryId The country id.
+	 * @param n The neighbour number (0 ... neighbourCount - 1).
+	 * @return The neighbour id.
+	 * 
+	 */
+	public int getNeighbour(int countryId, int n) {
+		this.compact();
+
+		return this.targets[this.offsets[countryId - this.idOffset] + n];
 	}
 
 	/**
@@ -109,10 +203,147 @@ public class CountryGraph implements Serializable {
 	 * 
 	 */
 	public boolean hasNeighbours(int countryId) {
-		if (this.neighbours.get(countryId) == null) {
-			return false;
-		} else {
-			return !this.neighbours.get(countryId).isEmpty();
+		return (this.getNeighbourCount(countryId) > 0);
+	}
+
+	/**
+	 * Creates the CSR structure from the edge list. Duplicated
+	 * connections will be removed. Does nothing, if the graph
+	 * is already compacted.
+	 * 
+	 */
+	private void compact() {
+		if (this.edgeSources == null) {
+			return;
+		}
+
+		synchronized (this) {
+			if (this.edgeSources == null) {
+				return;
+			}
+
+			int min = Integer.MAX_VALUE;
+			int max = Integer.MIN_VALUE;
+			for (int i = 0; i < this.edgeCount; i++) {
+				min = Math.min(min, Math.min(this.edgeSources[i], this.edgeTargets[i]));
+				max = Math.max(max, Math.max(this.edgeSources[i], this.edgeTargets[i]));
+			}
+
+			int range = (this.edgeCount == 0) ? 0 : (max - min + 1);
+			int[] offsets = new int[range + 1];
+			int[] targets = new int[this.edgeCount];
+
+			// Counting sort by source.
+			for (int i = 0; i < this.edgeCount; i++) {
+				offsets[this.edgeSources[i] - min + 1]++;
+			}
+			for (int i = 0; i < range; i++) {
+				offsets[i + 1] += offsets[i];
+			}
+
+			int[] positions = Arrays.copyOf(offsets, range);
+			for (int i = 0; i < this.edgeCount; i++) {
+				targets[positions[this.edgeSources[i] - min]++] = this.edgeTargets[i];
+			}
+
+			// Sort the neighbours of each country and remove the duplicates.
+			int size = 0;
+			int start = 0;
+			for (int node = 0; node < range; node++) {
+				int end = offsets[node + 1];
+				Arrays.sort(targets, start, end);
+
+				offsets[node] = size;
+				for (int i = start; i < end; i++) {
+					if ((i == start) || (targets[i] != targets[i - 1])) {
+						targets[size++] = targets[i];
+					}
+				}
+				start = end;
+			}
+			offsets[range] = size;
+
+			this.idOffset = (range == 0) ? 0 : min;
+			this.targets = Arrays.copyOf(targets, size);
+			this.offsets = offsets;
+			this.adjacency = this.createAdjacency();
+
+			this.edgeTargets = null;
+			this.edgeCount = 0;
+			this.edgeSources = null;
+		}
+	}
+
+	/**
+	 * Converts the CSR structure back to an edge list,
+	 * so that it is possible to add new connections.
+	 * 
+	 */
+	private void expand() {
+		int range = this.offsets.length - 1;
+
+		int[] sources = new int[Math.max(16, this.targets.length)];
+		int[] targets = new int[Math.max(16, this.targets.length)];
+
+		for (int node = 0; node < range; node++) {
+			for (int i = this.offsets[node]; i < this.offsets[node + 1]; i++) {
+				sources[i] = node + this.idOffset;
+				targets[i] = this.targets[i];
+			}
+		}
+
+		this.adjacency = null;
+		this.edgeTargets = targets;
+		this.edgeCount = this.targets.length;
+		this.edgeSources = sources;
+	}
+
+	/**
+	 * Creates the adjacency bitset for small worlds.
+	 * 
+	 * @return The bitset or null, if the world is too big.
+	 * 
+	 */
+	private long[] createAdjacency() {
+		int range = this.offsets.length - 1;
+
+		if (range > BITSET_MAX_RANGE) {
+			return null;
+		}
+
+		long[] adjacency = new long[((range * range) >>> 6) + 1];
+		for (int node = 0; node < range; node++) {
+			for (int i = this.offsets[node]; i < this.offsets[node + 1]; i++) {
+				int bit = node * range + (this.targets[i] - this.idOffset);
+				adjacency[bit >>> 6] |= (1L << bit);
+			}
+		}
+		return adjacency;
+	}
+
+	/**
+	 * Compacts the graph before it will be serialized. So
+	 * only the CSR structure will be transmitted.
+	 * 
+	 * @param out
+	 * @throws IOException
+	 * 
+	 */
+	private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+		this.compact();
+		out.defaultWriteObject();
+	}
+
+	/**
+	 * Recreates the adjacency bitset after deserialization.
+	 * 
+	 * @return The graph.
+	 * 
+	 */
+	private Object readResolve() {
+		if (this.edgeSources == null) {
+			this.adjacency = this.createAdjacency();
 		}
+		return this;
 	}
-}
\ No newline at end of file
+}
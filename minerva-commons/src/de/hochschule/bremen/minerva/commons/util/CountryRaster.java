@@ -0,0 +1,186 @@
+/*
+ * Minerva - Game, Copyright 2010 Christian Bollmann, Carina Strempel, André König
+ * Hochschule Bremen - University of Applied Sciences - All Rights Reserved.
+ *
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Contact:
+ *     Christian Bollmann: cbollmann@stud.hs-bremen.de
+ *     Carina Strempel: cstrempel@stud.hs-bremen.de
+ *     André König: akoenig@stud.hs-bremen.de
+ * 
+ * Web:
+ *     http://minerva.idira.de
+ * 
+ */
+package de.hochschule.bremen.minerva.commons.util;
+
+import java.awt.image.BufferedImage;
+import java.util.Collection;
+
+import de.hochschule.bremen.minerva.commons.vo.Country;
+import de.hochschule.bremen.minerva.commons.vo.ValueObject;
+import de.hochschule.bremen.minerva.commons.vo.World;
+
+/**
+ * The country raster is a compact replacement for the map underlay image.
+ * Each pixel of the underlay is converted once into a country label, so
+ * a map click resolves the country with one array read instead of reading
+ * the image and comparing colors.<br />
+ * 
+ * A label needs one byte per pixel (or two bytes if the world has more
+ * than 255 countries), instead of four bytes per pixel in the image.
+ * 
+ * <br />
+ * Usage:
+ * 
+ * <pre>
+ * CountryRaster raster = new CountryRaster(mapUnderlay, world.getCountries());
+ * Country country = raster.getCountry(world, x, y);
+ * </pre>
+ * 
+ * @since 1.0
+ * @version $Id$
+ * 
+ */
+public class CountryRaster {
+
+	// Label for pixels, which do not belong to a country.
+	private static final int NO_COUNTRY = 0;
+
+	private final int width;
+	private final int height;
+
+	// label -> country id
+	private final int[] countryIds;
+
+	// The pixel labels (row-major). Only one of both arrays is used.
+	private final byte[] byteLabels;
+	private final short[] shortLabels;
+
+	/**
+	 * Creates the country raster from the given map underlay.
+	 * 
+	 * @param mapUnderlay The map underlay with the country colors.
+	 * @param countries The countries, which are painted on the underlay.
+	 * 
+	 */
+	public CountryRaster(BufferedImage mapUnderlay, Collection<Country> countries) {
+		this.width = mapUnderlay.getWidth();
+		this.height = mapUnderlay.getHeight();
+
+		if (countries.size() > Short.MAX_VALUE * 2) {
+			throw new IllegalArgumentException("Die Welt hat zu viele Länder für das Länder-Raster (" + countries.size() + ").");
+		}
+
+		this.countryIds = new int[countries.size() + 1];
+		this.countryIds[NO_COUNTRY] = ValueObject.getDefaultId();
+
+		ColorIndex labelsByColor = new ColorIndex(countries.size());
+		int label = NO_COUNTRY;
+		for (Country country : countries) {
+			this.countryIds[++label] = country.getId();
+			labelsByColor.put(country.getColor().getRGB(), label);
+		}
+
+		boolean compact = (countries.size() <= 0xFF);
+		this.byteLabels = (compact) ? new byte[this.width * this.height] : null;
+		this.shortLabels = (compact) ? null : new short[this.width * this.height];
+
+		int[] row = new int[this.width];
+
+		for (int y = 0; y < this.height; y++) {
+			MapTool.getPixels(mapUnderlay, y, 1, row);
+
+			int offset = y * this.width;
+			int lastColor = -1;
+			int pixelLabel = NO_COUNTRY;
+
+			for (int x = 0; x < this.width; x++) {
+				int color = row[x] & 0xFFFFFF;
+				if (color != lastColor) {
+					int found = labelsByColor.get(color);
+					pixelLabel = (found == ColorIndex.NOT_FOUND) ? NO_COUNTRY : found;
+					lastColor = color;
+				}
+
+				if (compact) {
+					this.byteLabels[offset + x] = (byte)pixelLabel;
+				} else {
+					this.shortLabels[offset + x] = (short)pixelLabel;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the id of the country at the given map position.
+	 * 
+	 * @param x The x coordinate on the map.
+	 * @param y The y coordinate on the map.
+	 * @return The country id. The default id if there is no country at this position.
+	 * 
+	 */
+	public int getCountryId(int x, int y) {
+		if ((x < 0) || (y < 0) || (x >= this.width) || (y >= this.height)) {
+			return this.countryIds[NO_COUNTRY];
+		}
+
+		int position = y * this.width + x;
+		int label = (this.byteLabels != null) ? (this.byteLabels[position] & 0xFF) : (this.shortLabels[position] & 0xFFFF);
+
+		return this.countryIds[label];
+	}
+
+	/**
+	 * Returns the country at the given map position.
+	 * 
+	 * @param world The world, which holds the country objects.
+	 * @param x The x coordinate on the map.
+	 * @param y The y coordinate on the map.
+	 * @return The country reference. If there is no country at this position, then the country is empty.
+	 * 
+	 */
+	public Country getCountry(World world, int x, int y) {
+		int index = world.getCountryIndex(this.getCountryId(x, y));
+
+		if (index == -1) {
+			return new Country();
+		}
+		return world.getCountries().get(index);
+	}
+
+	/**
+	 * Returns the raster width.
+	 * 
+	 * @return The width (equals the map width).
+	 * 
+	 */
+	public int getWidth() {
+		return this.width;
+	}
+
+	/**
+	 * Returns the raster height.
+	 * 
+	 * @return The height (equals the map height).
+	 * 
+	 */
+	public int getHeight() {
+		return this.height;
+	}
+}
@@ -46,6 +46,22 @@ public class Die implements Serializable {
 	
 	private int number = 0;
 
+	/**
+	 * Creates a die, which was not rolled.
+	 * 
+	 */
+	public Die() {}
+
+	/**
+	 * Creates a die with the given roll result.
+	 * 
+	 * @param number The roll result.
+	 * 
+	 */
+	public Die(int number) {
+		this.number = number;
+	}
+
 	/**
 	 * Rolls the dice.
 	 * 
@@ -82,5 +98,26 @@ public class Die implements Serializable {
 			}
 		}
 		return output;
-	}	
+	}
+
+	/**
+	 * Helper method, that sorts the roll results
+	 * descending (in place). Please use it only for
+	 * a few dice (insertion sort).
+	 * 
+	 * @param rollResults The roll results.
+	 * 
+	 */
+	public static void sortDescending(int[] rollResults) {
+		for (int i = 1; i < rollResults.length; i++) {
+			int rollResult = rollResults[i];
+			int j = i - 1;
+
+			while ((j >= 0) && (rollResults[j] < rollResult)) {
+				rollResults[j + 1] = rollResults[j];
+				j--;
+			}
+			rollResults[j + 1] = rollResult;
+		}
+	}
 }
\ No newline at end of file
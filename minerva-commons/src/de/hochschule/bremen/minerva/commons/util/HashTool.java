@@ -61,5 +61,30 @@ public class HashTool {
 		m.update(hashable.getBytes(), 0, hashable.length() );
 		
 		return new BigInteger(1, m.digest()).toString(16);
-	}	
+	}
+
+	/**
+	 * Converts a byte array (the content of an asset file for example)
+	 * to an md5 hash. The hash is always 32 characters long, so it can
+	 * be used as a filename.
+	 * 
+	 * @param hashable The hashable bytes.
+	 * @return The hashed bytes as hex string.
+	 * 
+	 */
+	public static String md5(byte[] hashable) {
+		MessageDigest m = null;
+		try {
+			m = MessageDigest.getInstance(MD5_HASH_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {}
+
+		m.update(hashable, 0, hashable.length);
+
+		StringBuilder hash = new StringBuilder(new BigInteger(1, m.digest()).toString(16));
+		while (hash.length() < 32) {
+			hash.insert(0, '0');
+		}
+
+		return hash.toString();
+	}
 }
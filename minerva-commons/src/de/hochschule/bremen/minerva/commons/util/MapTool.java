@@ -29,12 +29,15 @@
  */
 package de.hochschule.bremen.minerva.commons.util;
 
-import java.awt.Color;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 
 import javax.imageio.ImageIO;
@@ -69,7 +72,11 @@ public class MapTool {
 	 * 
 	 * @return HashMap Contains the country as key and the anchor point as value.
 	 * 
+	 * @deprecated The anchors are calculated while importing the world.
+	 *             Use {@link Country#getAnchor()} instead.
+	 * 
 	 */
+	@Deprecated
 	public static HashMap<Country, Point> getCountryAnchors(BufferedImage map, BufferedImage mapUnderlay, World world) {
 		HashMap<Country, Point> countryAnchors = new HashMap<Country, Point>();
 
@@ -77,7 +84,7 @@ public class MapTool {
 			for (int y = 0; y < map.getHeight(); y++) {
 				if (map.getRGB(x, y) == COUNTRY_ANCHOR_IDENTIFIER) {
 					Point point = new Point(x,y);
-					Country country = world.getCountry(new Color(mapUnderlay.getRGB(x, y)));
+					Country country = world.getCountryByColor(mapUnderlay.getRGB(x, y));
 
 					if (country.getId() > ValueObject.getDefaultId()) {
 						countryAnchors.put(country, point);
@@ -89,22 +96,119 @@ public class MapTool {
 		return countryAnchors;
 	}
 	
+	/**
+	 * Calculates the anchor point and the bounding box of each given country
+	 * and stores them in the country value objects (see: {@link Country#setAnchor(Point)}
+	 * and {@link Country#setBounds(Rectangle)}).<br />
+	 * 
+	 * Both images are scanned only once, row by row. The country is identified
+	 * by the underlay color of the pixel. If there is more than one anchor pixel
+	 * in a country, the anchor with the highest x (and then y) coordinate wins.
+	 * A country without an anchor pixel is anchored in the center of its
+	 * bounding box.
+	 * 
+	 * @param map The world map with the anchor pixels.
+	 * @param mapUnderlay The world map underlay with the country colors.
+	 * @param countries The countries, which should be located on the map.
+	 * 
+	 */
+	public static void locateCountries(BufferedImage map, BufferedImage mapUnderlay, Collection<Country> countries) {
+		Country[] located = countries.toArray(new Country[countries.size()]);
+
+		ColorIndex indexByColor = new ColorIndex(located.length);
+		for (int i = 0; i < located.length; i++) {
+			indexByColor.put(located[i].getColor().getRGB(), i);
+		}
+
+		int[] minX = new int[located.length];
+		int[] minY = new int[located.length];
+		int[] maxX = new int[located.length];
+		int[] maxY = new int[located.length];
+		int[] anchorX = new int[located.length];
+		int[] anchorY = new int[located.length];
+		Arrays.fill(minX, Integer.MAX_VALUE);
+		Arrays.fill(maxX, -1);
+		Arrays.fill(anchorX, -1);
+
+		int width = Math.min(map.getWidth(), mapUnderlay.getWidth());
+		int height = Math.min(map.getHeight(), mapUnderlay.getHeight());
+
+		int[] mapRow = new int[map.getWidth()];
+		int[] underlayRow = new int[mapUnderlay.getWidth()];
+
+		for (int y = 0; y < height; y++) {
+			getPixels(map, y, 1, mapRow);
+			getPixels(mapUnderlay, y, 1, underlayRow);
+
+			int index = -1;
+			int lastColor = -1;
+
+			for (int x = 0; x < width; x++) {
+				int color = underlayRow[x] & 0xFFFFFF;
+				if (color != lastColor) {
+					index = indexByColor.get(color);
+					lastColor = color;
+				}
+
+				if (index == ColorIndex.NOT_FOUND) {
+					continue;
+				}
+
+				if (maxX[index] == -1) {
+					minY[index] = y;
+				}
+				minX[index] = Math.min(minX[index], x);
+				maxX[index] = Math.max(maxX[index], x);
+				maxY[index] = y;
+
+				// Row by row means: The last anchor in a column is always the one with the highest y.
+				if (mapRow[x] == COUNTRY_ANCHOR_IDENTIFIER && x >= anchorX[index]) {
+					anchorX[index] = x;
+					anchorY[index] = y;
+				}
+			}
+		}
+
+		for (int i = 0; i < located.length; i++) {
+			if (maxX[i] == -1) {
+				located[i].setBounds(null);
+				located[i].setAnchor(null);
+				continue;
+			}
+
+			Rectangle bounds = new Rectangle(minX[i], minY[i], maxX[i] - minX[i] + 1, maxY[i] - minY[i] + 1);
+			located[i].setBounds(bounds);
+
+			if (anchorX[i] == -1) {
+				located[i].setAnchor(new Point((int)bounds.getCenterX(), (int)bounds.getCenterY()));
+			} else {
+				located[i].setAnchor(new Point(anchorX[i], anchorY[i]));
+			}
+		}
+	}
+
 	/**
 	 * Creates a map image out of a 2-dimensional integer array equivalent in aRGB
 	 * @param integerArray map as integer array
 	 * @return map as buffered image
 	 * 
-	 * @deprecated
+	 * @deprecated Use {@link #createMapImage(int[], int, int)} (flat, row-major).
 	 * 
 	 */
+	@Deprecated
 	public static BufferedImage createMapImageFromArray(int[][] integerArray) {
-		BufferedImage image = new BufferedImage(integerArray.length, integerArray[0].length, BufferedImage.TYPE_INT_ARGB_PRE);
-		for(int x = 0; x < integerArray.length; x++) {
-			for(int y = 0; y < integerArray[0].length; y++) {
-				image.setRGB(x, y, integerArray[x][y]);
+		int width = integerArray.length;
+		int height = integerArray[0].length;
+
+		int[] pixels = new int[width * height];
+		for (int x = 0; x < width; x++) {
+			int[] column = integerArray[x];
+			for (int y = 0; y < height; y++) {
+				pixels[y * width + x] = column[y];
 			}
 		}
-		return image;
+
+		return createMapImage(pixels, width, height);
 	}
 	
 	/**
@@ -113,19 +217,196 @@ public class MapTool {
 	 * @param mapImage buffered image of map
 	 * @return integer array of image
 	 * 
-	 * @deprecated
+	 * @deprecated Use {@link #createPixelArray(BufferedImage)} (flat, row-major).
 	 * 
 	 */
+	@Deprecated
 	public static int[][] createArrayFromMapImage(BufferedImage mapImage) {
-		int[][] map = new int[mapImage.getWidth()][mapImage.getHeight()];
-		for (int x = 0; x < mapImage.getWidth(); x++) {
-			for (int y = 0; y < mapImage.getHeight(); y++) {
-				map[x][y] = mapImage.getRGB(x, y);
+		int width = mapImage.getWidth();
+		int height = mapImage.getHeight();
+		int[] pixels = createPixelArray(mapImage);
+
+		int[][] map = new int[width][height];
+		for (int y = 0; y < height; y++) {
+			int offset = y * width;
+			for (int x = 0; x < width; x++) {
+				map[x][y] = pixels[offset + x];
 			}
 		}
 		return map;
 	}
 
+	/**
+	 * Creates a map image (TYPE_INT_ARGB) out of a flat, row-major
+	 * integer array with aRGB values. The pixels will be copied in
+	 * one bulk operation into the image raster.
+	 * 
+	 * @param pixels The aRGB values (pixels[y * width + x]).
+	 * @param width The image width.
+	 * @param height The image height.
+	 * @return The map as buffered image.
+	 * 
+	 */
+	public static BufferedImage createMapImage(int[] pixels, int width, int height) {
+		if (pixels.length < width * height) {
+			throw new IllegalArgumentException("Das Pixel-Array ist zu klein ("+pixels.length+" < "+(width * height)+").");
+		}
+
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		setPixels(image, 0, height, pixels);
+
+		return image;
+	}
+
+	/**
+	 * Creates a flat, row-major integer array (pixels[y * width + x])
+	 * with the aRGB values of the given image.
+	 * 
+	 * @param image The image.
+	 * @return The aRGB values.
+	 * 
+	 */
+	public static int[] createPixelArray(BufferedImage image) {
+		return getPixels(image, 0, image.getHeight(), new int[image.getWidth() * image.getHeight()]);
+	}
+
+	/**
+	 * Reads the aRGB values of some complete image rows into the given
+	 * buffer (row-major). Images with int or byte rasters (the png types)
+	 * will be read directly from the raster, all others via the color model.
+	 * 
+	 * @param image The image.
+	 * @param y The first row.
+	 * @param rows The number of rows.
+	 * @param buffer The buffer (at least width * rows elements).
+	 * @return The buffer.
+	 * 
+	 */
+	public static int[] getPixels(BufferedImage image, int y, int rows, int[] buffer) {
+		int width = image.getWidth();
+		int count = width * rows;
+		WritableRaster raster = image.getRaster();
+
+		switch (image.getType()) {
+			case BufferedImage.TYPE_INT_ARGB:
+				raster.getDataElements(0, y, width, rows, buffer);
+				break;
+
+			case BufferedImage.TYPE_INT_RGB:
+				raster.getDataElements(0, y, width, rows, buffer);
+				for (int i = 0; i < count; i++) {
+					buffer[i] |= 0xFF000000;
+				}
+				break;
+
+			case BufferedImage.TYPE_3BYTE_BGR:
+			case BufferedImage.TYPE_4BYTE_ABGR:
+				// The raster returns the samples in band order: red, green, blue (, alpha).
+				int bands = raster.getNumBands();
+				int[] samples = raster.getPixels(0, y, width, rows, (int[])null);
+
+				for (int i = 0, s = 0; i < count; i++, s += bands) {
+					int alpha = (bands == 4) ? samples[s + 3] : 0xFF;
+					buffer[i] = (alpha << 24) | (samples[s] << 16) | (samples[s + 1] << 8) | samples[s + 2];
+				}
+				break;
+
+			default:
+				image.getRGB(0, y, width, rows, buffer, 0, width);
+		}
+
+		return buffer;
+	}
+
+	/**
+	 * Writes aRGB values (row-major) into some complete image rows.
+	 * 
+	 * @param image The image.
+	 * @param y The first row.
+	 * @param rows The number of rows.
+	 * @param buffer The aRGB values (at least width * rows elements).
+	 * 
+	 */
+	public static void setPixels(BufferedImage image, int y, int rows, int[] buffer) {
+		int width = image.getWidth();
+
+		if (image.getType() == BufferedImage.TYPE_INT_ARGB) {
+			image.getRaster().setDataElements(0, y, width, rows, buffer);
+		} else {
+			image.setRGB(0, y, width, rows, buffer, 0, width);
+		}
+	}
+
+	/**
+	 * Streams the image in tiles (bands of complete rows) to the given
+	 * handler. Only one tile buffer exists at a time, so large maps can
+	 * be processed without a second full copy of the image.
+	 * 
+	 * @param image The image.
+	 * @param tileHeight The number of rows per tile.
+	 * @param handler The handler, which gets the aRGB values of each tile.
+	 * 
+	 */
+	public static void readTiles(BufferedImage image, int tileHeight, TileHandler handler) {
+		int width = image.getWidth();
+		int height = image.getHeight();
+
+		tileHeight = Math.max(1, Math.min(tileHeight, height));
+		int[] buffer = new int[width * tileHeight];
+
+		for (int y = 0; y < height; y += tileHeight) {
+			int rows = Math.min(tileHeight, height - y);
+			handler.handle(y, rows, width, getPixels(image, y, rows, buffer));
+		}
+	}
+
+	/**
+	 * Creates an image (TYPE_INT_ARGB) tile by tile. The handler fills
+	 * the tile buffer with aRGB values, which will be written into the
+	 * image after each tile.
+	 * 
+	 * @param width The image width.
+	 * @param height The image height.
+	 * @param tileHeight The number of rows per tile.
+	 * @param handler The handler, which fills the tiles.
+	 * @return The created image.
+	 * 
+	 */
+	public static BufferedImage writeTiles(int width, int height, int tileHeight, TileHandler handler) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+		tileHeight = Math.max(1, Math.min(tileHeight, height));
+		int[] buffer = new int[width * tileHeight];
+
+		for (int y = 0; y < height; y += tileHeight) {
+			int rows = Math.min(tileHeight, height - y);
+			handler.handle(y, rows, width, buffer);
+			setPixels(image, y, rows, buffer);
+		}
+
+		return image;
+	}
+
+	/**
+	 * Handler for the tile based image processing
+	 * (see: {@link MapTool#readTiles(BufferedImage, int, TileHandler)}).
+	 * 
+	 */
+	public interface TileHandler {
+
+		/**
+		 * Handles one tile.
+		 * 
+		 * @param y The first image row of this tile.
+		 * @param rows The number of rows in this tile.
+		 * @param width The image (and tile) width.
+		 * @param pixels The aRGB values of the tile (pixels[row * width + x]).
+		 *               The buffer will be reused for the next tile.
+		 * 
+		 */
+		public void handle(int y, int rows, int width, int[] pixels);
+	}
+
 	/**
 	 * Converts a buffered image to an base64 encoded string.
 	 *
@@ -163,4 +444,17 @@ public class MapTool {
 
 		return ImageIO.read(new ByteArrayInputStream(mapData));
 	}
+
+	/**
+	 * Creates a buffered image from the raw (png encoded) image bytes.
+	 * 
+	 * @param mapData The map as it is stored in the assets directory.
+	 * @return The map as an buffered image.
+	 *
+	 * @throws IOException
+	 *
+	 */
+	public static BufferedImage fromBytes(byte[] mapData) throws IOException {
+		return ImageIO.read(new ByteArrayInputStream(mapData));
+	}
 }
\ No newline at end of file
@@ -52,10 +52,12 @@ public class AttackResult implements Serializable {
 	private int lostAttackerArmies = 0;
 	private int lostDefenderArmies = 0;
 	
-	private Vector<Die> attackerDice = null;
-	private Vector<Die> defenderDice = null;
+	private int[] attackerDice = null;
+	private int[] defenderDice = null;
 	
 	private boolean win = false;
+
+	private Vector<AttackResult> rounds = null;
 	
 
 	/**
@@ -65,10 +67,12 @@ public class AttackResult implements Serializable {
 	 * @param defender Defending player.
 	 * @param lostArmies Armies lost by the attacker.
 	 * @param defeatedArmies Armies lost by the defender.
+	 * @param attackerDice The roll results of the attacker.
+	 * @param defenderDice The roll results of the defender.
 	 * @param win Was the attack a success?
 	 *
 	 */
-	public AttackResult(Player attacker, Player defender, int lostArmies, int defeatedArmies, Vector<Die> attackerDice, Vector<Die> defenderDice, boolean win) {
+	public AttackResult(Player attacker, Player defender, int lostArmies, int defeatedArmies, int[] attackerDice, int[] defenderDice, boolean win) {
 		this.setAttacker(attacker);
 		this.setDefender(defender);
 		this.setLostAttackerArmies(lostArmies);
@@ -79,6 +83,24 @@ public class AttackResult implements Serializable {
 		this.setDefenderDice(defenderDice);
 	}
 	
+	/**
+	 * Constructor of an aggregated AttackResult (e. g. a blitz attack).
+	 * The lost armies are summed up over all rounds, the roll results
+	 * and the success are taken from the last round.
+	 *
+	 * @param rounds The results of the single rounds (at least one).
+	 *
+	 */
+	public AttackResult(Vector<AttackResult> rounds) {
+		this(rounds.firstElement().getAttacker(), rounds.firstElement().getDefender(), 0, 0, rounds.lastElement().getAttackerRollResults(), rounds.lastElement().getDefenderRollResults(), rounds.lastElement().isWin());
+
+		for (AttackResult round : rounds) {
+			this.lostAttackerArmies += round.getLostAttackerArmies();
+			this.lostDefenderArmies += round.getLostDefenderArmies();
+		}
+		this.rounds = rounds;
+	}
+
 	/**
 	 * Sets lost armies of the attacker.
 	 * 
@@ -180,15 +202,25 @@ public class AttackResult implements Serializable {
 	}
 
 	/**
-	 * Sets the attacker die.
+	 * Sets the attacker roll results.
 	 *
-	 * @param attackerDie The attacker die.
+	 * @param attackerDice The attacker roll results.
 	 * 
 	 */
-	private void setAttackerDice(Vector<Die> attackerDice) {
+	private void setAttackerDice(int[] attackerDice) {
 		this.attackerDice = attackerDice;
 	}
 
+	/**
+	 * Returns the attacker roll results.
+	 * 
+	 * @return The roll results (sorted descending).
+	 * 
+	 */
+	public int[] getAttackerRollResults() {
+		return this.attackerDice;
+	}
+
 	/**
 	 * Returns the attacker die.
 	 * 
@@ -196,19 +228,29 @@ public class AttackResult implements Serializable {
 	 * 
 	 */
 	public Vector<Die> getAttackerDice() {
-		return this.attackerDice;
+		return AttackResult.toDice(this.attackerDice);
 	}
 
 	/**
-	 * Sets the defender die.
+	 * Sets the defender roll results.
 	 * 
-	 * @param defenderDie The defender die.
+	 * @param defenderDice The defender roll results.
 	 *
 	 */
-	private void setDefenderDice(Vector<Die> defenderDice) {
+	private void setDefenderDice(int[] defenderDice) {
 		this.defenderDice = defenderDice;
 	}
 
+	/**
+	 * Returns the defender roll results.
+	 * 
+	 * @return The roll results (sorted descending).
+	 * 
+	 */
+	public int[] getDefenderRollResults() {
+		return this.defenderDice;
+	}
+
 	/**
 	 * Returns the defender die
 	 *
@@ -216,7 +258,49 @@ public class AttackResult implements Serializable {
 	 *
 	 */
 	public Vector<Die> getDefenderDice() {
-		return this.defenderDice;
+		return AttackResult.toDice(this.defenderDice);
+	}
+
+	/**
+	 * Returns the results of the single rounds. A simple
+	 * attack consists of exactly one round (the result itself).
+	 *
+	 * @return The round results.
+	 *
+	 */
+	public Vector<AttackResult> getRounds() {
+		if (this.rounds == null) {
+			Vector<AttackResult> rounds = new Vector<AttackResult>(1);
+			rounds.add(this);
+			return rounds;
+		}
+		return this.rounds;
+	}
+
+	/**
+	 * Returns the number of rounds.
+	 *
+	 * @return The round count.
+	 *
+	 */
+	public int getRoundCount() {
+		return (this.rounds == null) ? 1 : this.rounds.size();
+	}
+
+	/**
+	 * Creates die objects by the given roll results.
+	 * 
+	 * @param rollResults The roll results.
+	 * @return A vector with the dice.
+	 * 
+	 */
+	private static Vector<Die> toDice(int[] rollResults) {
+		Vector<Die> dice = new Vector<Die>(rollResults.length);
+
+		for (int rollResult : rollResults) {
+			dice.add(new Die(rollResult));
+		}
+		return dice;
 	}
 
 	/**
@@ -226,6 +310,6 @@ public class AttackResult implements Serializable {
 	 *
 	 */
 	public String toString() {
-		return (""+this.attacker.getUsername()+" attacked "+this.defender.getUsername()+", lost "+this.lostAttackerArmies+ ((this.lostAttackerArmies > 1)? " armies" : " army")+" and defeated " + this.lostDefenderArmies +((this.lostDefenderArmies > 1)? " armies. " : " army. ")+this.attacker.getUsername()+ ((this.win) ? " won" : " did not win")+ " the country.");
+		return (""+this.attacker.getUsername()+" attacked "+this.defender.getUsername()+", lost "+this.lostAttackerArmies+ ((this.lostAttackerArmies > 1)? " armies" : " army")+" and defeated " + this.lostDefenderArmies +((this.lostDefenderArmies > 1)? " armies. " : " army. ")+this.attacker.getUsername()+ ((this.win) ? " won" : " did not win")+ " the country."+((this.rounds != null) ? " ("+this.rounds.size()+" rounds)" : ""));
 	}
 }
\ No newline at end of file
@@ -29,6 +29,7 @@
  */
 package de.hochschule.bremen.minerva.commons.vo;
 
+import java.util.BitSet;
 import java.util.Vector;
 
 /**
@@ -46,19 +47,30 @@ public class ContinentConquerMission extends Mission {
 
 	Vector<Country> countriesOfContinentOne = new Vector<Country>();
 	Vector<Country> countriesOfContinentTwo = new Vector<Country>();
+
+	// The indices of all countries of both continents (in the game world).
+	private BitSet countryIndices = new BitSet();
+
+	// The count of these countries, which the owner still has to conquer.
+	private int remainingCountries = 0;
 	
 	/**
 	 * The constructor gets the missionOwner and all countries of a continent.
 	 * 
-	 * @param countriesOfContinent
+	 * @param countriesOfContinentOne
+	 * @param countriesOfContinentTwo
+	 * @param countryIndices The indices of the countries of both continents in the game world.
 	 * @param missionOwner
 	 */
-	public ContinentConquerMission(Vector<Country> countriesOfContinentOne, Vector<Country> countriesOfContinentTwo, Player missionOwner ) {
+	public ContinentConquerMission(Vector<Country> countriesOfContinentOne, Vector<Country> countriesOfContinentTwo, BitSet countryIndices, Player missionOwner ) {
 		super(missionOwner);
 		
 		this.setCountriesOfContinentOne(countriesOfContinentOne);
 		this.setCountriesOfContinentTwo(countriesOfContinentTwo);
 
+		this.countryIndices = countryIndices;
+		this.remainingCountries = this.countryIndices.cardinality() - missionOwner.getCountryCount(this.countryIndices);
+
 		Continent one = this.getCountriesOfContinentOne().get(0).getContinent();
 		Continent two = this.getCountriesOfContinentTwo().get(0).getContinent();
 		
@@ -112,17 +124,19 @@ public class ContinentConquerMission extends Mission {
 	 * @return check
 	 */
 	public boolean isFulfilled() {
-		Boolean check = true;
-		for (Country country : countriesOfContinentOne) {
-			if (check) {
-				check = this.getOwner().hasCountry(country);
-			}
-		}
-		for (Country country : countriesOfContinentTwo) {
-			if (check) {
-				check = this.getOwner().hasCountry(country);
+		return (this.remainingCountries <= 0);
+	}
+
+	/**
+	 * Counts the continent countries of the mission owner.
+	 */
+	public void countryConquered(int countryIndex, Player conqueror, Player loser) {
+		if (this.countryIndices.get(countryIndex)) {
+			if (this.isSamePlayer(conqueror, this.getOwner())) {
+				this.remainingCountries--;
+			} else if (this.isSamePlayer(loser, this.getOwner())) {
+				this.remainingCountries++;
 			}
 		}
-		return check;
 	}	
 }
@@ -30,6 +30,8 @@
 package de.hochschule.bremen.minerva.commons.vo;
 
 import java.awt.Color;
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.util.Vector;
 
 /**
@@ -50,15 +52,21 @@ public class Country extends ValueObject {
 	protected Continent continent = null;
 	protected int worldId = 0;
 
-	protected Vector<Army> armies = new Vector<Army>();
+	// The position of the country on the world map. Calculated once
+	// while importing the world (see: MapTool#locateCountries).
+	protected Point anchor = null;
+	protected Rectangle bounds = null;
+
+	// The army units on this country and how many of them
+	// were moved within the current turn.
+	protected int armyCount = 1;
+	protected int movedArmyCount = 0;
 
 	/**
 	 * Creates a new country and add one army by default.
 	 * 
 	 */
-	public Country() {
-		this.armies.add(new Army());
-	}
+	public Country() {}
 
 	/**
 	 * Creates a new country with the given id.
@@ -189,29 +197,84 @@ public class Country extends ValueObject {
 	}
 
 	/**
-	 * Sets army-vector.
+	 * Sets the country anchor. The anchor is the point on
+	 * the world map, where controls (the army count for example)
+	 * can be placed.
+	 * 
+	 * @param anchor The anchor point on the world map.
+	 * 
+	 */
+	public void setAnchor(Point anchor) {
+		this.anchor = anchor;
+	}
+
+	/**
+	 * Returns the country anchor.
+	 * 
+	 * @return The anchor point on the world map. null if unknown.
+	 * 
+	 */
+	public Point getAnchor() {
+		return this.anchor;
+	}
+
+	/**
+	 * Sets the bounding box of the country area on the world map.
+	 * 
+	 * @param bounds The bounding box.
+	 * 
+	 */
+	public void setBounds(Rectangle bounds) {
+		this.bounds = bounds;
+	}
+
+	/**
+	 * Returns the bounding box of the country area on the world map.
+	 * 
+	 * @return The bounding box. null if unknown.
+	 * 
+	 */
+	public Rectangle getBounds() {
+		return this.bounds;
+	}
+
+	/**
+	 * Sets the armies by an army-vector.
 	 * 
 	 * @param armies
 	 */
 	public void setArmies(Vector<Army> armies) {
-		this.armies = armies;
+		this.armyCount = 0;
+		this.movedArmyCount = 0;
+
+		for (Army army : armies) {
+			this.addArmy(army);
+		}
 	}
 
 	/**
-	 * Gets army-vector.
+	 * Gets an army-vector. Note that the vector is only a view,
+	 * modifications will not change the country.
 	 * 
 	 * @return
 	 */
 	public Vector<Army> getArmies() {
+		Vector<Army> armies = new Vector<Army>(this.armyCount);
+
+		for (int i = 0; i < this.armyCount; i++) {
+			Army army = new Army();
+			army.moved(i < this.movedArmyCount);
+			armies.add(army);
+		}
 		return armies;
 	}
 	
 	/**
-	 * Adds one army to an existing army-vector.
+	 * Adds one army.
 	 * 
 	 */
 	public void addArmy() {
-		getArmies().add(new Army());
+		this.addArmies(1);
 	}
 
 	/**
@@ -220,27 +283,63 @@ public class Country extends ValueObject {
 	 * @param newArmy
 	 */
 	public void addArmy(Army newArmy) {
-		this.armies.add(newArmy);
+		this.armyCount++;
+
+		if (newArmy.wasMoved()) {
+			this.movedArmyCount++;
+		}
+	}
+
+	/**
+	 * Adds the given count of armies.
+	 * 
+	 * @param count
+	 */
+	public void addArmies(int count) {
+		this.armyCount += count;
 	}
 
 	/**
-	 * Removes one army from an existing army-vector.
+	 * Removes one army.
 	 * 
 	 */
 	public void removeArmy() {
-		if (getArmies().size() > 0) {
-			getArmies().remove(getArmies().size()-1);
-		}
+		this.removeArmies(1);
 	}
 
 	/**
-	 * Removes the army object from the vector.
+	 * Removes one army. The army object is only
+	 * used for the "moved" flag.
 	 * 
 	 * @param army
 	 * 
 	 */
 	public void removeArmy(Army army) {
-		this.armies.remove(army);
+		if ((army.wasMoved()) && (this.movedArmyCount > 0)) {
+			this.movedArmyCount--;
+		}
+		this.removeArmies(1);
+	}
+
+	/**
+	 * Removes the given count of armies. The army
+	 * count can't be less than zero.
+	 * 
+	 * @param count
+	 */
+	public void removeArmies(int count) {
+		this.armyCount = Math.max(0, this.armyCount - count);
+		this.movedArmyCount = Math.min(this.movedArmyCount, this.armyCount);
+	}
+
+	/**
+	 * Sets the army count.
+	 * 
+	 * @param armyCount
+	 */
+	public void setArmyCount(int armyCount) {
+		this.armyCount = Math.max(0, armyCount);
+		this.movedArmyCount = Math.min(this.movedArmyCount, this.armyCount);
 	}
 
 	/**
@@ -250,7 +349,52 @@ public class Country extends ValueObject {
 	 *
 	 */
 	public int getArmyCount() {
-		return this.armies.size();
+		return this.armyCount;
+	}
+
+	/**
+	 * Sets the count of armies, which were moved
+	 * to this country within the current turn.
+	 * 
+	 * @param movedArmyCount
+	 */
+	public void setMovedArmyCount(int movedArmyCount) {
+		this.movedArmyCount = Math.min(Math.max(0, movedArmyCount), this.armyCount);
+	}
+
+	/**
+	 * Returns the count of armies, which were moved
+	 * to this country within the current turn.
+	 * 
+	 * @return The moved army count.
+	 *
+	 */
+	public int getMovedArmyCount() {
+		return this.movedArmyCount;
+	}
+
+	/**
+	 * Returns a detached copy of the country. Changes of the
+	 * original country will not affect the copy. The continent
+	 * is shared.
+	 * 
+	 * @return The copy.
+	 * 
+	 */
+	public Country copy() {
+		Country copy = new Country(this.id);
+
+		copy.token = this.token;
+		copy.name = this.name;
+		copy.color = this.color;
+		copy.continent = this.continent;
+		copy.worldId = this.worldId;
+		copy.anchor = (this.anchor == null) ? null : new Point(this.anchor);
+		copy.bounds = (this.bounds == null) ? null : new Rectangle(this.bounds);
+		copy.armyCount = this.armyCount;
+		copy.movedArmyCount = this.movedArmyCount;
+
+		return copy;
 	}
 	
 	/**
@@ -43,6 +43,9 @@ public class CountryConquerMission extends Mission  {
 	private static final long serialVersionUID = -2210702472421754330L;
 
 	private short countOfCountriesToConquer;
+
+	// The count of countries, which the owner still has to conquer.
+	private int remainingCountries = 0;
 	
 	/**
 	 * The constructor gets the missionOwner and a count of the countries.
@@ -53,6 +56,7 @@ public class CountryConquerMission extends Mission  {
 	public CountryConquerMission(short countOfCountriesToConquer, Player missionOwner) {
 		super(missionOwner);
 		this.setCountOfCountriesToConquer(countOfCountriesToConquer);
+		this.remainingCountries = countOfCountriesToConquer - missionOwner.getCountryCount();
 		
 		this.setTitle("Nehme schnell "+this.getCountOfCountriesToConquer()+" Länder ein!");
 		this.setDescription("Der Spieler '"+this.getOwner().getUsername()+"' hat das Ziel "+this.getCountOfCountriesToConquer()+" Länder einzunehmen.");
@@ -82,6 +86,17 @@ public class CountryConquerMission extends Mission  {
 	 * The player wins if he gets all countries he has to conquer to fulfill the mission.
 	 */
 	public boolean isFulfilled() {
-		return (this.countOfCountriesToConquer <= this.getOwner().getCountryCount());
+		return (this.remainingCountries <= 0);
+	}
+
+	/**
+	 * Counts the countries of the mission owner.
+	 */
+	public void countryConquered(int countryIndex, Player conqueror, Player loser) {
+		if (this.isSamePlayer(conqueror, this.getOwner())) {
+			this.remainingCountries--;
+		} else if (this.isSamePlayer(loser, this.getOwner())) {
+			this.remainingCountries++;
+		}
 	}	
 }
@@ -44,6 +44,9 @@ public class DefeatPlayerMission extends Mission {
 	private static final long serialVersionUID = -9029869714888269591L;
 
 	private Player enemy;
+
+	// The count of countries, which the enemy still owns.
+	private int remainingCountries = 0;
 	
 	/**
 	 * The constructor gets the missionOwner and an enemy Player.
@@ -54,6 +57,7 @@ public class DefeatPlayerMission extends Mission {
 	public DefeatPlayerMission(Player enemy, Player missionOwner) {
 		super(missionOwner);
 		this.setEnemy(enemy);
+		this.remainingCountries = enemy.getCountryCount();
 
 		this.setTitle("Besiege den Spieler "+this.enemy.getUsername()+"!");
 		this.setDescription("Nehme alle Länder des Spielers "+this.enemy.getUsername()+" ein!");
@@ -82,6 +86,17 @@ public class DefeatPlayerMission extends Mission {
 	 * The player wins if he gets all countries of the enemy-Player, who is after that dead.
 	 */
 	public boolean isFulfilled() {
-		return (!enemy.hasCountries());
+		return (this.remainingCountries <= 0);
+	}
+
+	/**
+	 * Counts the countries of the enemy.
+	 */
+	public void countryConquered(int countryIndex, Player conqueror, Player loser) {
+		if (this.isSamePlayer(loser, this.enemy)) {
+			this.remainingCountries--;
+		} else if (this.isSamePlayer(conqueror, this.enemy)) {
+			this.remainingCountries++;
+		}
 	}
 }
@@ -0,0 +1,233 @@
+/*
+ * Minerva - Game, Copyright 2010 Christian Bollmann, Carina Strempel, André König
+ * Hochschule Bremen - University of Applied Sciences - All Rights Reserved.
+ *
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Contact:
+ *     Christian Bollmann: cbollmann@stud.hs-bremen.de
+ *     Carina Strempel: cstrempel@stud.hs-bremen.de
+ *     André König: akoenig@stud.hs-bremen.de
+ * 
+ * Web:
+ *     http://minerva.idira.de
+ * 
+ */
+package de.hochschule.bremen.minerva.commons.vo;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Vector;
+
+/**
+ * One game action (e. g. "move 2 armies from A to B"), which
+ * can be sent to the server together with other commands
+ * in a single command batch.
+ * 
+ * @since 1.0
+ * @version $Id$
+ *
+ */
+public class GameCommand implements Serializable {
+
+	private static final long serialVersionUID = -3198650385276346109L;
+
+	private GameCommandType type = null;
+
+	private Country source = null;
+	private Country destination = null;
+	private int armyCount = 0;
+
+	private Vector<CountryCard> cards = null;
+	private HashMap<Integer, Integer> allocations = null;
+	private PlayerState state = null;
+
+	/**
+	 * Constructor of the GameCommand. Use the static
+	 * factory methods for creating the commands.
+	 * 
+	 * @param type The command type.
+	 * 
+	 */
+	private GameCommand(GameCommandType type) {
+		this.type = type;
+	}
+
+	/**
+	 * Creates a command, which releases a country card series.
+	 * 
+	 * @param cards The country cards.
+	 * @return The command.
+	 * 
+	 */
+	public static GameCommand releaseCards(Vector<CountryCard> cards) {
+		GameCommand command = new GameCommand(GameCommandType.RELEASE_CARDS);
+		command.cards = cards;
+		return command;
+	}
+
+	/**
+	 * Creates a command, which places several armies at once.
+	 * 
+	 * @param allocations The army count per country id.
+	 * @return The command.
+	 * 
+	 */
+	public static GameCommand allocateArmies(Map<Integer, Integer> allocations) {
+		GameCommand command = new GameCommand(GameCommandType.ALLOCATE_ARMIES);
+		command.allocations = new HashMap<Integer, Integer>(allocations);
+		return command;
+	}
+
+	/**
+	 * Creates an attack command.
+	 * 
+	 * @param source The country from which the attack will be started.
+	 * @param destination The country which should be attacked.
+	 * @param armyCount The attacking army units.
+	 * @return The command.
+	 * 
+	 */
+	public static GameCommand attack(Country source, Country destination, int armyCount) {
+		GameCommand command = new GameCommand(GameCommandType.ATTACK);
+		command.source = source;
+		command.destination = destination;
+		command.armyCount = armyCount;
+		return command;
+	}
+
+	/**
+	 * Creates a command, which moves armies from one country to another.
+	 * 
+	 * @param source The country FROM which we will move the armies.
+	 * @param destination The country TO which we will move the armies.
+	 * @param armyCount How many army units should be moved?
+	 * @return The command.
+	 * 
+	 */
+	public static GameCommand move(Country source, Country destination, int armyCount) {
+		GameCommand command = new GameCommand(GameCommandType.MOVE);
+		command.source = source;
+		command.destination = destination;
+		command.armyCount = armyCount;
+		return command;
+	}
+
+	/**
+	 * Creates a command, which finishes the current turn.
+	 * 
+	 * @return The command.
+	 * 
+	 */
+	public static GameCommand finishTurn() {
+		return new GameCommand(GameCommandType.FINISH_TURN);
+	}
+
+	/**
+	 * Creates a command, which sets the state of the current player.
+	 * 
+	 * @param state The player state.
+	 * @return The command.
+	 * 
+	 */
+	public static GameCommand setPlayerState(PlayerState state) {
+		GameCommand command = new GameCommand(GameCommandType.SET_PLAYER_STATE);
+		command.state = state;
+		return command;
+	}
+
+	/**
+	 * Returns the command type.
+	 * 
+	 * @return The command type.
+	 * 
+	 */
+	public GameCommandType getType() {
+		return this.type;
+	}
+
+	/**
+	 * Returns the source country (attack and move).
+	 * 
+	 * @return The source country.
+	 * 
+	 */
+	public Country getSource() {
+		return this.source;
+	}
+
+	/**
+	 * Returns the destination country (attack and move).
+	 * 
+	 * @return The destination country.
+	 * 
+	 */
+	public Country getDestination() {
+		return this.destination;
+	}
+
+	/**
+	 * Returns the army count (attack and move).
+	 * 
+	 * @return The army count.
+	 * 
+	 */
+	public int getArmyCount() {
+		return this.armyCount;
+	}
+
+	/**
+	 * Returns the releasable country cards.
+	 * 
+	 * @return The country cards.
+	 * 
+	 */
+	public Vector<CountryCard> getCards() {
+		return this.cards;
+	}
+
+	/**
+	 * Returns the army count per country id.
+	 * 
+	 * @return The allocations.
+	 * 
+	 */
+	public Map<Integer, Integer> getAllocations() {
+		return this.allocations;
+	}
+
+	/**
+	 * Returns the player state.
+	 * 
+	 * @return The player state.
+	 * 
+	 */
+	public PlayerState getState() {
+		return this.state;
+	}
+
+	/**
+	 * Returns a string with all object attributes.
+	 * 
+	 * @return All object attributes.
+	 * 
+	 */
+	public String toString() {
+		return getClass().getName() + "[type=" + this.type + ",source=" + ((this.source == null) ? null : this.source.getName()) + ",destination=" + ((this.destination == null) ? null : this.destination.getName()) + ",armyCount=" + this.armyCount + ",allocations=" + this.allocations + ",state=" + this.state + "]";
+	}
+}
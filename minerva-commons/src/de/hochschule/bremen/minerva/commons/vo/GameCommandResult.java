@@ -0,0 +1,120 @@
+/*
+ * Minerva - Game, Copyright 2010 Christian Bollmann, Carina Strempel, André König
+ * Hochschule Bremen - University of Applied Sciences - All Rights Reserved.
+ *
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Contact:
+ *     Christian Bollmann: cbollmann@stud.hs-bremen.de
+ *     Carina Strempel: cstrempel@stud.hs-bremen.de
+ *     André König: akoenig@stud.hs-bremen.de
+ * 
+ * Web:
+ *     http://minerva.idira.de
+ * 
+ */
+package de.hochschule.bremen.minerva.commons.vo;
+
+import java.io.Serializable;
+
+/**
+ * The result of one command of a command batch. A command
+ * was either executed successfully, failed with an error or
+ * was skipped (not attempted), because a previous command of
+ * the batch failed.
+ * 
+ * @since 1.0
+ * @version $Id$
+ *
+ */
+public class GameCommandResult implements Serializable {
+
+	private static final long serialVersionUID = 6512074417603359271L;
+
+	private GameCommand command = null;
+	private boolean attempted = false;
+	private Exception error = null;
+	private AttackResult attackResult = null;
+
+	/**
+	 * Constructor of the GameCommandResult.
+	 * 
+	 * @param command The command.
+	 * @param attempted Was the command attempted (false, if it was skipped)?
+	 * @param error The error, if the command failed (or null).
+	 * @param attackResult The attack result of an attack command (or null).
+	 * 
+	 */
+	public GameCommandResult(GameCommand command, boolean attempted, Exception error, AttackResult attackResult) {
+		this.command = command;
+		this.attempted = attempted;
+		this.error = error;
+		this.attackResult = attackResult;
+	}
+
+	/**
+	 * Returns the command.
+	 * 
+	 * @return The command.
+	 * 
+	 */
+	public GameCommand getCommand() {
+		return this.command;
+	}
+
+	/**
+	 * Was the command attempted? This is true for successful and
+	 * failed commands. The commands after a failed command will be
+	 * skipped (not attempted).
+	 * 
+	 * @return boolean
+	 * 
+	 */
+	public boolean isAttempted() {
+		return this.attempted;
+	}
+
+	/**
+	 * Was the command executed without an error?
+	 * 
+	 * @return boolean
+	 * 
+	 */
+	public boolean isSuccessful() {
+		return (this.attempted && (this.error == null));
+	}
+
+	/**
+	 * Returns the error of a failed command.
+	 * 
+	 * @return The exception (e. g. a NotEnoughArmiesException) or null.
+	 * 
+	 */
+	public Exception getError() {
+		return this.error;
+	}
+
+	/**
+	 * Returns the attack result of an attack command.
+	 * 
+	 * @return The attack result or null.
+	 * 
+	 */
+	public AttackResult getAttackResult() {
+		return this.attackResult;
+	}
+}
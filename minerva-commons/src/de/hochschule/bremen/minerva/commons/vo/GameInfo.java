@@ -0,0 +1,160 @@
+/*
+ * Minerva - Game, Copyright 2010 Christian Bollmann, Carina Strempel, André König
+ * Hochschule Bremen - University of Applied Sciences - All Rights Reserved.
+ *
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Contact:
+ *     Christian Bollmann: cbollmann@stud.hs-bremen.de
+ *     Carina Strempel: cstrempel@stud.hs-bremen.de
+ *     André König: akoenig@stud.hs-bremen.de
+ * 
+ * Web:
+ *     http://minerva.idira.de
+ * 
+ */
+package de.hochschule.bremen.minerva.commons.vo;
+
+/**
+ * A lightweight description of a game session, which
+ * will be used for listing the available games in the lobby.
+ * 
+ * @since 1.0
+ * @version $Id$
+ *
+ */
+public class GameInfo extends ValueObject {
+
+	private static final long serialVersionUID = 5390872254061188391L;
+
+	private int id = DEFAULT_ID;
+	private String worldName = null;
+	private String masterName = null;
+	private int playerCount = 0;
+	private boolean running = false;
+
+	/**
+	 * Sets the game id.
+	 * 
+	 * @param id
+	 * 
+	 */
+	public void setId(int id) {
+		this.id = id;
+	}
+
+	/**
+	 * Returns the game id.
+	 * 
+	 * @return The game id.
+	 * 
+	 */
+	public int getId() {
+		return this.id;
+	}
+
+	/**
+	 * Sets the name of the world on which the game will be played.
+	 * 
+	 * @param worldName
+	 * 
+	 */
+	public void setWorldName(String worldName) {
+		this.worldName = worldName;
+	}
+
+	/**
+	 * Returns the world name.
+	 * 
+	 * @return The world name. null if the gamemaster has not defined a world yet.
+	 * 
+	 */
+	public String getWorldName() {
+		return this.worldName;
+	}
+
+	/**
+	 * Sets the username of the gamemaster.
+	 * 
+	 * @param masterName
+	 * 
+	 */
+	public void setMasterName(String masterName) {
+		this.masterName = masterName;
+	}
+
+	/**
+	 * Returns the username of the gamemaster.
+	 * 
+	 * @return The gamemaster username.
+	 * 
+	 */
+	public String getMasterName() {
+		return this.masterName;
+	}
+
+	/**
+	 * Sets the count of players, which joined the game.
+	 * 
+	 * @param playerCount
+	 * 
+	 */
+	public void setPlayerCount(int playerCount) {
+		this.playerCount = playerCount;
+	}
+
+	/**
+	 * Returns the player count.
+	 * 
+	 * @return The count of players, which joined the game.
+	 * 
+	 */
+	public int getPlayerCount() {
+		return this.playerCount;
+	}
+
+	/**
+	 * Sets the "game is running" flag.
+	 * 
+	 * @param running
+	 * 
+	 */
+	public void setRunning(boolean running) {
+		this.running = running;
+	}
+
+	/**
+	 * Is the game already running? If so, it
+	 * is not possible to join it.
+	 * 
+	 * @return boolean
+	 * 
+	 */
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	/**
+	 * Returns a string with all object attributes.
+	 * 
+	 * @return All object attributes.
+	 * 
+	 */
+	public String toString() {
+		return getClass().getName() + "[id=" + this.id + ",worldName=" + this.worldName + ",masterName=" + this.masterName + ",playerCount=" + this.playerCount + ",running=" + this.running + "]";
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * Minerva - Game, Copyright 2010 Christian Bollmann, Carina Strempel, André König
+ * Hochschule Bremen - University of Applied Sciences - All Rights Reserved.
+ *
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Contact:
+ *     Christian Bollmann: cbollmann@stud.hs-bremen.de
+ *     Carina Strempel: cstrempel@stud.hs-bremen.de
+ *     André König: akoenig@stud.hs-bremen.de
+ * 
+ * Web:
+ *     http://minerva.idira.de
+ * 
+ */
+package de.hochschule.bremen.minerva.commons.vo;
+
+import java.io.Serializable;
+import java.util.Vector;
+
+/**
+ * An immutable, consistent view of a running game: the world with
+ * the country owners and army counts, the players, the current player,
+ * the allocatable armies of the current turn and the "finished" flag.
+ * All values were taken at the same game state version, so a client
+ * is able to render the game from one snapshot.
+ * 
+ * @since 1.0
+ * @version $Id$
+ *
+ */
+public class GameSnapshot implements Serializable {
+
+	private static final long serialVersionUID = 2911046285012532617L;
+
+	private final long version;
+	private final World world;
+	private final Vector<Player> players;
+	private final int currentPlayerIndex;
+	private final int allocatableArmyCount;
+	private final boolean finished;
+	private final int winnerIndex;
+
+	/**
+	 * Constructor of the GameSnapshot. The world and the players
+	 * have to be detached copies, which will not be changed anymore.
+	 * 
+	 * @param version The game state version.
+	 * @param world The world.
+	 * @param players The players.
+	 * @param currentPlayerIndex The index of the current player (or -1).
+	 * @param allocatableArmyCount The allocatable armies of the current turn.
+	 * @param finished Is the game finished?
+	 * @param winnerIndex The index of the winner (or -1).
+	 * 
+	 */
+	public GameSnapshot(long version, World world, Vector<Player> players, int currentPlayerIndex, int allocatableArmyCount, boolean finished, int winnerIndex) {
+		this.version = version;
+		this.world = world;
+		this.players = players;
+		this.currentPlayerIndex = currentPlayerIndex;
+		this.allocatableArmyCount = allocatableArmyCount;
+		this.finished = finished;
+		this.winnerIndex = winnerIndex;
+	}
+
+	/**
+	 * Returns the game state version of the snapshot.
+	 * 
+	 * @return The version.
+	 * 
+	 */
+	public long getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * Returns the world with the country owners and army counts.
+	 * 
+	 * @return The world.
+	 * 
+	 */
+	public World getWorld() {
+		return this.world;
+	}
+
+	/**
+	 * Returns the game players.
+	 * 
+	 * @return The players.
+	 * 
+	 */
+	public Vector<Player> getPlayers() {
+		return this.players;
+	}
+
+	/**
+	 * Returns the player with the given username.
+	 * 
+	 * @param username The username.
+	 * @return The player or null.
+	 * 
+	 */
+	public Player getPlayer(String username) {
+		for (Player player : this.players) {
+			if (player.getUsername().equals(username)) {
+				return player;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the current player.
+	 * 
+	 * @return The current player or null.
+	 * 
+	 */
+	public Player getCurrentPlayer() {
+		return (this.currentPlayerIndex == -1) ? null : this.players.get(this.currentPlayerIndex);
+	}
+
+	/**
+	 * Returns the allocatable army count of the current turn.
+	 * 
+	 * @return The army count.
+	 * 
+	 */
+	public int getAllocatableArmyCount() {
+		return this.allocatableArmyCount;
+	}
+
+	/**
+	 * Is the game finished?
+	 * 
+	 * @return boolean
+	 * 
+	 */
+	public boolean isFinished() {
+		return this.finished;
+	}
+
+	/**
+	 * Returns the winner.
+	 * 
+	 * @return The winner or null, if the game is not finished.
+	 * 
+	 */
+	public Player getWinner() {
+		return (this.winnerIndex == -1) ? null : this.players.get(this.winnerIndex);
+	}
+}
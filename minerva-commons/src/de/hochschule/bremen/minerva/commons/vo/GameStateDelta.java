@@ -0,0 +1,349 @@
+/*
+ * Minerva - Game, Copyright 2010 Christian Bollmann, Carina Strempel, André König
+ * Hochschule Bremen - University of Applied Sciences - All Rights Reserved.
+ *
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Contact:
+ *     Christian Bollmann: cbollmann@stud.hs-bremen.de
+ *     Carina Strempel: cstrempel@stud.hs-bremen.de
+ *     André König: akoenig@stud.hs-bremen.de
+ * 
+ * Web:
+ *     http://minerva.idira.de
+ * 
+ */
+package de.hochschule.bremen.minerva.commons.vo;
+
+import java.io.Serializable;
+import java.util.Vector;
+
+/**
+ * The changes of a game state between two versions. The server counts
+ * a version for each change of the game state (owner or army count of
+ * a country), so a client, which knows the version of its local state,
+ * needs only the countries, which were changed after this version.<br />
+ * 
+ * The player states, the card counts, the current turn (current player
+ * and allocatable armies) and the winner are always included, because
+ * a game has only a few players. So a client is able to keep a complete
+ * local copy of the game up to date.
+ * 
+ * @since 1.0
+ * @version $Id$
+ *
+ */
+public class GameStateDelta implements Serializable {
+
+	private static final long serialVersionUID = -7716296460541318803L;
+
+	public static final long NO_VERSION = -1;
+
+	private long fromVersion = NO_VERSION;
+	private long toVersion = NO_VERSION;
+
+	private boolean started = false;
+	private boolean finished = false;
+	private boolean killed = false;
+
+	// The changed countries (parallel arrays). The owner is the player index.
+	private int[] countryIds = new int[0];
+	private int[] owners = new int[0];
+	private int[] armyCounts = new int[0];
+
+	// Indexed by the player index (order of the game players).
+	private PlayerState[] playerStates = new PlayerState[0];
+	private int[] cardCounts = new int[0];
+
+	// The current turn and the winner (player indices or -1).
+	private int currentPlayerIndex = -1;
+	private int allocatableArmyCount = 0;
+	private int winnerIndex = -1;
+
+	/**
+	 * Constructor of the GameStateDelta.
+	 * 
+	 * @param fromVersion The version on which the changes base (or NO_VERSION for the complete state).
+	 * @param toVersion The version after the changes.
+	 * @param started Is the game running?
+	 * @param finished Is the game finished?
+	 * 
+	 */
+	public GameStateDelta(long fromVersion, long toVersion, boolean started, boolean finished) {
+		this.fromVersion = fromVersion;
+		this.toVersion = toVersion;
+		this.started = started;
+		this.finished = finished;
+	}
+
+	/**
+	 * Sets the changed countries.
+	 * 
+	 * @param countryIds The country ids.
+	 * @param owners The player indices of the country owners.
+	 * @param armyCounts The army counts.
+	 * 
+	 */
+	public void setCountries(int[] countryIds, int[] owners, int[] armyCounts) {
+		this.countryIds = countryIds;
+		this.owners = owners;
+		this.armyCounts = armyCounts;
+	}
+
+	/**
+	 * Sets the player states and card counts.
+	 * 
+	 * @param playerStates The player states.
+	 * @param cardCounts The count of country cards per player.
+	 * 
+	 */
+	public void setPlayers(PlayerState[] playerStates, int[] cardCounts) {
+		this.playerStates = playerStates;
+		this.cardCounts = cardCounts;
+	}
+
+	/**
+	 * Sets the current turn and the winner.
+	 * 
+	 * @param currentPlayerIndex The index of the current player (or -1).
+	 * @param allocatableArmyCount The allocatable armies of the current turn.
+	 * @param winnerIndex The index of the winner (or -1).
+	 * 
+	 */
+	public void setTurn(int currentPlayerIndex, int allocatableArmyCount, int winnerIndex) {
+		this.currentPlayerIndex = currentPlayerIndex;
+		this.allocatableArmyCount = allocatableArmyCount;
+		this.winnerIndex = winnerIndex;
+	}
+
+	/**
+	 * Marks the delta as the last one of a killed game.
+	 * 
+	 * @param killed Was the game killed?
+	 * 
+	 */
+	public void setKilled(boolean killed) {
+		this.killed = killed;
+	}
+
+	/**
+	 * Returns the version on which the changes base.
+	 * 
+	 * @return The version or NO_VERSION, if the delta contains the complete state.
+	 * 
+	 */
+	public long getFromVersion() {
+		return this.fromVersion;
+	}
+
+	/**
+	 * Returns the version after the changes.
+	 * 
+	 * @return The version.
+	 * 
+	 */
+	public long getToVersion() {
+		return this.toVersion;
+	}
+
+	/**
+	 * Is the game running?
+	 * 
+	 * @return boolean
+	 * 
+	 */
+	public boolean isStarted() {
+		return this.started;
+	}
+
+	/**
+	 * Is the game finished?
+	 * 
+	 * @return boolean
+	 * 
+	 */
+	public boolean isFinished() {
+		return this.finished;
+	}
+
+	/**
+	 * Was the game killed (without a winner)?
+	 * 
+	 * @return boolean
+	 * 
+	 */
+	public boolean isKilled() {
+		return this.killed;
+	}
+
+	/**
+	 * Returns the count of changed countries.
+	 * 
+	 * @return The country count.
+	 * 
+	 */
+	public int getCountryCount() {
+		return this.countryIds.length;
+	}
+
+	/**
+	 * Returns the id of a changed country.
+	 * 
+	 * @param i The position in the delta.
+	 * @return The country id.
+	 * 
+	 */
+	public int getCountryId(int i) {
+		return this.countryIds[i];
+	}
+
+	/**
+	 * Returns the owner (player index) of a changed country.
+	 * 
+	 * @param i The position in the delta.
+	 * @return The player index.
+	 * 
+	 */
+	public int getOwner(int i) {
+		return this.owners[i];
+	}
+
+	/**
+	 * Returns the army count of a changed country.
+	 * 
+	 * @param i The position in the delta.
+	 * @return The army count.
+	 * 
+	 */
+	public int getArmyCount(int i) {
+		return this.armyCounts[i];
+	}
+
+	/**
+	 * Returns the count of players.
+	 * 
+	 * @return The player count.
+	 * 
+	 */
+	public int getPlayerCount() {
+		return this.playerStates.length;
+	}
+
+	/**
+	 * Returns the state of a player.
+	 * 
+	 * @param player The player index.
+	 * @return The player state.
+	 * 
+	 */
+	public PlayerState getPlayerState(int player) {
+		return this.playerStates[player];
+	}
+
+	/**
+	 * Returns the count of country cards of a player.
+	 * 
+	 * @param player The player index.
+	 * @return The card count.
+	 * 
+	 */
+	public int getCardCount(int player) {
+		return this.cardCounts[player];
+	}
+
+	/**
+	 * Returns the index of the current player.
+	 * 
+	 * @return The player index or -1, if there is no turn.
+	 * 
+	 */
+	public int getCurrentPlayerIndex() {
+		return this.currentPlayerIndex;
+	}
+
+	/**
+	 * Returns the allocatable army count of the current turn.
+	 * 
+	 * @return The army count.
+	 * 
+	 */
+	public int getAllocatableArmyCount() {
+		return this.allocatableArmyCount;
+	}
+
+	/**
+	 * Returns the index of the winner.
+	 * 
+	 * @return The player index or -1, if the game is not finished.
+	 * 
+	 */
+	public int getWinnerIndex() {
+		return this.winnerIndex;
+	}
+
+	/**
+	 * Applies the army counts of the changed countries to the given world.
+	 * 
+	 * @param world The (local) world.
+	 * 
+	 */
+	public void applyTo(World world) {
+		Vector<Country> countries = world.getCountries();
+
+		for (int i = 0; i < this.countryIds.length; i++) {
+			int index = world.getCountryIndex(this.countryIds[i]);
+
+			if (index != -1) {
+				countries.get(index).setArmyCount(this.armyCounts[i]);
+			}
+		}
+	}
+
+	/**
+	 * Applies the country owners, the player state and the current
+	 * player flag to the given player.
+	 * 
+	 * @param player The (local) player.
+	 * @param playerIndex The index of the player.
+	 * @param world The (local) world, which defines the country indices.
+	 * 
+	 */
+	public void applyTo(Player player, int playerIndex, World world) {
+		for (int i = 0; i < this.countryIds.length; i++) {
+			int index = world.getCountryIndex(this.countryIds[i]);
+
+			if (index != -1) {
+				player.setCountry(index, (this.owners[i] == playerIndex));
+			}
+		}
+
+		if (playerIndex < this.playerStates.length) {
+			player.setState(this.playerStates[playerIndex]);
+		}
+		player.setCurrentPlayer(playerIndex == this.currentPlayerIndex);
+	}
+
+	/**
+	 * Returns a string with all object attributes.
+	 * 
+	 * @return All object attributes.
+	 * 
+	 */
+	public String toString() {
+		return getClass().getName() + "[fromVersion=" + this.fromVersion + ",toVersion=" + this.toVersion + ",started=" + this.started + ",finished=" + this.finished + ",killed=" + this.killed + ",countries=" + this.countryIds.length + ",players=" + this.playerStates.length + ",currentPlayer=" + this.currentPlayerIndex + ",winner=" + this.winnerIndex + "]";
+	}
+}
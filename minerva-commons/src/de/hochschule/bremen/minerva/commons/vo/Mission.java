@@ -32,6 +32,10 @@ package de.hochschule.bremen.minerva.commons.vo;
  * The Mission.class is the upper class of the three sub classes and 
  * contains the method isFulfilled. 
  * 
+ * The game informs each mission about every conquest (see countryConquered).
+ * So the sub classes are able to count the remaining requirements, instead of
+ * checking all countries again and again.
+ * 
  * @since 1.0
  * @version $Id: Mission.java 706 2010-07-04 18:26:52Z andre.koenig $
  *
@@ -73,6 +77,31 @@ public class Mission extends ValueObject {
 		return false;
 	}
 
+	/**
+	 * A country was conquered. The sub classes
+	 * update their remaining requirements here.
+	 * 
+	 * @param countryIndex The index of the conquered country in the game world.
+	 * @param conqueror The new owner.
+	 * @param loser The previous owner.
+	 * 
+	 */
+	public void countryConquered(int countryIndex, Player conqueror, Player loser) {}
+
+	/**
+	 * Compares two players. Note that the player objects
+	 * are not the same after the transmission via simon.
+	 * 
+	 * @param one
+	 * @param two
+	 * 
+	 * @return true, if both objects represent the same player.
+	 * 
+	 */
+	protected boolean isSamePlayer(Player one, Player two) {
+		return ((one != null) && (two != null) && one.getUsername().equals(two.getUsername()));
+	}
+
 	/**
 	 * Returns the title.
 	 * 
@@ -30,6 +30,7 @@
 package de.hochschule.bremen.minerva.commons.vo;
 
 import java.awt.Color;
+import java.util.BitSet;
 import java.util.Vector;
 
 public class Player extends ValueObject {
@@ -48,8 +49,8 @@ public class Player extends ValueObject {
 	private PlayerState state = PlayerState.IDLE;
 	private Color color = Color.WHITE;
 	
-	// The countries, that the player won.
-	private Vector<Country> countries = new Vector<Country>();
+	// The countries, that the player won (a bitset of the country indices in the game world).
+	private BitSet countries = new BitSet();
 	
 	private Vector<CountryCard> countryCards = new Vector<CountryCard>();
 	
@@ -224,21 +225,33 @@ public class Player extends ValueObject {
 	/**
 	 * The player has captured a new country.
 	 * Add this country to the players country
-	 * vector.
+	 * bitset.
 	 * 
-	 * @param countries
+	 * @param countryIndex The index of the country in the game world.
 	 */
-	public void addCountry(Country country) {
-		this.countries.add(country);
+	public void addCountry(int countryIndex) {
+		this.countries.set(countryIndex);
 	}
 	
 	/**
 	 * Oh no. The player has lost one country.
-	 * Remove it from the players country vector.
+	 * Remove it from the players country bitset.
 	 * 
+	 * @param countryIndex The index of the country in the game world.
 	 */
-	public void removeCountry(Country country) {
-		this.countries.remove(country);
+	public void removeCountry(int countryIndex) {
+		this.countries.clear(countryIndex);
+	}
+
+	/**
+	 * Sets or clears the ownership of the country with the given index.
+	 * 
+	 * @param countryIndex The index of the country in the game world.
+	 * @param owned Does the player own the country?
+	 * 
+	 */
+	public void setCountry(int countryIndex, boolean owned) {
+		this.countries.set(countryIndex, owned);
 	}
 
 	/**
@@ -247,23 +260,44 @@ public class Player extends ValueObject {
 	 * @return
 	 */
 	public int getCountryCount() {
-		return this.countries.size();
+		return this.countries.cardinality();
+	}
+
+	/**
+	 * Returns the count of the given countries,
+	 * which are owned by the player.
+	 *  
+	 * @param countryIndices A bitset with the country indices.
+	 * @return
+	 */
+	public int getCountryCount(BitSet countryIndices) {
+		BitSet owned = (BitSet)countryIndices.clone();
+		owned.and(this.countries);
+
+		return owned.cardinality();
 	}
 
 	/**
 	 * Check if the user owns the given country.
 	 * 
-	 * @param country
+	 * @param countryIndex The index of the country in the game world (or -1).
+	 * @return
+	 */
+	public boolean hasCountry(int countryIndex) {
+		return (countryIndex >= 0) && this.countries.get(countryIndex);
+	}
+
+	/**
+	 * Check if the user owns all given countries.
+	 * 
+	 * @param countryIndices A bitset with the country indices.
 	 * @return
 	 */
-	public boolean hasCountry(Country country) {
-		//ugly but references chance when transmitting via simon
-		for (Country c : this.countries) {
-			if (country.getId() == c.getId()) {
-				return true;
-			}
-		}
-		return false;
+	public boolean hasCountries(BitSet countryIndices) {
+		BitSet missing = (BitSet)countryIndices.clone();
+		missing.andNot(this.countries);
+
+		return missing.isEmpty();
 	}
 
 	/**
@@ -273,7 +307,7 @@ public class Player extends ValueObject {
 	 * 
 	 */
 	public boolean hasCountries() {
-		return (this.countries.size() > 0);
+		return !this.countries.isEmpty();
 	}
 	
 	/**
@@ -339,6 +373,33 @@ public class Player extends ValueObject {
 		return color;
 	}
 
+	/**
+	 * Returns a detached copy of the player. Changes of the
+	 * original player will not affect the copy.
+	 * 
+	 * @return The copy.
+	 * 
+	 */
+	public Player copy() {
+		Player copy = new Player();
+
+		copy.id = this.id;
+		copy.username = this.username;
+		copy.password = this.password;
+		copy.lastName = this.lastName;
+		copy.firstName = this.firstName;
+		copy.email = this.email;
+		copy.loggedIn = this.loggedIn;
+		copy.currentPlayer = this.currentPlayer;
+		copy.master = this.master;
+		copy.state = this.state;
+		copy.color = this.color;
+		copy.countries = (BitSet)this.countries.clone();
+		copy.countryCards = new Vector<CountryCard>(this.countryCards);
+
+		return copy;
+	}
+
 	/**
 	 * Made out of all attributes one string
 	 * 
@@ -32,9 +32,10 @@ package de.hochschule.bremen.minerva.commons.vo;
 
 import java.awt.Color;
 import java.awt.image.BufferedImage;
+import java.util.Arrays;
 import java.util.Vector;
 
-import de.hochschule.bremen.minerva.commons.util.ColorTool;
+import de.hochschule.bremen.minerva.commons.util.ColorIndex;
 import de.hochschule.bremen.minerva.commons.util.CountryGraph;
 
 /**
@@ -69,6 +70,17 @@ public class World extends ValueObject {
 
 	private Vector<Country> countries = new Vector<Country>();
 	private CountryGraph countryGraph = new CountryGraph();
+
+	// Country id -> country index table. It will be created on the first
+	// lookup and dropped if the countries or their ids were modified
+	// (see invalidateCountryIndices()).
+	private transient volatile CountryIndex countryIndices = null;
+
+	// Country color -> country index table. It will be created on the first
+	// color lookup and dropped if the countries were modified. The country
+	// count is stored to detect modifications of the country vector itself.
+	private transient volatile ColorIndex countryColors = null;
+	private transient volatile int countryColorsSize = 0;
 	
 	/**
 	 * Sets the world id.
@@ -284,6 +296,8 @@ public class World extends ValueObject {
 	 */
 	public void addCountry(Country country) {
 		this.countries.add(country);
+		this.countryIndices = null;
+		this.countryColors = null;
 	}
 	
 	/**
@@ -294,6 +308,8 @@ public class World extends ValueObject {
 	 */
 	public void setCountries(Vector<Country> countries) {
 		this.countries = countries;
+		this.countryIndices = null;
+		this.countryColors = null;
 	}
 
 	/**
@@ -349,15 +365,59 @@ public class World extends ValueObject {
 	 *
 	 */
 	public Country getCountry(Country byCountry) {
-		Country searchedCountry = new Country();
+		int index = this.getCountryIndex(byCountry.getId());
 
-		search: for (Country country : this.getCountries()) {
-			if (country.getId() == byCountry.getId()) {
-				searchedCountry = country;
-				break search;
-			}
+		if (index == -1) {
+			return new Country();
+		}
+		return this.countries.get(index);
+	}
+
+	/**
+	 * Returns the position of the country with the given id
+	 * in the country vector.
+	 * 
+	 * @param countryId The country id.
+	 * @return The country index or -1, if there is no country with this id.
+	 *
+	 */
+	public int getCountryIndex(int countryId) {
+		CountryIndex indices = this.countryIndices;
+
+		// The table does not exist (deserialized world) or is outdated.
+		if ((indices == null) || (indices.size != this.countries.size())) {
+			indices = new CountryIndex(this.countries);
+			this.countryIndices = indices;
 		}
-		return searchedCountry;
+
+		int index = indices.get(countryId);
+		if ((index == -1) || (this.countries.get(index).getId() != countryId)) {
+			return -1;
+		}
+		return index;
+	}
+
+	/**
+	 * Drops the country id -> country index table. Has to be
+	 * called if the country ids were changed (e. g. after the
+	 * persistence layer has generated the ids of new countries).
+	 * The table will be recreated on the next lookup.
+	 * 
+	 */
+	public void invalidateCountryIndices() {
+		this.countryIndices = null;
+	}
+
+	/**
+	 * Wrapper method, which returns the position of the
+	 * given country in the country vector.
+	 * 
+	 * @param country The country (must have the country id).
+	 * @return The country index or -1, if the country is not part of the world.
+	 *
+	 */
+	public int getCountryIndex(Country country) {
+		return this.getCountryIndex(country.getId());
 	}
 
 	/**
@@ -369,16 +429,74 @@ public class World extends ValueObject {
 	 *
 	 */
 	public Country getCountry(Color byColor) {
-		Country foundCountry = new Country();
-		
-		search: for (Country country : this.getCountries()) {
-			if (ColorTool.toHexCode(byColor).equals(ColorTool.toHexCode(country.getColor()))) {
-				foundCountry = country;
-				break search;
-			}
+		return this.getCountryByColor(byColor.getRGB());
+	}
+
+	/**
+	 * Returns a country by an given (a)rgb color value
+	 * (e.g. a pixel from the map underlay).
+	 * 
+	 * @param rgb The color value. The alpha channel will be ignored.
+	 *
+	 * @return The country reference. If no country was found with the given color, then the country is empty.
+	 *
+	 */
+	public Country getCountryByColor(int rgb) {
+		int index = this.getCountryIndexByColor(rgb);
+
+		if (index == -1) {
+			return new Country();
 		}
-		
-		return foundCountry;
+		return this.countries.get(index);
+	}
+
+	/**
+	 * Returns the position of the country with the given
+	 * color in the country vector.
+	 * 
+	 * @param rgb The color value. The alpha channel will be ignored.
+	 * @return The country index or -1, if there is no country with this color.
+	 *
+	 */
+	public int getCountryIndexByColor(int rgb) {
+		ColorIndex colors = this.countryColors;
+
+		// The table does not exist (deserialized world) or is outdated.
+		if ((colors == null) || (this.countryColorsSize != this.countries.size())) {
+			colors = this.createCountryColors();
+		}
+
+		int index = colors.get(rgb);
+		if ((index == ColorIndex.NOT_FOUND) || (index >= this.countries.size())) {
+			return -1;
+		}
+
+		// A country color was changed after the table was created.
+		if (((this.countries.get(index).getColor().getRGB() ^ rgb) & 0xFFFFFF) != 0) {
+			index = this.createCountryColors().get(rgb);
+		}
+
+		return (index == ColorIndex.NOT_FOUND) ? -1 : index;
+	}
+
+	/**
+	 * Sets the country graph.
+	 * 
+	 * @param countryGraph The graph with the country/neighbour-mapping.
+	 * 
+	 */
+	public void setCountryGraph(CountryGraph countryGraph) {
+		this.countryGraph = countryGraph;
+	}
+
+	/**
+	 * Returns the country graph.
+	 * 
+	 * @return The graph with the country/neighbour-mapping.
+	 * 
+	 */
+	public CountryGraph getCountryGraph() {
+		return this.countryGraph;
 	}
 
 	/**
@@ -435,21 +553,78 @@ public class World extends ValueObject {
 	 *
 	 */
 	public Vector<Country> getNeighbours(Country country) {
-		Vector<Integer> neighbours = this.countryGraph.getNeighbours(country.getId());
-		Vector<Country> selectedCountries = new Vector<Country>();
-
-		for (Integer neighbourId : neighbours) {
-			search: for (Country originCountry : this.getCountries()) {
-				if (originCountry.getId() == neighbourId) {
-					selectedCountries.add(originCountry);
-					break search;
-				}
+		int neighbourCount = this.countryGraph.getNeighbourCount(country.getId());
+		Vector<Country> selectedCountries = new Vector<Country>(neighbourCount);
+
+		for (int i = 0; i < neighbourCount; i++) {
+			int index = this.getCountryIndex(this.countryGraph.getNeighbour(country.getId(), i));
+
+			if (index != -1) {
+				selectedCountries.add(this.countries.get(index));
 			}
 		}
 		
 		return selectedCountries;
 	}
 
+	/**
+	 * Creates (and registers) the country color -> country index table.
+	 * If two countries have the same color, the first one wins.
+	 * 
+	 * @return The table.
+	 *
+	 */
+	private ColorIndex createCountryColors() {
+		int size = this.countries.size();
+		ColorIndex colors = new ColorIndex(size);
+
+		for (int i = size - 1; i >= 0; i--) {
+			Color color = this.countries.get(i).getColor();
+			if (color != null) {
+				colors.put(color.getRGB(), i);
+			}
+		}
+
+		this.countryColorsSize = size;
+		this.countryColors = colors;
+
+		return colors;
+	}
+
+	/**
+	 * Returns a detached copy of the world with copies of its
+	 * countries. Changes of the original countries will not affect
+	 * the copy. The country graph and the map images are shared,
+	 * because they will not be modified after loading the world.
+	 * 
+	 * @return The copy.
+	 * 
+	 */
+	public World copy() {
+		World copy = new World();
+
+		copy.id = this.id;
+		copy.token = this.token;
+		copy.name = this.name;
+		copy.description = this.description;
+		copy.author = this.author;
+		copy.version = this.version;
+		copy.map = this.map;
+		copy.mapUnderlay = this.mapUnderlay;
+		copy.thumbnail = this.thumbnail;
+		copy.mapImage = this.mapImage;
+		copy.mapUnderlayImage = this.mapUnderlayImage;
+		copy.countryGraph = this.countryGraph;
+
+		Vector<Country> countries = new Vector<Country>(this.countries.size());
+		for (Country country : this.countries) {
+			countries.add(country.copy());
+		}
+		copy.countries = countries;
+
+		return copy;
+	}
+
 	/**
 	 * Returns a string with all object attributes.
 	 * 
@@ -497,4 +672,99 @@ public class World extends ValueObject {
 	public BufferedImage getMapUnderlayImage() {
 		return mapUnderlayImage;
 	}
+
+	/**
+	 * The country id -> country index table. The country ids of a
+	 * world are generated in one go, so normally the id range is nearly
+	 * the country count and the table is a plain array (offset by the
+	 * smallest id). If the ids are sparse, the table holds the sorted
+	 * ids and finds them with a binary search. If two countries have
+	 * the same id, the first one wins.
+	 * 
+	 * @since 1.0
+	 * @version $Id$
+	 * 
+	 */
+	private static class CountryIndex {
+
+		// The id range, which is still stored as a plain array.
+		private static final int MAX_DENSE_OVERHEAD = 64;
+
+		private final int size;
+		private int offset = 0;
+		private int[] dense = null;
+		private int[] ids = null;
+		private int[] positions = null;
+
+		/**
+		 * Creates the table for the given countries.
+		 * 
+		 * @param countries The countries in the order of the country vector.
+		 * 
+		 */
+		public CountryIndex(Vector<Country> countries) {
+			this.size = countries.size();
+
+			long min = Integer.MAX_VALUE;
+			long max = Integer.MIN_VALUE;
+
+			for (Country country : countries) {
+				min = Math.min(min, country.getId());
+				max = Math.max(max, country.getId());
+			}
+
+			if ((this.size == 0) || (max - min + 1 <= 2L * this.size + MAX_DENSE_OVERHEAD)) {
+				this.offset = (this.size == 0) ? 0 : (int)min;
+				this.dense = new int[(this.size == 0) ? 0 : (int)(max - min + 1)];
+				Arrays.fill(this.dense, -1);
+
+				for (int i = this.size - 1; i >= 0; i--) {
+					this.dense[countries.get(i).getId() - this.offset] = i;
+				}
+			} else {
+				long[] sorted = new long[this.size];
+				for (int i = 0; i < this.size; i++) {
+					// Sort by id, then by position (the first one wins).
+					sorted[i] = ((long)countries.get(i).getId() << 32) | i;
+				}
+				Arrays.sort(sorted);
+
+				this.ids = new int[this.size];
+				this.positions = new int[this.size];
+				int count = 0;
+
+				for (long entry : sorted) {
+					int id = (int)(entry >> 32);
+					if ((count == 0) || (this.ids[count - 1] != id)) {
+						this.ids[count] = id;
+						this.positions[count] = (int)entry;
+						count++;
+					}
+				}
+
+				this.ids = Arrays.copyOf(this.ids, count);
+				this.positions = Arrays.copyOf(this.positions, count);
+			}
+		}
+
+		/**
+		 * Returns the country index of the given country id.
+		 * 
+		 * @param countryId The country id.
+		 * @return The country index or -1, if the id is unknown.
+		 * 
+		 */
+		public int get(int countryId) {
+			if (this.dense != null) {
+				long position = (long)countryId - this.offset;
+				if ((position < 0) || (position >= this.dense.length)) {
+					return -1;
+				}
+				return this.dense[(int)position];
+			}
+
+			int position = Arrays.binarySearch(this.ids, countryId);
+			return (position < 0) ? -1 : this.positions[position];
+		}
+	}
 }
\ No newline at end of file
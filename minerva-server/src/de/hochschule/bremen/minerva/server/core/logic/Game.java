@@ -30,7 +30,9 @@
 package de.hochschule.bremen.minerva.server.core.logic;
 
 import java.awt.Color;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.Random;
 import java.util.Vector;
 
 import de.hochschule.bremen.minerva.commons.exceptions.GameAlreadyStartedException;
@@ -40,37 +42,49 @@ import de.hochschule.bremen.minerva.commons.exceptions.NotEnoughPlayersLoggedInE
 import de.hochschule.bremen.minerva.commons.exceptions.WorldNotDefinedException;
 import de.hochschule.bremen.minerva.commons.vo.CanonCard;
 import de.hochschule.bremen.minerva.commons.vo.CavalerieCard;
-import de.hochschule.bremen.minerva.commons.vo.Continent;
 import de.hochschule.bremen.minerva.commons.vo.ContinentConquerMission;
 import de.hochschule.bremen.minerva.commons.vo.Country;
 import de.hochschule.bremen.minerva.commons.vo.CountryCard;
 import de.hochschule.bremen.minerva.commons.vo.CountryConquerMission;
 import de.hochschule.bremen.minerva.commons.vo.DefeatPlayerMission;
+import de.hochschule.bremen.minerva.commons.vo.GameSnapshot;
+import de.hochschule.bremen.minerva.commons.vo.GameStateDelta;
 import de.hochschule.bremen.minerva.commons.vo.Mission;
 import de.hochschule.bremen.minerva.commons.vo.Player;
 import de.hochschule.bremen.minerva.commons.vo.PlayerState;
 import de.hochschule.bremen.minerva.commons.vo.SoldierCard;
+import de.hochschule.bremen.minerva.commons.vo.ValueObject;
 import de.hochschule.bremen.minerva.commons.vo.World;
 import de.hochschule.bremen.minerva.server.vo.CardSeriesCounter;
 
 /**
  * The core game class.
  * 
+ * The game listens to the conquests of the turns. The missions will be
+ * updated and the "finished" flag and the winner will be determined on
+ * each conquest, so that {@link #isFinished()} is a simple getter.
+ * 
  * @since 1.0
  * @version $Id: Game.java 683 2010-07-04 16:39:39Z andre.koenig $
  *
  */
-public class Game {
+public class Game implements ConquestListener {
 
-	private World world = null;
+	private int id = ValueObject.getDefaultId();
+	private WorldTopology topology = null;
+	private GameState state = null;
 	private Vector<Player> players = new Vector<Player>();
 	private Vector<Turn> turns = new Vector<Turn>();
 	private Vector<Mission> missions = new Vector<Mission>();
 	private Vector<CountryCard> countryCards = new Vector<CountryCard>();
 	private Vector<CountryCard> usedCountryCards = new Vector<CountryCard>();
 	private CardSeriesCounter seriesCounter = new CardSeriesCounter();
+	private long seed = 0;
+	private Random random = null;
+	private DiceSource diceSource = null;
 	private boolean started = false;
 	private boolean finished = false;
+	private boolean killed = false;
 	private Player winner = null;
 
 	private Vector<Color> availablePlayerColors = new Vector<Color>();
@@ -84,6 +98,8 @@ public class Game {
 	 * 
 	 */
 	public Game() {
+		this.setSeed(new Random().nextLong());
+
 		this.availablePlayerColors.add(Color.BLUE);
 		this.availablePlayerColors.add(Color.GREEN);
 		this.availablePlayerColors.add(Color.ORANGE);
@@ -135,10 +151,12 @@ public class Game {
 			throw new NoPlayerLoggedInException();
 		} else if (this.players.size() == 1) {
 			throw new NotEnoughPlayersLoggedInException(players);
-		} else if (this.world == null) {
+		} else if (this.topology == null) {
 			throw new WorldNotDefinedException();
 		}
 
+		this.state = new GameState(this.topology, this.players.size());
+
 		this.allocateCountries();
 		this.allocateMissions();
 		this.generateCountryCards();
@@ -146,6 +164,9 @@ public class Game {
 		this.setStarted(true);
 
 		this.nextTurn();
+
+		// It is possible that a mission is already fulfilled.
+		this.updateFinished();
 	}
 	
 	/**
@@ -159,20 +180,87 @@ public class Game {
 		if (!this.turns.isEmpty()) {
 			this.getCurrentTurn().getCurrentPlayer().setState(PlayerState.IDLE);
 		}
+		this.state.resetMovedArmies();
 		Player nextPlayer = this.nextPlayer();
 		nextPlayer.setState(PlayerState.RELEASE_CARDS);
-		this.turns.add(new Turn(nextPlayer, this.world, this.players, this.countryCards, this.usedCountryCards, this.seriesCounter));
-		return this.getCurrentTurn();
+		Turn turn = new Turn(nextPlayer, this.topology, this.state, this.players, this.countryCards, this.usedCountryCards, this.seriesCounter, this.diceSource, this.random);
+		turn.setConquestListener(this);
+
+		this.turns.add(turn);
+		return turn;
 	}
 
 	/**
-	 * The world on which this game is running.
+	 * Sets the game id (see GameManager).
+	 * 
+	 * @param id The id, which identifies the game on this server.
+	 *
+	 */
+	public void setId(int id) {
+		this.id = id;
+	}
+
+	/**
+	 * Returns the game id.
+	 * 
+	 * @return The game id.
+	 *
+	 */
+	public int getId() {
+		return this.id;
+	}
+
+	/**
+	 * Sets the seed of all random decisions (player colors, countries,
+	 * missions, country cards and dice). Use this method before the
+	 * players join, e.g. for reproducing a game by its seed.
+	 * 
+	 * @param seed The seed.
+	 *
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+		this.random = new Random(seed);
+		this.diceSource = new RandomDiceSource(seed);
+	}
+
+	/**
+	 * Returns the seed of the game. With this seed,
+	 * it is possible to reproduce the random decisions.
+	 * 
+	 * @return The seed.
+	 *
+	 */
+	public long getSeed() {
+		return this.seed;
+	}
+
+	/**
+	 * Replaces the dice source, which was derived from the seed.
+	 * Use this method before the game was started.
+	 * 
+	 * @param diceSource The dice source.
+	 *
+	 */
+	public void setDiceSource(DiceSource diceSource) {
+		this.diceSource = diceSource;
+	}
+
+	/**
+	 * The world on which this game is running. If the game is running,
+	 * the world object represents the current game state (army counts).
+	 * Note that modifications on this object will not change the game.
 	 * 
 	 * @return The games world.
 	 *
 	 */
 	public World getWorld() {
-		return world;
+		if (this.topology == null) {
+			return null;
+		} else if (this.state == null) {
+			return this.topology.getWorld();
+		}
+		return this.topology.createWorld(this.state);
 	}
 
 	/**
@@ -182,7 +270,27 @@ public class Game {
 	 *
 	 */
 	public void setWorld(World world) {
-		this.world = world;
+		this.setTopology(new WorldTopology(world));
+	}
+
+	/**
+	 * Sets the (shareable) world topology to play within this game session.
+	 * 
+	 * @param topology The topology of the world on which the game should be played.
+	 *
+	 */
+	public void setTopology(WorldTopology topology) {
+		this.topology = topology;
+	}
+
+	/**
+	 * Returns the world topology.
+	 * 
+	 * @return The topology of the games world.
+	 *
+	 */
+	public WorldTopology getTopology() {
+		return this.topology;
 	}
 	
 	/**
@@ -203,12 +311,29 @@ public class Game {
 	 * 
 	 */
 	public Player getPlayer(Country byCountry) {
-		for (Player player : this.players) {
-			if (player.hasCountry(byCountry)) {
-				return player;
-			}
+		int index = this.topology.getIndex(byCountry);
+
+		if ((index == -1) || (this.state.getOwner(index) == GameState.NO_OWNER)) {
+			return null;
 		}
-		return null;
+		return this.players.get(this.state.getOwner(index));
+	}
+
+	/**
+	 * Returns the count of continents, which are completely
+	 * owned by the given player (e.g. for the UI or bots).
+	 * 
+	 * @param player The player.
+	 * @return The continent count.
+	 * 
+	 */
+	public int getContinentCount(Player player) {
+		int index = this.players.indexOf(player);
+
+		if ((this.state == null) || (index == -1)) {
+			return 0;
+		}
+		return this.state.getContinentCount(index);
 	}
 
 	/**
@@ -244,6 +369,36 @@ public class Game {
 		}
 	}
 
+	/**
+	 * Removes a player from a game that is not running. The player color
+	 * will be available again. If the player was the gamemaster, the next
+	 * player becomes the gamemaster.
+	 * 
+	 * @param player The player to remove.
+	 * @throws GameAlreadyStartedException Not able to remove a player from a running game session.
+	 * 
+	 */
+	public void removePlayer(Player player) throws GameAlreadyStartedException {
+		if (this.isRunning()) {
+			throw new GameAlreadyStartedException(player);
+		}
+
+		for (int i = 0; i < this.players.size(); i++) {
+			if (this.players.get(i).getUsername().equals(player.getUsername())) {
+				Player removed = this.players.remove(i);
+
+				if (removed.getColor() != null) {
+					this.availablePlayerColors.add(removed.getColor());
+				}
+				if (removed.isMaster() && !this.players.isEmpty()) {
+					this.players.firstElement().setMaster(true);
+				}
+				removed.setMaster(false);
+				return;
+			}
+		}
+	}
+
 	/**
 	 * Check if an given player is already in this game.
 	 * 
@@ -316,9 +471,58 @@ public class Game {
 	 *
 	 */
 	public boolean isFinished() {
-		if (turns.lastElement().getCurrentPlayer().getCountryCount() == world.getCountryCount()) {
-			this.setWinner(turns.lastElement().getCurrentPlayer());
-			finished = true;
+		return this.finished;
+	}
+
+	/**
+	 * Kills the game. The game has no winner and the
+	 * last changes will tell the clients about it.
+	 *
+	 */
+	public void kill() {
+		this.killed = true;
+	}
+
+	/**
+	 * Was the game killed?
+	 *
+	 * @return boolean
+	 *
+	 */
+	public boolean isKilled() {
+		return this.killed;
+	}
+
+	/**
+	 * A country was conquered within the current turn.
+	 * Updates the missions and checks if the game is finished.
+	 *
+	 * @param countryIndex The index of the conquered country.
+	 * @param conqueror The new owner.
+	 * @param loser The previous owner.
+	 *
+	 */
+	public void countryConquered(int countryIndex, Player conqueror, Player loser) {
+		for (Mission mission : this.missions) {
+			mission.countryConquered(countryIndex, conqueror, loser);
+		}
+		this.updateFinished();
+	}
+
+	/**
+	 * Determines the "finished" flag and the winner.
+	 *
+	 */
+	private void updateFinished() {
+		if (this.finished) {
+			return;
+		}
+
+		Player currentPlayer = this.getCurrentTurn().getCurrentPlayer();
+
+		if (currentPlayer.getCountryCount() == this.topology.getCountryCount()) {
+			this.setWinner(currentPlayer);
+			this.finished = true;
 		} else {
 			Vector<Player> winners = new Vector<Player>();
 			for(Mission mission : this.missions) {
@@ -327,23 +531,117 @@ public class Game {
 				}
 			}
 			if (!winners.isEmpty()) {
-				if (winners.contains(this.getCurrentTurn().getCurrentPlayer())) {
-					this.setWinner(this.getCurrentTurn().getCurrentPlayer());
+				if (winners.contains(currentPlayer)) {
+					this.setWinner(currentPlayer);
 				} else {
 					this.setWinner(winners.firstElement());
 				}
-				finished = true;
+				this.finished = true;
 			}
 		}
 		
 		//sets all players idle when game is finished.
-		if (finished) {
+		if (this.finished) {
 			for (Player player : this.players) {
 				player.setState(PlayerState.IDLE);
 			}
 		}
+	}
+
+	/**
+	 * Returns the version of the game state.
+	 *
+	 * @return The version or GameStateDelta.NO_VERSION, if the game is not running.
+	 *
+	 */
+	public long getVersion() {
+		return (this.state == null) ? GameStateDelta.NO_VERSION : this.state.getVersion();
+	}
+
+	/**
+	 * Returns the changes of the game state since the given version:
+	 * The owner and army count of all countries, which were changed after
+	 * this version, the state and card count of all players, the current
+	 * turn and the winner.
+	 *
+	 * @param sinceVersion The version of the callers state (or GameStateDelta.NO_VERSION for the complete state).
+	 * @return The changes.
+	 *
+	 */
+	public GameStateDelta getChanges(long sinceVersion) {
+		GameStateDelta delta = new GameStateDelta(sinceVersion, this.getVersion(), this.started, this.finished);
+		delta.setKilled(this.killed);
+
+		if (this.state != null) {
+			int countryCount = this.topology.getCountryCount();
+			int changed = 0;
+
+			for (int i = 0; i < countryCount; i++) {
+				if (this.state.getVersion(i) > sinceVersion) {
+					changed++;
+				}
+			}
+
+			int[] countryIds = new int[changed];
+			int[] owners = new int[changed];
+			int[] armyCounts = new int[changed];
+			int position = 0;
+
+			for (int i = 0; i < countryCount; i++) {
+				if (this.state.getVersion(i) > sinceVersion) {
+					countryIds[position] = this.topology.getCountry(i).getId();
+					owners[position] = this.state.getOwner(i);
+					armyCounts[position] = this.state.getArmyCount(i);
+					position++;
+				}
+			}
+			delta.setCountries(countryIds, owners, armyCounts);
+		}
+
+		PlayerState[] playerStates = new PlayerState[this.players.size()];
+		int[] cardCounts = new int[this.players.size()];
 
-		return finished;
+		for (int i = 0; i < playerStates.length; i++) {
+			Player player = this.players.get(i);
+			playerStates[i] = player.getState();
+			cardCounts[i] = player.getCountryCards().size();
+		}
+		delta.setPlayers(playerStates, cardCounts);
+
+		if (!this.turns.isEmpty()) {
+			Turn turn = this.getCurrentTurn();
+			delta.setTurn(this.players.indexOf(turn.getCurrentPlayer()), turn.getAllocatableArmyCount(), this.players.indexOf(this.winner));
+		} else {
+			delta.setTurn(-1, 0, this.players.indexOf(this.winner));
+		}
+
+		return delta;
+	}
+
+	/**
+	 * Returns a consistent snapshot of the game. The snapshot contains
+	 * copies of the world and the players, so it is possible to use it
+	 * without holding the game lock (e. g. while it will be serialized).
+	 *
+	 * @return The snapshot.
+	 *
+	 */
+	public GameSnapshot getSnapshot() {
+		Vector<Player> players = new Vector<Player>(this.players.size());
+		for (Player player : this.players) {
+			players.add(player.copy());
+		}
+
+		int currentPlayerIndex = -1;
+		int allocatableArmyCount = 0;
+
+		if (!this.turns.isEmpty()) {
+			Turn turn = this.getCurrentTurn();
+			currentPlayerIndex = this.players.indexOf(turn.getCurrentPlayer());
+			allocatableArmyCount = turn.getAllocatableArmyCount();
+		}
+
+		return new GameSnapshot(this.getVersion(), this.getWorld(), players, currentPlayerIndex, allocatableArmyCount, this.finished, this.players.indexOf(this.winner));
 	}
 
 	/**
@@ -415,17 +713,20 @@ public class Game {
 	 * country in a randomized kind of way.
 	 * 
 	 */
-	@SuppressWarnings("unchecked")
 	private void allocateCountries() {
-		Vector<Country> allocatableCountries = new Vector<Country>();
-		allocatableCountries = (Vector<Country>) this.world.getCountries().clone();
+		Vector<Integer> allocatableCountries = new Vector<Integer>();
+		for (int i = 0; i < this.topology.getCountryCount(); i++) {
+			allocatableCountries.add(i);
+		}
 		
-		for (int i = 0; i < ((this.world.getCountryCount() / this.players.size()) + 1); i++) {
-			for (Player player : this.players) {
+		for (int i = 0; i < ((this.topology.getCountryCount() / this.players.size()) + 1); i++) {
+			for (int playerIndex = 0; playerIndex < this.players.size(); playerIndex++) {
 				if (allocatableCountries.size() > 0) {
-					int index = (int) (Math.random() * allocatableCountries.size());
-					player.addCountry(allocatableCountries.get(index));
-					allocatableCountries.remove(index);
+					int index = this.random.nextInt(allocatableCountries.size());
+					int country = allocatableCountries.remove(index);
+
+					this.players.get(playerIndex).addCountry(country);
+					this.state.setOwner(country, playerIndex);
 				}
 			}
 		}
@@ -437,27 +738,36 @@ public class Game {
 	 */
 	private void allocateMissions() {
 		Vector<Player> defeatablePlayers = new Vector<Player>(this.getPlayers());
-		Vector<Continent> conquerableContinents = new Vector<Continent>(this.world.getContinents());
+		Vector<Integer> conquerableContinents = new Vector<Integer>();
+		for (int i = 0; i < this.topology.getContinentCount(); i++) {
+			conquerableContinents.add(i);
+		}
 		
 		int missionType = 0;
 
 		for (Player player : this.players) {
-			missionType = (int)(Math.random()*3);
+			missionType = this.random.nextInt(3);
 			
 			switch (missionType) {
 				
 				// Conquer country mission
 				case 0:
-					short conquerableCountryCount = (short)((this.world.getCountryCount()*4)/7);
+					short conquerableCountryCount = (short)((this.topology.getCountryCount()*4)/7);
 					this.missions.add(new CountryConquerMission(conquerableCountryCount, player));
 				break;
 
 				// Conquer continent mission
 				case 1:
-					Collections.shuffle(conquerableContinents);
-					Vector<Country> firstContinent = this.world.getCountries(conquerableContinents.get(0));
-					Vector<Country> secondContinent = this.world.getCountries(conquerableContinents.get(1));
-					this.missions.add(new ContinentConquerMission(firstContinent, secondContinent, player));
+					Collections.shuffle(conquerableContinents, this.random);
+					int first = conquerableContinents.get(0);
+					int second = conquerableContinents.get(1);
+
+					BitSet countryIndices = (BitSet)this.topology.getCountrySet(first).clone();
+					countryIndices.or(this.topology.getCountrySet(second));
+
+					Vector<Country> firstContinent = this.topology.getCountries(this.topology.getContinent(first));
+					Vector<Country> secondContinent = this.topology.getCountries(this.topology.getContinent(second));
+					this.missions.add(new ContinentConquerMission(firstContinent, secondContinent, countryIndices, player));
 				break;
 
 				// Defeat player mission
@@ -467,7 +777,7 @@ public class Game {
 					Vector<Player> shuffableDefeatablePlayer = new Vector<Player>(defeatablePlayers);
 					shuffableDefeatablePlayer.remove(player);
 
-					Collections.shuffle(shuffableDefeatablePlayer);
+					Collections.shuffle(shuffableDefeatablePlayer, this.random);
 					Player enemy = shuffableDefeatablePlayer.firstElement();
 					this.missions.add(new DefeatPlayerMission(enemy, player));
 					
@@ -486,10 +796,10 @@ public class Game {
 	 */
 	private void generateCountryCards() {
 		//TODO:	maybe shuffle country vector without creating temp
-		Vector<Country> temp = new Vector<Country>(this.world.getCountries());
-		Collections.shuffle(temp);
+		Vector<Country> temp = this.topology.getCountries();
+		Collections.shuffle(temp, this.random);
 		
-		for (int countryNumber = 0; countryNumber < this.world.getCountryCount(); countryNumber++) {
+		for (int countryNumber = 0; countryNumber < this.topology.getCountryCount(); countryNumber++) {
 			CountryCard card;
 			if ((countryNumber % 3) == 0) {
 				card = new SoldierCard(temp.elementAt(countryNumber));
@@ -500,7 +810,7 @@ public class Game {
 			}
 			this.countryCards.add(card);
 		}
-		Collections.shuffle(this.countryCards);
+		Collections.shuffle(this.countryCards, this.random);
 	}
 
 	/**
@@ -520,7 +830,7 @@ public class Game {
 	 * 
 	 */
 	private Color generatePlayerColor() {
-		Collections.shuffle(this.availablePlayerColors);
+		Collections.shuffle(this.availablePlayerColors, this.random);
 		Color playerColor = new Color(this.availablePlayerColors.get(0).getRGB());
 		this.availablePlayerColors.remove(0);
 
@@ -0,0 +1,302 @@
+/*
+ * Minerva - Game, Copyright 2010 Christian Bollmann, Carina Strempel, André König
+ * Hochschule Bremen - University of Applied Sciences - All Rights Reserved.
+ *
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Contact:
+ *     Christian Bollmann: cbollmann@stud.hs-bremen.de
+ *     Carina Strempel: cstrempel@stud.hs-bremen.de
+ *     André König: akoenig@stud.hs-bremen.de
+ * 
+ * Web:
+ *     http://minerva.idira.de
+ * 
+ */
+package de.hochschule.bremen.minerva.server.core.logic;
+
+import java.util.Arrays;
+
+/**
+ * The mutable state of a game: The owner, the army count and the count
+ * of armies moved within the current turn of every country. These are
+ * stored in primitive arrays, which are indexed by the country index of
+ * the {@link WorldTopology}. The owner is the index of the player in the
+ * games player vector.
+ *
+ * Additionally, the state counts the owned countries per player and
+ * continent. These counters will be updated on each owner change, so
+ * the continent bonus is available without iterating over the countries.
+ *
+ * Each change of an owner or an army count increases the version of the
+ * state. The version of the last change is stored per country, so the
+ * changes since a given version can be determined (see Game#getChanges(long)).
+ *
+ * @see WorldTopology
+ *
+ * @since 1.0
+ * @version $Id$
+ *
+ */
+public class GameState {
+
+	public static final int NO_OWNER = -1;
+
+	private int[] owners = null;
+	private int[] armies = null;
+	private int[] movedArmies = null;
+
+	private long version = 0;
+
+	// [country] -> version of the last change
+	private long[] countryVersions = null;
+
+	private WorldTopology topology = null;
+
+	// [player] -> owned countries
+	private int[] countryCounts = null;
+
+	// [player][continent] -> owned countries of the continent
+	private int[][] continentCountryCounts = null;
+
+	// [player] -> completely owned continents
+	private int[] continentCounts = null;
+
+	/**
+	 * Creates the state for the given world topology.
+	 * Every country has no owner and one army.
+	 *
+	 * @param topology The topology of the world.
+	 * @param playerCount The count of players in the game.
+	 *
+	 */
+	public GameState(WorldTopology topology, int playerCount) {
+		int countryCount = topology.getCountryCount();
+
+		this.topology = topology;
+		this.owners = new int[countryCount];
+		this.armies = new int[countryCount];
+		this.movedArmies = new int[countryCount];
+		this.countryVersions = new long[countryCount];
+
+		Arrays.fill(this.owners, NO_OWNER);
+		Arrays.fill(this.armies, 1);
+
+		this.countryCounts = new int[playerCount];
+		this.continentCountryCounts = new int[playerCount][topology.getContinentCount()];
+		this.continentCounts = new int[playerCount];
+	}
+
+	/**
+	 * Returns the player index of the country owner.
+	 *
+	 * @param country The country index.
+	 * @return The player index or NO_OWNER.
+	 *
+	 */
+	public int getOwner(int country) {
+		return this.owners[country];
+	}
+
+	/**
+	 * Sets the country owner.
+	 *
+	 * @param country The country index.
+	 * @param player The player index.
+	 *
+	 */
+	public void setOwner(int country, int player) {
+		int previous = this.owners[country];
+		int continent = this.topology.getContinentIndex(country);
+		int continentSize = this.topology.getCountryIndices(continent).length;
+
+		if (previous == player) {
+			return;
+		}
+
+		if (previous != NO_OWNER) {
+			if (this.continentCountryCounts[previous][continent] == continentSize) {
+				this.continentCounts[previous]--;
+			}
+			this.continentCountryCounts[previous][continent]--;
+			this.countryCounts[previous]--;
+		}
+
+		if (player != NO_OWNER) {
+			this.countryCounts[player]++;
+			this.continentCountryCounts[player][continent]++;
+			if (this.continentCountryCounts[player][continent] == continentSize) {
+				this.continentCounts[player]++;
+			}
+		}
+
+		this.owners[country] = player;
+		this.changed(country);
+	}
+
+	/**
+	 * Returns the count of countries, which are owned by the player.
+	 *
+	 * @param player The player index.
+	 * @return The country count.
+	 *
+	 */
+	public int getCountryCount(int player) {
+		return this.countryCounts[player];
+	}
+
+	/**
+	 * Returns the count of countries of the continent,
+	 * which are owned by the player.
+	 *
+	 * @param player The player index.
+	 * @param continent The continent index.
+	 * @return The country count.
+	 *
+	 */
+	public int getCountryCount(int player, int continent) {
+		return this.continentCountryCounts[player][continent];
+	}
+
+	/**
+	 * Does the player own all countries of the continent?
+	 *
+	 * @param player The player index.
+	 * @param continent The continent index.
+	 * @return boolean
+	 *
+	 */
+	public boolean hasContinent(int player, int continent) {
+		return (this.continentCountryCounts[player][continent] == this.topology.getCountryIndices(continent).length);
+	}
+
+	/**
+	 * Returns the count of continents, which are
+	 * completely owned by the player.
+	 *
+	 * @param player The player index.
+	 * @return The continent count.
+	 *
+	 */
+	public int getContinentCount(int player) {
+		return this.continentCounts[player];
+	}
+
+	/**
+	 * Returns the army count of a country.
+	 *
+	 * @param country The country index.
+	 * @return The army count.
+	 *
+	 */
+	public int getArmyCount(int country) {
+		return this.armies[country];
+	}
+
+	/**
+	 * Adds armies to a country.
+	 *
+	 * @param country The country index.
+	 * @param count The count of armies to add.
+	 *
+	 */
+	public void addArmies(int country, int count) {
+		this.armies[country] += count;
+		this.changed(country);
+	}
+
+	/**
+	 * Removes armies from a country. The army count
+	 * can't be less than zero.
+	 *
+	 * @param country The country index.
+	 * @param count The count of armies to remove.
+	 *
+	 */
+	public void removeArmies(int country, int count) {
+		this.armies[country] = Math.max(0, this.armies[country] - count);
+		this.movedArmies[country] = Math.min(this.movedArmies[country], this.armies[country]);
+		this.changed(country);
+	}
+
+	/**
+	 * Moves armies from one country to another. The moved
+	 * armies will be counted on the destination country.
+	 *
+	 * @param from The source country index.
+	 * @param destination The destination country index.
+	 * @param count The count of armies to move.
+	 *
+	 */
+	public void moveArmies(int from, int destination, int count) {
+		this.removeArmies(from, count);
+		this.armies[destination] += count;
+		this.movedArmies[destination] += count;
+		this.changed(destination);
+	}
+
+	/**
+	 * Returns the count of armies, which were moved to
+	 * the country within the current turn.
+	 *
+	 * @param country The country index.
+	 * @return The moved army count.
+	 *
+	 */
+	public int getMovedArmyCount(int country) {
+		return this.movedArmies[country];
+	}
+
+	/**
+	 * Resets the moved army counters (at the beginning of a turn).
+	 *
+	 */
+	public void resetMovedArmies() {
+		Arrays.fill(this.movedArmies, 0);
+	}
+
+	/**
+	 * Returns the current version of the state.
+	 *
+	 * @return The version (0 = no changes).
+	 *
+	 */
+	public long getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * Returns the version of the last change of the country.
+	 *
+	 * @param country The country index.
+	 * @return The version.
+	 *
+	 */
+	public long getVersion(int country) {
+		return this.countryVersions[country];
+	}
+
+	/**
+	 * Increases the version and marks the country as changed.
+	 *
+	 * @param country The country index.
+	 *
+	 */
+	private void changed(int country) {
+		this.countryVersions[country] = ++this.version;
+	}
+}
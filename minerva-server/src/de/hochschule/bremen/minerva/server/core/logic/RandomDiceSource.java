@@ -0,0 +1,90 @@
+/*
+ * Minerva - Game, Copyright 2010 Christian Bollmann, Carina Strempel, André König
+ * Hochschule Bremen - University of Applied Sciences - All Rights Reserved.
+ *
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Contact:
+ *     Christian Bollmann: cbollmann@stud.hs-bremen.de
+ *     Carina Strempel: cstrempel@stud.hs-bremen.de
+ *     André König: akoenig@stud.hs-bremen.de
+ * 
+ * Web:
+ *     http://minerva.idira.de
+ * 
+ */
+package de.hochschule.bremen.minerva.server.core.logic;
+
+import java.util.SplittableRandom;
+
+/**
+ * A seedable dice source. Every game has its own random generator,
+ * so the games do not contend on one shared generator (like Math.random()).
+ * If you know the seed of a game, you are able to reproduce the roll results.
+ *
+ * Note that this class is not thread safe. Use it within the game lock.
+ *
+ * @since 1.0
+ * @version $Id$
+ *
+ */
+public class RandomDiceSource implements DiceSource {
+
+	private long seed = 0;
+	private SplittableRandom random = null;
+
+	/**
+	 * Creates a dice source with a random seed.
+	 * 
+	 */
+	public RandomDiceSource() {
+		this(new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Creates a dice source with the given seed.
+	 * 
+	 * @param seed The seed (e.g. of a game, which should be reproduced).
+	 * 
+	 */
+	public RandomDiceSource(long seed) {
+		this.seed = seed;
+		this.random = new SplittableRandom(seed);
+	}
+
+	/**
+	 * Rolls all dice.
+	 * 
+	 * @param dice The dice.
+	 * 
+	 */
+	public void roll(int[] dice) {
+		for (int i = 0; i < dice.length; i++) {
+			dice[i] = this.random.nextInt(6) + 1;
+		}
+	}
+
+	/**
+	 * Returns the seed.
+	 * 
+	 * @return The seed of the random generator.
+	 * 
+	 */
+	public long getSeed() {
+		return this.seed;
+	}
+}
@@ -31,6 +31,8 @@
 package de.hochschule.bremen.minerva.server.core.logic;
 
 import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
 import java.util.Vector;
 
 import de.hochschule.bremen.minerva.commons.exceptions.CountriesNotInRelationException;
@@ -38,16 +40,13 @@ import de.hochschule.bremen.minerva.commons.exceptions.CountryOwnerException;
 import de.hochschule.bremen.minerva.commons.exceptions.IsOwnCountryException;
 import de.hochschule.bremen.minerva.commons.exceptions.NotEnoughArmiesException;
 import de.hochschule.bremen.minerva.commons.util.Die;
-import de.hochschule.bremen.minerva.commons.vo.Army;
 import de.hochschule.bremen.minerva.commons.vo.AttackResult;
 import de.hochschule.bremen.minerva.commons.vo.CanonCard;
 import de.hochschule.bremen.minerva.commons.vo.CavalerieCard;
-import de.hochschule.bremen.minerva.commons.vo.Continent;
 import de.hochschule.bremen.minerva.commons.vo.Country;
 import de.hochschule.bremen.minerva.commons.vo.CountryCard;
 import de.hochschule.bremen.minerva.commons.vo.Player;
 import de.hochschule.bremen.minerva.commons.vo.SoldierCard;
-import de.hochschule.bremen.minerva.commons.vo.World;
 import de.hochschule.bremen.minerva.server.vo.CardSeriesCounter;
 
 /**
@@ -61,78 +60,71 @@ public class Turn {
 
 	public static final int CONTINENT_ARMY_GET = 5;
 	
-	private World world = null;
+	private WorldTopology topology = null;
+	private GameState state = null;
 	private Vector<Player> players = null;
 	private Player currentPlayer = null;
-	private Vector<Army> allocatableArmies = null;
+	private int currentPlayerIndex = GameState.NO_OWNER;
+	private int allocatableArmyCount = 0;
 	private Vector<AttackResult> attackResults = null;
 	private Vector<CountryCard> countryCards = null;
 	private Vector<CountryCard> usedCountryCards = null;
 	private CardSeriesCounter seriesCounter = null;
 	private Boolean cardGet = true;
+	private ConquestListener conquestListener = null;
+	private DiceSource diceSource = null;
+	private Random random = null;
 	
 	/**
 	 * Constructs a new turn.
 	 * 
 	 * @param currentPlayer This is the new current player.
-	 * @param world The world object played on.
+	 * @param topology The topology of the world played on.
+	 * @param state The game state (country owners and army counts).
 	 * @param players The player vector inheriting all players to this match.
 	 * @param Vector<CountryCard> countryCards Vector with country card obtainable after a succesful attack.
 	 * @param Vector<CountryCard> usedCountryCards Vector with turned in country cards.
 	 * @param CardSeriesCounter seriesCounter Counter of turned in series in the game.
+	 * @param diceSource The dice source of the game.
+	 * @param random The random generator of the game (for shuffling the country cards).
 	 *
 	 */
-	public Turn(Player currentPlayer, World world, Vector<Player> players,
+	public Turn(Player currentPlayer, WorldTopology topology, GameState state, Vector<Player> players,
 			Vector<CountryCard> countryCards, Vector<CountryCard> usedCountryCards,
-			CardSeriesCounter seriesCounter) {
+			CardSeriesCounter seriesCounter, DiceSource diceSource, Random random) {
 		
-		this.setWorld(world);
+		this.setTopology(topology);
+		this.state = state;
 		this.setCurrentPlayer(currentPlayer);
 		this.setPlayers(players);
-		this.allocatableArmies = new Vector<Army>();
+		this.currentPlayerIndex = players.indexOf(currentPlayer);
 		this.createArmies();
 		this.attackResults = new Vector<AttackResult>();
 		this.countryCards = countryCards;
 		this.usedCountryCards = usedCountryCards;
 		this.seriesCounter = seriesCounter;
+		this.diceSource = diceSource;
+		this.random = random;
 	}
 	
 	/**
 	 * Creates armies for the current player by taking his countryCount / 3.
 	 * If its less than 3, the current player gets 3 armies.
-	 * 
-	 * @param currentPlayer The current player of this turn.
-	 * @return Vector of armies gained per turn.
 	 *
 	 */
 	private void createArmies() {
 		//army via country count
-		int armyGet = this.currentPlayer.getCountryCount() / 3;
+		int armyGet = this.state.getCountryCount(this.currentPlayerIndex) / 3;
 
 		if (armyGet < 3) {
 			armyGet = 3;
 		}
 		
-		//armies via fully conquered continents
-		int conqueredContinents = 0;
-		boolean check;
-		for (Continent continent : this.world.getContinents()) {
-			check = true;
-			for (Country country : this.world.getCountries(continent)) {
-				if (!this.currentPlayer.hasCountry(country)) {
-					check = false;
-				}
-			}
-			if (check) {
-				conqueredContinents++;
-			}
-		}
-		armyGet += conqueredContinents * Turn.CONTINENT_ARMY_GET;
+		//armies via fully conquered continents (counted by the game state on each conquest)
+		armyGet += this.state.getContinentCount(this.currentPlayerIndex) * Turn.CONTINENT_ARMY_GET;
 		
 		//creating armies
-		for (int i = 0; i < armyGet; i++) {
-			this.allocatableArmies.add(new Army());
-		}
+		this.allocatableArmyCount += armyGet;
 	}
 	
 	/**
@@ -142,9 +134,7 @@ public class Turn {
 	 *
 	 */
 	private void createArmies(int numberOfArmies) {
-		for (int i = 0; i < numberOfArmies; i++) {
-			this.allocatableArmies.add(new Army());
-		}
+		this.allocatableArmyCount += numberOfArmies;
 	}
 	
 	/**
@@ -176,14 +166,12 @@ public class Turn {
 	 * 
 	 */
 	public void allocateArmy(Country country) throws NotEnoughArmiesException, CountryOwnerException {
-		if (currentPlayer.hasCountry(country)) {
+		int index = this.topology.getIndex(country);
+
+		if (this.isOwnCountry(index)) {
 			if (this.getAllocatableArmyCount() > 0) {
-				for (Country realCountry : this.getWorld().getCountries()) {
-					if (country.getId() == realCountry.getId()) {
-						realCountry.addArmy();
-					}
-				}
-				getAllocatableArmies().remove(getAllocatableArmies().size() - 1);				
+				this.state.addArmies(index, 1);
+				this.allocatableArmyCount--;
 			} else {
 				throw new NotEnoughArmiesException(country, this.getAllocatableArmyCount(), true);
 			}
@@ -191,6 +179,48 @@ public class Turn {
 			throw new CountryOwnerException(country, currentPlayer);
 		}
 	}
+
+	/**
+	 * Allocates several armies on several countries at once. The whole
+	 * placement will be validated before any army is placed, so the
+	 * placement is either applied completely or not at all.
+	 *
+	 * @param allocations The army count per country id.
+	 *
+	 * @throws NotEnoughArmiesException More armies than allocatable or an invalid army count.
+	 * @throws CountryOwnerException One of the countries is not an own country.
+	 *
+	 */
+	public void allocateArmies(Map<Integer, Integer> allocations) throws NotEnoughArmiesException, CountryOwnerException {
+		int[] indices = new int[allocations.size()];
+		int[] armyCounts = new int[allocations.size()];
+		int allocatableArmyCount = this.getAllocatableArmyCount();
+		int i = 0;
+
+		for (Map.Entry<Integer, Integer> allocation : allocations.entrySet()) {
+			int index = this.topology.getIndex(allocation.getKey());
+			int armyCount = allocation.getValue();
+
+			if ((index == -1) || (!this.isOwnCountry(index))) {
+				Country country = (index == -1) ? new Country() : this.topology.getCountry(index);
+				throw new CountryOwnerException(country, this.currentPlayer);
+			}
+
+			if ((armyCount < 0) || (armyCount > allocatableArmyCount)) {
+				throw new NotEnoughArmiesException(this.topology.getCountry(index), allocatableArmyCount, true);
+			}
+
+			allocatableArmyCount -= armyCount;
+			indices[i] = index;
+			armyCounts[i] = armyCount;
+			i++;
+		}
+
+		for (i = 0; i < indices.length; i++) {
+			this.state.addArmies(indices[i], armyCounts[i]);
+		}
+		this.allocatableArmyCount = allocatableArmyCount;
+	}
 	
 	/**
 	 * Attacker country attacks defender country and chooses how many armies he uses.
@@ -209,82 +239,66 @@ public class Turn {
 	public AttackResult attack(Country attacker, Country defender, int armyCount) throws CountriesNotInRelationException, NotEnoughArmiesException, IsOwnCountryException {
 		AttackResult result = null;
 		
-		//ugly iteration due to reference problems on client/server
-		Country attackerCountry = null;
-		Country defenderCountry = null;
-		for(Country country : this.getWorld().getCountries()) {
-			if (attacker.getId() == country.getId()) {
-				attackerCountry = country;
-			} 
-			if (defender.getId() == country.getId()) {
-				defenderCountry = country;
-			}
+		int attackerCountry = this.topology.getIndex(attacker);
+		int defenderCountry = this.topology.getIndex(defender);
+
+		// One of the countries does not belong to the world of this game.
+		if ((attackerCountry == -1) || (defenderCountry == -1)) {
+			throw new CountriesNotInRelationException(attacker, defender);
 		}
 
-		if (this.world.areNeighbours(attackerCountry, defenderCountry)) {
+		if (this.topology.areNeighbours(attackerCountry, defenderCountry)) {
 			
 			Player defenderPlayer = this.findPlayerToCountry(defenderCountry);
 			
 			//Exception for attacking an own country
-			if (this.currentPlayer.hasCountry(defenderCountry)) {
-				throw new IsOwnCountryException(this.currentPlayer, defenderCountry);
+			if (this.isOwnCountry(defenderCountry)) {
+				throw new IsOwnCountryException(this.currentPlayer, this.topology.getCountry(defenderCountry));
 			}
 			
-			if ((armyCount <= 3) && (armyCount>0) && (this.currentPlayer.hasCountry(attackerCountry))) {
+			if ((armyCount <= 3) && (armyCount>0) && (this.isOwnCountry(attackerCountry))) {
 				
 				//Exception for not enough armies on the attacker country
-				if (!(armyCount <= attackerCountry.getArmyCount())) {
-					throw new NotEnoughArmiesException(attackerCountry, defenderCountry);
+				if (!(armyCount <= this.state.getArmyCount(attackerCountry))) {
+					throw new NotEnoughArmiesException(this.topology.createCountry(attackerCountry, this.state), this.topology.getCountry(defenderCountry));
 				}
 				
-				Vector<Die> attackerDice = new Vector<Die>();
-				Vector<Die> defenderDice = new Vector<Die>();
-				int defenderCount = this.calcMaxDefenderCount(defenderCountry, armyCount);
+				int[] attackerDice = new int[armyCount];
+				int[] defenderDice = new int[this.calcMaxDefenderCount(defenderCountry, armyCount)];
 				int[] lostArmies = {0,0};
 				boolean won = false;
 				
 				// Attacker and defender roll as much dice as they are allowed to.
-				for (int i = 0; i < armyCount; i++) {
-					Die die = new Die();
-					die.dice();
-					attackerDice.add(die);
-				}
-				for (int i = 0; i < defenderCount; i++) {
-					Die die = new Die();
-					die.dice();
-					defenderDice.add(die);
-				}
+				this.diceSource.roll(attackerDice);
+				this.diceSource.roll(defenderDice);
 
-				
-				Vector<Die> rawAttackerDice = new Vector<Die>(attackerDice);				
-				Vector<Die> rawDefenderDice = new Vector<Die>(defenderDice);
-
-				// Dice are compared and armies removed.
-				int def = defenderDice.size();
-				for (int i = 0; i < def; i++) {
-					Die highestAttacker = Die.getLargest(attackerDice);
-					Die highestDefender = Die.getLargest(defenderDice);
-					if (highestAttacker.getRollResult() > highestDefender.getRollResult()) {
-						defenderCountry.removeArmy();
+				Die.sortDescending(attackerDice);
+				Die.sortDescending(defenderDice);
+
+				// Dice are compared (highest against highest) and armies removed.
+				for (int i = 0; i < defenderDice.length; i++) {
+					if (attackerDice[i] > defenderDice[i]) {
+						this.state.removeArmies(defenderCountry, 1);
 						lostArmies[1]++;
 					} else {
-						attackerCountry.removeArmy();
+						this.state.removeArmies(attackerCountry, 1);
 						lostArmies[0]++;
 					}
-					attackerDice.remove(highestAttacker);
-					defenderDice.remove(highestDefender);
 				}
 				
 				// If attacker won, he gets the country and moves his attacking armies there.
-				if (defenderCountry.getArmies().isEmpty()) {
+				if (this.state.getArmyCount(defenderCountry) == 0) {
 					Player loser = this.findPlayerToCountry(defenderCountry);
 					loser.removeCountry(defenderCountry);
 
 					this.currentPlayer.addCountry(defenderCountry);
+					this.state.setOwner(defenderCountry, this.currentPlayerIndex);
+
+					this.state.addArmies(defenderCountry, armyCount-lostArmies[0]);
+					this.state.removeArmies(attackerCountry, armyCount-lostArmies[0]);
 
-					for (int i = 0; i < armyCount-lostArmies[0]; i++) {
-						defenderCountry.addArmy();
-						attackerCountry.removeArmy();
+					if (this.conquestListener != null) {
+						this.conquestListener.countryConquered(defenderCountry, this.currentPlayer, loser);
 					}
 					
 					// current player gets a card at the first win
@@ -296,7 +310,7 @@ public class Turn {
 						} else {
 							//turning used card stack into the new card stack and shuffle it
 							this.countryCards.addAll(this.usedCountryCards);
-							Collections.shuffle(this.countryCards);
+							Collections.shuffle(this.countryCards, this.random);
 							this.usedCountryCards.clear();
 							this.currentPlayer.addCountryCard(countryCards.firstElement());
 							this.countryCards.removeElementAt(0);
@@ -305,18 +319,66 @@ public class Turn {
 					won = true;
 				}
 				
-				result = new AttackResult(this.currentPlayer, defenderPlayer, lostArmies[0], lostArmies[1], rawAttackerDice, rawDefenderDice, won);
+				result = new AttackResult(this.currentPlayer, defenderPlayer, lostArmies[0], lostArmies[1], attackerDice, defenderDice, won);
 				//Creating new AttackResult
 				this.attackResults.add(result);
 				
 			}
 			
 		} else {
-			throw new CountriesNotInRelationException(attackerCountry, defenderCountry);
+			throw new CountriesNotInRelationException(this.topology.getCountry(attackerCountry), this.topology.getCountry(defenderCountry));
 		}
 		
 		return result;
 	}
+
+	/**
+	 * Blitz attack: The attacker country attacks the defender country with
+	 * the maximum possible army count until the country is conquered or
+	 * one of the stop conditions is reached.
+	 *
+	 * @param attacker Country where to attack from.
+	 * @param defender Country which will be attacked.
+	 * @param minAttackerArmies Stop when the attacker country has less armies than this.
+	 * @param maxRounds Maximum number of rounds (0 = unlimited).
+	 *
+	 * @return The aggregated attack result with all rounds or null if the attacker country isn't an own one.
+	 *
+	 * @throws CountriesNotInRelationException The countries are not connected.
+	 * @throws IsOwnCountryException Trying to attack an own country.
+	 * @throws NotEnoughArmiesException Not even one round is possible.
+	 *
+	 */
+	public AttackResult blitzAttack(Country attacker, Country defender, int minAttackerArmies, int maxRounds) throws CountriesNotInRelationException, NotEnoughArmiesException, IsOwnCountryException {
+		int attackerCountry = this.topology.getIndex(attacker);
+		Vector<AttackResult> rounds = new Vector<AttackResult>();
+
+		if ((attackerCountry == -1) || (this.topology.getIndex(defender) == -1)) {
+			throw new CountriesNotInRelationException(attacker, defender);
+		}
+
+		while ((maxRounds <= 0) || (rounds.size() < maxRounds)) {
+			int armyCount = this.calcMaxAttackCount(attacker);
+			if ((armyCount < 1) || (this.state.getArmyCount(attackerCountry) < minAttackerArmies)) {
+				break;
+			}
+
+			AttackResult round = this.attack(attacker, defender, armyCount);
+			if (round == null) {
+				return null;
+			}
+
+			rounds.add(round);
+			if (round.isWin()) {
+				break;
+			}
+		}
+
+		if (rounds.isEmpty()) {
+			throw new NotEnoughArmiesException(this.topology.createCountry(attackerCountry, this.state), defender);
+		}
+		return new AttackResult(rounds);
+	}
 	
 	/**
 	 * Moves specific amount of armies from one to another, related country.
@@ -331,42 +393,28 @@ public class Turn {
 	 * 
 	 */
 	public void moveArmies(Country source, Country dest, int armyCount) throws CountriesNotInRelationException, NotEnoughArmiesException, CountryOwnerException {
-		//ugly iteration due to reference problems on client/server
-		Country from = null;
-		Country destination = null;
-		for(Country country : this.getWorld().getCountries()) {
-			if (source.getId() == country.getId()) {
-				from = country;
-			} 
-			if (dest.getId() == country.getId()) {
-				destination = country;
-			}
-		}
+		int from = this.topology.getIndex(source);
+		int destination = this.topology.getIndex(dest);
 		
-		if (currentPlayer.hasCountry(from)) {
+		if (this.isOwnCountry(from)) {
 			
-			if (currentPlayer.hasCountry(destination)) {
+			if (this.isOwnCountry(destination)) {
 			
 				//Exception for not enough armies on the country to be moved from
-				if (!(world.areNeighbours(from, destination))) {
-					throw new CountriesNotInRelationException(from, destination);
+				if (!(this.topology.areNeighbours(from, destination))) {
+					throw new CountriesNotInRelationException(this.topology.getCountry(from), this.topology.getCountry(destination));
 				}
 	
-				if (from.getArmyCount() <= armyCount) {
-					throw new NotEnoughArmiesException(from, armyCount, true);
+				if (this.state.getArmyCount(from) <= armyCount) {
+					throw new NotEnoughArmiesException(this.topology.getCountry(from), armyCount, true);
 				}
 
-				for (int i = 0; i < armyCount; i++) {
-					from.removeArmy();
-					Army newArmy = new Army();
-					newArmy.moved(true);
-					destination.addArmy(newArmy);
-				}
+				this.state.moveArmies(from, destination, armyCount);
 			} else {
-				throw new CountryOwnerException(destination, currentPlayer);
+				throw new CountryOwnerException(dest, currentPlayer);
 			}
 		} else {
-			throw new CountryOwnerException(destination, currentPlayer);
+			throw new CountryOwnerException(dest, currentPlayer);
 		}
 	}
 	
@@ -385,7 +433,7 @@ public class Turn {
 			}
 		}
 		
-		if (currentPlayer.hasCountry(realCard.getReference())) {
+		if (currentPlayer.hasCountry(this.topology.getIndex(realCard.getReference()))) {
 			this.addAllocatableArmy();
 			this.usedCountryCards.add(realCard);
 			this.currentPlayer.getCountryCards().remove(realCard);
@@ -499,23 +547,33 @@ public class Turn {
 	}
 
 	/**
-	 * Sets world.
+	 * Sets the listener, which will be informed about conquests.
 	 *
-	 * @param world The world to play in.
+	 * @param conquestListener The listener (e.g. the game).
 	 *
 	 */
-	private void setWorld(World world) {
-		this.world = world;
+	public void setConquestListener(ConquestListener conquestListener) {
+		this.conquestListener = conquestListener;
 	}
 
 	/**
-	 * Returns world.
+	 * Sets the world topology.
 	 *
-	 * @return The world where you are playing in.
+	 * @param topology The topology of the world to play in.
 	 *
 	 */
-	public World getWorld() {
-		return world;
+	private void setTopology(WorldTopology topology) {
+		this.topology = topology;
+	}
+
+	/**
+	 * Returns the world topology.
+	 *
+	 * @return The topology of the world where you are playing in.
+	 *
+	 */
+	public WorldTopology getTopology() {
+		return this.topology;
 	}
 
 	/**
@@ -539,21 +597,11 @@ public class Turn {
 	}
 
 	/**
-	 * Returns allocatable armies.
-	 * 
-	 * @return Vector with armies.
-	 *
-	 */
-	private Vector<Army> getAllocatableArmies() {
-		return allocatableArmies;
-	}
-
-	/**
-	 * Adds one allocatable army to the vector.
+	 * Adds one allocatable army.
 	 *
 	 */
 	private void addAllocatableArmy() {
-		allocatableArmies.add(new Army());
+		this.allocatableArmyCount++;
 	}
 
 	/**
@@ -563,24 +611,24 @@ public class Turn {
 	 *
 	 */
 	public int getAllocatableArmyCount() {
-		return getAllocatableArmies().size();
+		return this.allocatableArmyCount;
 	}
 
 	/**
 	 * Calculates maximum number of possible defending armies.
 	 * 
-	 * @param defender Country which will defend.
+	 * @param defender Index of the country which will defend.
 	 * @param armyCount Number of attacking armies.
 	 *
 	 * @return Number of armies defending (1 or 2).
 	 *
 	 */
-	private int calcMaxDefenderCount(Country defender, int armyCount) {
+	private int calcMaxDefenderCount(int defender, int armyCount) {
 		if(armyCount == 1){
 			return 1;
 		}
 		
-		if (defender.getArmyCount() > 1) {
+		if (this.state.getArmyCount(defender) > 1) {
 			return 2;
 		} else {
 			return 1;
@@ -592,11 +640,16 @@ public class Turn {
 	 *
 	 * @param country Country where to calculate the maximum number to attack with.
 	 *
-	 * @return Maximum number of armies to attack with.
+	 * @return Maximum number of armies to attack with (0 for a country of another world).
 	 *
 	 */
 	public int calcMaxAttackCount(Country country) {
-		int armyCount = country.getArmyCount();
+		int index = this.topology.getIndex(country);
+		if (index == -1) {
+			return 0;
+		}
+
+		int armyCount = this.state.getArmyCount(index);
 
 		if (armyCount > 3) {
 			return 3;
@@ -608,18 +661,27 @@ public class Turn {
 	/**
 	 * Finds the owner of a country.
 	 *
-	 * @param country Country where you want to find the owner.
+	 * @param country Index of the country where you want to find the owner.
 	 *
 	 * @return Owner of the country.
 	 *
 	 */
-	private Player findPlayerToCountry(Country country) { 
-		for (Player player : players) {
-			if (player.hasCountry(country)) {
-				return player;
-			}
-		}
-		return null;
+	private Player findPlayerToCountry(int country) { 
+		int owner = this.state.getOwner(country);
+
+		return (owner == GameState.NO_OWNER) ? null : this.players.get(owner);
+	}
+
+	/**
+	 * Is the country owned by the current player?
+	 *
+	 * @param country The country index (or -1 for a country of another world).
+	 *
+	 * @return boolean
+	 *
+	 */
+	private boolean isOwnCountry(int country) {
+		return (country != -1) && (this.state.getOwner(country) == this.currentPlayerIndex);
 	}
 
 	/**
@@ -0,0 +1,355 @@
+/*
+ * Minerva - Game, Copyright 2010 Christian Bollmann, Carina Strempel, André König
+ * Hochschule Bremen - University of Applied Sciences - All Rights Reserved.
+ *
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Contact:
+ *     Christian Bollmann: cbollmann@stud.hs-bremen.de
+ *     Carina Strempel: cstrempel@stud.hs-bremen.de
+ *     André König: akoenig@stud.hs-bremen.de
+ * 
+ * Web:
+ *     http://minerva.idira.de
+ * 
+ */
+package de.hochschule.bremen.minerva.server.core.logic;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Vector;
+
+import de.hochschule.bremen.minerva.commons.vo.Continent;
+import de.hochschule.bremen.minerva.commons.vo.Country;
+import de.hochschule.bremen.minerva.commons.vo.World;
+
+/**
+ * The static part of a world: the countries, the continents
+ * and the country graph. The topology will never be modified
+ * after its creation, so that it can be shared between all games,
+ * which are running on the same world.
+ *
+ * Every country has a dense index (0 ... countryCount - 1). The
+ * mutable per game data (country owners and army counts) is stored
+ * in primitive arrays by this index (see {@link GameState}).
+ *
+ * @see GameState
+ *
+ * @since 1.0
+ * @version $Id$
+ *
+ */
+public class WorldTopology {
+
+	private World world = null;
+
+	private Country[] countries = null;
+
+	private Continent[] continents = null;
+	private int[] continentIndices = null;
+	private int[][] continentCountries = null;
+	private BitSet[] continentCountrySets = null;
+
+	/**
+	 * Creates the topology from the given (completely loaded) world.
+	 *
+	 * @param world The world with countries and the country graph.
+	 *
+	 */
+	public WorldTopology(World world) {
+		this.world = world;
+
+		Vector<Country> worldCountries = world.getCountries();
+		this.countries = worldCountries.toArray(new Country[worldCountries.size()]);
+		this.continentIndices = new int[this.countries.length];
+
+		Vector<Continent> foundContinents = new Vector<Continent>();
+		HashMap<Integer, Integer> foundContinentIndices = new HashMap<Integer, Integer>();
+
+		for (int i = 0; i < this.countries.length; i++) {
+			Continent continent = this.countries[i].getContinent();
+			Integer continentIndex = foundContinentIndices.get(continent.getId());
+
+			if (continentIndex == null) {
+				continentIndex = foundContinents.size();
+				foundContinentIndices.put(continent.getId(), continentIndex);
+				foundContinents.add(continent);
+			}
+			this.continentIndices[i] = continentIndex;
+		}
+
+		this.continents = foundContinents.toArray(new Continent[foundContinents.size()]);
+
+		// Group the country indices by continent.
+		int[] sizes = new int[this.continents.length];
+		for (int continentIndex : this.continentIndices) {
+			sizes[continentIndex]++;
+		}
+
+		this.continentCountries = new int[this.continents.length][];
+		for (int i = 0; i < this.continents.length; i++) {
+			this.continentCountries[i] = new int[sizes[i]];
+			sizes[i] = 0;
+		}
+
+		this.continentCountrySets = new BitSet[this.continents.length];
+		for (int i = 0; i < this.continents.length; i++) {
+			this.continentCountrySets[i] = new BitSet(this.countries.length);
+		}
+
+		for (int i = 0; i < this.countries.length; i++) {
+			int continentIndex = this.continentIndices[i];
+			this.continentCountries[continentIndex][sizes[continentIndex]++] = i;
+			this.continentCountrySets[continentIndex].set(i);
+		}
+	}
+
+	/**
+	 * Returns the world, which was used for creating the topology.
+	 * Note that the army counts of these countries are meaningless.
+	 * Use {@link #createWorld(GameState)} for the world of a running game.
+	 *
+	 * @return The world.
+	 *
+	 */
+	public World getWorld() {
+		return this.world;
+	}
+
+	/**
+	 * Returns the country count.
+	 *
+	 * @return The country count.
+	 *
+	 */
+	public int getCountryCount() {
+		return this.countries.length;
+	}
+
+	/**
+	 * Returns the country with the given index.
+	 *
+	 * @param index The country index.
+	 * @return The country.
+	 *
+	 */
+	public Country getCountry(int index) {
+		return this.countries[index];
+	}
+
+	/**
+	 * Returns all countries (ordered by index).
+	 *
+	 * @return A vector with all countries.
+	 *
+	 */
+	public Vector<Country> getCountries() {
+		Vector<Country> countries = new Vector<Country>(this.countries.length);
+
+		for (Country country : this.countries) {
+			countries.add(country);
+		}
+		return countries;
+	}
+
+	/**
+	 * Returns all countries, which belongs to the given continent.
+	 *
+	 * @param byContinent The continent.
+	 * @return A vector with the countries of the continent.
+	 *
+	 */
+	public Vector<Country> getCountries(Continent byContinent) {
+		Vector<Country> countries = new Vector<Country>();
+
+		for (int i = 0; i < this.continents.length; i++) {
+			if (this.continents[i].getId() == byContinent.getId()) {
+				for (int index : this.continentCountries[i]) {
+					countries.add(this.countries[index]);
+				}
+			}
+		}
+		return countries;
+	}
+
+	/**
+	 * Returns the index of the given country. Note that the
+	 * given country must have the country id, so it is possible
+	 * to pass a country object, which was transmitted by a client.
+	 *
+	 * @param country The country.
+	 * @return The country index or -1 if the country does not belong to this world.
+	 *
+	 */
+	public int getIndex(Country country) {
+		return this.world.getCountryIndex(country);
+	}
+
+	/**
+	 * Returns the index of the country with the given id.
+	 *
+	 * @param countryId The country id.
+	 * @return The country index or -1 if the country does not belong to this world.
+	 *
+	 */
+	public int getIndex(int countryId) {
+		return this.world.getCountryIndex(countryId);
+	}
+
+	/**
+	 * Returns the continent count.
+	 *
+	 * @return The continent count.
+	 *
+	 */
+	public int getContinentCount() {
+		return this.continents.length;
+	}
+
+	/**
+	 * Returns the continent with the given (continent) index.
+	 *
+	 * @param continentIndex The continent index.
+	 * @return The continent.
+	 *
+	 */
+	public Continent getContinent(int continentIndex) {
+		return this.continents[continentIndex];
+	}
+
+	/**
+	 * Returns all continents of the world.
+	 *
+	 * @return A vector with all continents.
+	 *
+	 */
+	public Vector<Continent> getContinents() {
+		Vector<Continent> continents = new Vector<Continent>(this.continents.length);
+
+		for (Continent continent : this.continents) {
+			continents.add(continent);
+		}
+		return continents;
+	}
+
+	/**
+	 * Returns the continent index of the given country.
+	 *
+	 * @param countryIndex The country index.
+	 * @return The continent index.
+	 *
+	 */
+	public int getContinentIndex(int countryIndex) {
+		return this.continentIndices[countryIndex];
+	}
+
+	/**
+	 * Returns the indices of all countries, which belongs
+	 * to the given continent. Do not modify the array!
+	 *
+	 * @param continentIndex The continent index.
+	 * @return The country indices.
+	 *
+	 */
+	public int[] getCountryIndices(int continentIndex) {
+		return this.continentCountries[continentIndex];
+	}
+
+	/**
+	 * Returns the indices of all countries, which belongs to the given
+	 * continent as bitset (see Player#hasCountries(BitSet)). Do not modify the bitset!
+	 *
+	 * @param continentIndex The continent index.
+	 * @return A bitset with the country indices.
+	 *
+	 */
+	public BitSet getCountrySet(int continentIndex) {
+		return this.continentCountrySets[continentIndex];
+	}
+
+	/**
+	 * Checks if the two countries are connected.
+	 *
+	 * @param one The first country index.
+	 * @param two The second country index.
+	 *
+	 * @return boolean
+	 *
+	 */
+	public boolean areNeighbours(int one, int two) {
+		return this.world.areNeighbours(this.countries[one], this.countries[two]);
+	}
+
+	/**
+	 * Creates a copy of the country with the given index
+	 * and the army counts of the given game state.
+	 *
+	 * @param index The country index.
+	 * @param state The game state.
+	 *
+	 * @return The country copy.
+	 *
+	 */
+	public Country createCountry(int index, GameState state) {
+		Country origin = this.countries[index];
+		Country country = new Country(origin.getId());
+
+		country.setToken(origin.getToken());
+		country.setName(origin.getName());
+		country.setColor(origin.getColor());
+		country.setContinent(origin.getContinent());
+		country.setWorldId(origin.getWorldId());
+		country.setAnchor(origin.getAnchor());
+		country.setBounds(origin.getBounds());
+
+		country.setArmyCount(state.getArmyCount(index));
+		country.setMovedArmyCount(state.getMovedArmyCount(index));
+
+		return country;
+	}
+
+	/**
+	 * Creates a world object, which represents the state of
+	 * a game. The world shares the country graph with this topology.
+	 * This world is what we transmit to the clients.
+	 *
+	 * @param state The game state (owners and army counts).
+	 *
+	 * @return The world object.
+	 *
+	 */
+	public World createWorld(GameState state) {
+		World world = new World();
+
+		world.setId(this.world.getId());
+		world.setToken(this.world.getToken());
+		world.setName(this.world.getName());
+		world.setDescription(this.world.getDescription());
+		world.setAuthor(this.world.getAuthor());
+		world.setVersion(this.world.getVersion());
+		world.setMap(this.world.getMap());
+		world.setMapUnderlay(this.world.getMapUnderlay());
+		world.setThumbnail(this.world.getThumbnail());
+		world.setCountryGraph(this.world.getCountryGraph());
+
+		for (int i = 0; i < this.countries.length; i++) {
+			world.addCountry(this.createCountry(i, state));
+		}
+
+		return world;
+	}
+}
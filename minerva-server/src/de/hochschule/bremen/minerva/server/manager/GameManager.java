@@ -0,0 +1,249 @@
+/*
+ * Minerva - Game, Copyright 2010 Christian Bollmann, Carina Strempel, André König
+ * Hochschule Bremen - University of Applied Sciences - All Rights Reserved.
+ *
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Contact:
+ *     Christian Bollmann: cbollmann@stud.hs-bremen.de
+ *     Carina Strempel: cstrempel@stud.hs-bremen.de
+ *     André König: akoenig@stud.hs-bremen.de
+ * 
+ * Web:
+ *     http://minerva.idira.de
+ * 
+ */
+package de.hochschule.bremen.minerva.server.manager;
+
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.hochschule.bremen.minerva.commons.exceptions.GameDoesNotExistException;
+import de.hochschule.bremen.minerva.commons.vo.GameInfo;
+import de.hochschule.bremen.minerva.commons.vo.Player;
+import de.hochschule.bremen.minerva.server.core.logic.Game;
+import de.hochschule.bremen.minerva.server.core.logic.WorldTopology;
+
+/**
+ * The game registry. Holds all game sessions, which are hosted
+ * by this server process, identified by the game id.<br />
+ * 
+ * The registry itself is lock free. Each game is synchronized on its own
+ * object, so that games never block each other.<br />
+ * 
+ * The (immutable) world topologies are shared between all games, which
+ * are running on the same world. So a world is loaded only once.
+ * 
+ * <br />
+ * Usage:
+ * 
+ * <pre>
+ * GameManager.getInstance().<theMethod>
+ * </pre>
+ * 
+ * @since 1.0
+ * @version $Id$
+ * 
+ */
+public class GameManager {
+
+	private static GameManager instance = null;
+
+	private ConcurrentHashMap<Integer, Game> games = new ConcurrentHashMap<Integer, Game>();
+
+	private AtomicInteger sequence = new AtomicInteger(0);
+
+	private ConcurrentHashMap<Integer, WorldTopology> topologies = new ConcurrentHashMap<Integer, WorldTopology>();
+
+	/**
+	 * Private singleton. See: GameManager#getInstance()
+	 * 
+	 */
+	private GameManager() {}
+
+	/**
+	 * The game manager is a singleton class. It is not
+	 * possible to create more than one instance.
+	 * 
+	 * @return The GameManager instance.
+	 * 
+	 */
+	public static synchronized GameManager getInstance() {
+		if (GameManager.instance == null) {
+			GameManager.instance = new GameManager();
+		}
+
+		return GameManager.instance;
+	}
+
+	/**
+	 * Creates a new, empty game and registers it.
+	 * 
+	 * @return The new game with a generated id.
+	 * 
+	 */
+	public Game create() {
+		Game game = new Game();
+		game.setId(this.sequence.incrementAndGet());
+
+		this.games.put(game.getId(), game);
+
+		return game;
+	}
+
+	/**
+	 * Returns the game by an given id.
+	 * 
+	 * @param id The game id.
+	 * @return The game.
+	 * 
+	 * @throws GameDoesNotExistException If there is no game with this id.
+	 * 
+	 */
+	public Game get(int id) throws GameDoesNotExistException {
+		Game game = this.games.get(id);
+
+		if (game == null) {
+			throw new GameDoesNotExistException(id);
+		}
+
+		return game;
+	}
+
+	/**
+	 * Returns a list with all registered games (lobby view).
+	 * 
+	 * @return A vector with the game descriptions.
+	 * 
+	 */
+	public Vector<GameInfo> getList() {
+		Vector<GameInfo> list = new Vector<GameInfo>();
+
+		for (Game game : this.games.values()) {
+			GameInfo info = new GameInfo();
+
+			synchronized (game) {
+				info.setId(game.getId());
+				info.setPlayerCount(game.getPlayerCount());
+				info.setRunning(game.isRunning());
+				
+				if (game.getTopology() != null) {
+					info.setWorldName(game.getTopology().getWorld().getName());
+				}
+
+				Player master = game.getMaster();
+				if (master != null) {
+					info.setMasterName(master.getUsername());
+				}
+			}
+
+			list.add(info);
+		}
+
+		return list;
+	}
+
+	/**
+	 * Removes the game from the registry. The topology of the game
+	 * will be removed as well, if no other game uses it.
+	 * 
+	 * @param game The game to remove.
+	 * 
+	 */
+	public void remove(Game game) {
+		if (!this.games.remove(game.getId(), game)) {
+			return;
+		}
+
+		WorldTopology topology;
+		synchronized (game) {
+			topology = game.getTopology();
+		}
+
+		if ((topology != null) && (!this.isUsed(topology))) {
+			this.topologies.remove(topology.getWorld().getId(), topology);
+		}
+	}
+
+	/**
+	 * Is the given game registered (e. g. not killed)?
+	 * 
+	 * @param game The game.
+	 * @return true/false
+	 * 
+	 */
+	public boolean contains(Game game) {
+		return this.games.get(game.getId()) == game;
+	}
+
+	/**
+	 * Returns the shared topology of the world with the given id.
+	 * 
+	 * @param worldId The world id.
+	 * @return The topology or null, if the world was not loaded before.
+	 * 
+	 */
+	public WorldTopology getTopology(int worldId) {
+		return this.topologies.get(worldId);
+	}
+
+	/**
+	 * Registers a world topology, so that other games are
+	 * able to share it. If another topology of the same world was
+	 * registered in the meantime, the registered one will be returned.
+	 * 
+	 * @param topology The topology to share.
+	 * @return The shared topology.
+	 * 
+	 */
+	public WorldTopology addTopology(WorldTopology topology) {
+		WorldTopology registered = this.topologies.putIfAbsent(topology.getWorld().getId(), topology);
+
+		return (registered == null) ? topology : registered;
+	}
+
+	/**
+	 * Removes the shared topology of the world with the given id
+	 * (e. g. after the world was stored again). Running games
+	 * keep their topology, new games will load the world again.
+	 * 
+	 * @param worldId The world id.
+	 * 
+	 */
+	public void removeTopology(int worldId) {
+		this.topologies.remove(worldId);
+	}
+
+	/**
+	 * Is the given topology used by a registered game?
+	 * 
+	 * @param topology The topology.
+	 * @return true/false
+	 * 
+	 */
+	private boolean isUsed(WorldTopology topology) {
+		for (Game game : this.games.values()) {
+			synchronized (game) {
+				if (game.getTopology() == topology) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * Minerva - Game, Copyright 2010 Christian Bollmann, Carina Strempel, André König
+ * Hochschule Bremen - University of Applied Sciences - All Rights Reserved.
+ *
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Contact:
+ *     Christian Bollmann: cbollmann@stud.hs-bremen.de
+ *     Carina Strempel: cstrempel@stud.hs-bremen.de
+ *     André König: akoenig@stud.hs-bremen.de
+ * 
+ * Web:
+ *     http://minerva.idira.de
+ * 
+ */
+package de.hochschule.bremen.minerva.server.manager;
+
+import java.awt.image.BufferedImage;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.hochschule.bremen.minerva.commons.util.HashTool;
+import de.hochschule.bremen.minerva.commons.util.MapTool;
+
+/**
+ * Cache for the world map assets (map image and map underlay).<br />
+ * 
+ * The original png files are read only once from the assets world
+ * directory. The bytes are delivered to the clients unchanged, so the
+ * server never has to encode a map image again. The md5 hash of the
+ * bytes identifies the asset on the client side (disk cache).
+ * 
+ * <br />
+ * Usage:
+ * 
+ * <pre>
+ * MapAssetManager.getInstance().<theMethod>
+ * </pre>
+ * 
+ * @since 1.0
+ * @version $Id$
+ * 
+ */
+public class MapAssetManager {
+
+	private static MapAssetManager instance = null;
+
+	private ConcurrentHashMap<String, byte[]> assets = new ConcurrentHashMap<String, byte[]>();
+
+	private ConcurrentHashMap<String, String> hashes = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * Private singleton. See: MapAssetManager#getInstance()
+	 * 
+	 */
+	private MapAssetManager() {}
+
+	/**
+	 * The map asset manager is a singleton class. It is not
+	 * possible to create more than one instance.
+	 * 
+	 * @return The MapAssetManager instance.
+	 * 
+	 */
+	public static synchronized MapAssetManager getInstance() {
+		if (MapAssetManager.instance == null) {
+			MapAssetManager.instance = new MapAssetManager();
+		}
+
+		return MapAssetManager.instance;
+	}
+
+	/**
+	 * Returns the original bytes of the given map asset.
+	 * The file will be read from the assets world directory
+	 * on the first request.
+	 * 
+	 * @param filename The asset filename (e.g. world.getMap()).
+	 * @return The png encoded map image.
+	 * 
+	 * @throws IOException If the asset is not readable.
+	 * 
+	 */
+	public byte[] getBytes(String filename) throws IOException {
+		byte[] bytes = this.assets.get(filename);
+
+		if (bytes == null) {
+			bytes = this.read(filename);
+
+			byte[] cached = this.assets.putIfAbsent(filename, bytes);
+			if (cached != null) {
+				bytes = cached;
+			} else {
+				this.hashes.put(filename, HashTool.md5(bytes));
+			}
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * Returns the md5 hash of the given map asset content.
+	 * 
+	 * @param filename The asset filename (e.g. world.getMap()).
+	 * @return The md5 hash (32 characters).
+	 * 
+	 * @throws IOException If the asset is not readable.
+	 * 
+	 */
+	public String getHash(String filename) throws IOException {
+		String hash = this.hashes.get(filename);
+
+		if (hash == null) {
+			hash = HashTool.md5(this.getBytes(filename));
+			this.hashes.putIfAbsent(filename, hash);
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Decodes the given map asset from the cached bytes.
+	 * 
+	 * @param filename The asset filename (e.g. world.getMap()).
+	 * @return The decoded map image.
+	 * 
+	 * @throws IOException If the asset is not readable.
+	 * 
+	 */
+	public BufferedImage getImage(String filename) throws IOException {
+		return MapTool.fromBytes(this.getBytes(filename));
+	}
+
+	/**
+	 * Removes the given map asset from the cache.
+	 * 
+	 * @param filename The asset filename.
+	 * 
+	 */
+	public void release(String filename) {
+		this.assets.remove(filename);
+		this.hashes.remove(filename);
+	}
+
+	/**
+	 * Reads the complete asset file from the assets world directory.
+	 * 
+	 * @param filename The asset filename.
+	 * @return The file content.
+	 * 
+	 * @throws IOException
+	 * 
+	 */
+	private byte[] read(String filename) throws IOException {
+		if (filename == null || filename.contains("/") || filename.contains("\\") || filename.contains("..")) {
+			throw new IOException("Ungültiger Dateiname für die Weltkarte: '" + filename + "'.");
+		}
+
+		File file = new File(ApplicationConfigurationManager.get().getAssetsWorldDirectory() + filename);
+
+		if (file.length() > Integer.MAX_VALUE) {
+			throw new IOException("Die Weltkarte '" + filename + "' ist zu groß.");
+		}
+
+		byte[] bytes = new byte[(int)file.length()];
+		DataInputStream stream = new DataInputStream(new FileInputStream(file));
+		try {
+			stream.readFully(bytes);
+		} finally {
+			stream.close();
+		}
+
+		return bytes;
+	}
+}
@@ -0,0 +1,221 @@
+/*
+ * Minerva - Game, Copyright 2010 Christian Bollmann, Carina Strempel, André König
+ * Hochschule Bremen - University of Applied Sciences - All Rights Reserved.
+ *
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Contact:
+ *     Christian Bollmann: cbollmann@stud.hs-bremen.de
+ *     Carina Strempel: cstrempel@stud.hs-bremen.de
+ *     André König: akoenig@stud.hs-bremen.de
+ * 
+ * Web:
+ *     http://minerva.idira.de
+ * 
+ */
+package de.hochschule.bremen.minerva.server.manager;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import de.hochschule.bremen.minerva.commons.vo.World;
+
+/**
+ * A bounded cache of completely loaded worlds, keyed by the world id.
+ * The worlds do not hold their decoded map images.<br />
+ * 
+ * The cache size is limited by the estimated memory weight of
+ * the worlds. If the limit is exceeded, the least recently used
+ * worlds will be evicted.<br />
+ * 
+ * The cached worlds are shared between all callers. They must not
+ * be modified after they were added to the cache.<br />
+ * 
+ * Each removal increases the generation of the cache. A caller, which
+ * loads a missing world, reads the generation before loading and puts
+ * the world only if no world was removed in the meantime. So a world,
+ * which was loaded before it was stored again, never gets cached.
+ * Worlds are stored very rarely, so one generation for all worlds
+ * is sufficient.
+ * 
+ * @since 1.0
+ * @version $Id$
+ *
+ */
+class WorldCache {
+
+	// Estimated weight of a world and of one country
+	// (value object, continent reference, graph edges).
+	private static final long WORLD_WEIGHT = 1024;
+	private static final long COUNTRY_WEIGHT = 512;
+
+	private final long maxWeight;
+
+	private long weight = 0;
+
+	private long generation = 0;
+
+	private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<Integer, Entry>(16, 0.75f, true);
+
+	/**
+	 * Creates an empty cache.
+	 * 
+	 * @param maxWeight The maximum weight (estimated bytes) of all cached worlds.
+	 * 
+	 */
+	WorldCache(long maxWeight) {
+		this.maxWeight = maxWeight;
+	}
+
+	/**
+	 * Returns the cached world with the given id and marks
+	 * it as recently used.
+	 * 
+	 * @param worldId The world id.
+	 * @return The world or null, if the world is not cached.
+	 * 
+	 */
+	synchronized World get(int worldId) {
+		Entry entry = this.entries.get(worldId);
+		return (entry == null) ? null : entry.world;
+	}
+
+	/**
+	 * Returns the generation of the cache. Read it before
+	 * loading a world (see {@link #put(World, long)}).
+	 * 
+	 * @return The generation.
+	 * 
+	 */
+	synchronized long getGeneration() {
+		return this.generation;
+	}
+
+	/**
+	 * Adds the given (loaded) world to the cache, if no world was removed
+	 * since the given generation. The least recently used worlds will be
+	 * evicted, until the weight limit is kept. A world which is heavier
+	 * than the complete cache won't be cached.
+	 * 
+	 * @param world The completely loaded world.
+	 * @param generation The generation, which was read before the world was loaded.
+	 * @return true, if the world was cached.
+	 * 
+	 */
+	synchronized boolean put(World world, long generation) {
+		if (generation != this.generation) {
+			return false;
+		}
+
+		this.evict(world.getId());
+
+		long worldWeight = WorldCache.weigh(world);
+		if (worldWeight > this.maxWeight) {
+			return false;
+		}
+
+		this.entries.put(world.getId(), new Entry(world, worldWeight));
+		this.weight += worldWeight;
+
+		Iterator<Entry> eldest = this.entries.values().iterator();
+		while (this.weight > this.maxWeight) {
+			Entry entry = eldest.next();
+			eldest.remove();
+			this.weight -= entry.weight;
+		}
+		return true;
+	}
+
+	/**
+	 * Replaces the cached world by the given one (e. g. after the
+	 * countries were located), if the cached world is still the
+	 * expected one.
+	 * 
+	 * @param expected The world, which should be replaced.
+	 * @param world The replacement (with the same id).
+	 * @return true, if the world was replaced.
+	 * 
+	 */
+	synchronized boolean replace(World expected, World world) {
+		Entry entry = this.entries.get(world.getId());
+
+		if ((entry == null) || (entry.world != expected)) {
+			return false;
+		}
+		return this.put(world, this.generation);
+	}
+
+	/**
+	 * Removes the world with the given id from the cache (e. g. it was
+	 * stored) and increases the generation, so that worlds which are
+	 * loading at the moment won't be cached.
+	 * 
+	 * @param worldId The world id.
+	 * 
+	 */
+	synchronized void remove(int worldId) {
+		this.generation++;
+		this.evict(worldId);
+	}
+
+	/**
+	 * Drops the world with the given id from the cache.
+	 * 
+	 * @param worldId The world id.
+	 * 
+	 */
+	private void evict(int worldId) {
+		Entry entry = this.entries.remove(worldId);
+
+		if (entry != null) {
+			this.weight -= entry.weight;
+		}
+	}
+
+	/**
+	 * Estimates the memory weight of the given world.
+	 * 
+	 * @param world The world.
+	 * @return The estimated weight in bytes.
+	 * 
+	 */
+	private static long weigh(World world) {
+		long weight = WORLD_WEIGHT;
+
+		if (world.getCountries() != null) {
+			weight += world.getCountries().size() * COUNTRY_WEIGHT;
+		}
+
+		return weight;
+	}
+
+	/**
+	 * A cached world and its weight.
+	 * 
+	 */
+	private static class Entry {
+
+		private final World world;
+
+		private final long weight;
+
+		private Entry(World world, long weight) {
+			this.world = world;
+			this.weight = weight;
+		}
+	}
+}
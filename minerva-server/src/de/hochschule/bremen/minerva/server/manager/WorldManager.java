@@ -30,7 +30,11 @@
 
 package de.hochschule.bremen.minerva.server.manager;
 
+import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Vector;
 
 import de.hochschule.bremen.minerva.commons.exceptions.DataAccessException;
@@ -39,11 +43,12 @@ import de.hochschule.bremen.minerva.commons.exceptions.WorldFileExtensionExcepti
 import de.hochschule.bremen.minerva.commons.exceptions.WorldFileNotFoundException;
 import de.hochschule.bremen.minerva.commons.exceptions.WorldFileParseException;
 import de.hochschule.bremen.minerva.commons.exceptions.WorldNotStorable;
+import de.hochschule.bremen.minerva.commons.util.MapTool;
+import de.hochschule.bremen.minerva.commons.vo.Continent;
 import de.hochschule.bremen.minerva.commons.vo.Country;
 import de.hochschule.bremen.minerva.commons.vo.Neighbour;
 import de.hochschule.bremen.minerva.commons.vo.World;
 import de.hochschule.bremen.minerva.server.persistence.exceptions.ContinentExistsException;
-import de.hochschule.bremen.minerva.server.persistence.exceptions.ContinentNotFoundException;
 import de.hochschule.bremen.minerva.server.persistence.exceptions.CountryExistsException;
 import de.hochschule.bremen.minerva.server.persistence.exceptions.NeighbourExistsException;
 import de.hochschule.bremen.minerva.server.persistence.exceptions.PersistenceException;
@@ -52,6 +57,7 @@ import de.hochschule.bremen.minerva.server.persistence.exceptions.WorldNotFoundE
 import de.hochschule.bremen.minerva.server.persistence.service.ContinentService;
 import de.hochschule.bremen.minerva.server.persistence.service.CountryService;
 import de.hochschule.bremen.minerva.server.persistence.service.NeighbourService;
+import de.hochschule.bremen.minerva.server.persistence.service.PersistenceService;
 import de.hochschule.bremen.minerva.server.persistence.service.WorldService;
 import de.hochschule.bremen.minerva.server.util.WorldFile;
 import de.hochschule.bremen.minerva.server.vo.ApplicationConfiguration;
@@ -71,7 +77,12 @@ import de.hochschule.bremen.minerva.server.vo.ApplicationConfiguration;
  * </pre>
  *
  * Note that some methods use the {@link ApplicationConfigurationManager}.
- * Read the class documentation for further usage notes.
+ * Read the class documentation for further usage notes.<br />
+ *
+ * The completely loaded worlds are cached in memory (without their decoded
+ * map images). Worlds almost never change after their import, so the cache
+ * is only invalidated, if a world is stored. The cached worlds are shared,
+ * so they must not be modified by the callers.
  *
  * @since 1.0
  * @version $Id: WorldManager.java 786 2010-07-05 22:59:22Z andre.koenig $
@@ -79,8 +90,13 @@ import de.hochschule.bremen.minerva.server.vo.ApplicationConfiguration;
  */
 public class WorldManager {
 
+	// The maximum weight (estimated bytes) of the cached worlds.
+	private static final long CACHE_MAX_WEIGHT = 8L * 1024 * 1024;
+
 	private static WorldManager instance = null;
 
+	private WorldCache cache = new WorldCache(CACHE_MAX_WEIGHT);
+
 	/**
 	 * Private singleton. See: WorldManager#getInstance()
 	 * 
@@ -94,7 +110,7 @@ public class WorldManager {
 	 * @return The WorldManager instance.
 	 * 
 	 */
-	public static WorldManager getInstance() {
+	public static synchronized WorldManager getInstance() {
 		if (WorldManager.instance == null) {
 			WorldManager.instance = new WorldManager();
 		}
@@ -161,42 +177,23 @@ public class WorldManager {
 			throw new DataAccessException(e.getMessage());
 		}
 
-		try {
-			WorldService.getInstance().save(world);
+		boolean committed = false;
+		this.beginTransaction();
 
-			for (Country country : world.getCountries()) {
-				ContinentService.getInstance().save(country.getContinent());
-			
-				country.setWorldId(world.getId());
-				CountryService.getInstance().save(country);
-			}
+		try {
+			this.save(world);
 
 			if (dependencyStorage) {
-				for (Country country : world.getCountries()) {				
-					if (world.hasNeighbours(country)) {
-						Vector<Country> neighbours = world.getNeighbours(country);
-
-						for (Country neighbour : neighbours) {
-							Neighbour neighbourMapping = new Neighbour();
-							neighbourMapping.setId(neighbour.getId());
-							neighbourMapping.getReference().setId(country.getId());
-							NeighbourService.getInstance().save(neighbourMapping);
-						}
-					}
-				}
+				this.saveNeighbours(world);
 			}
-		} catch (CountryExistsException e) {
-			throw new WorldNotStorable(e.getMessage());
-		} catch (ContinentExistsException e) {
-			throw new WorldNotStorable(e.getMessage());
-		} catch (NeighbourExistsException e) {
-			throw new WorldNotStorable(e.getMessage());
-		} catch (WorldExistsException e) {
-			throw new WorldNotStorable(e.getMessage());
-		} catch (PersistenceException e) {
-			throw new DataAccessException(e.getMessage());
+
+			this.commitTransaction();
+			committed = true;
 		} finally {
-			// TODO: Implement a rollback method.
+			if (!committed) {
+				this.rollbackTransaction();
+			}
+			this.invalidate(world);
 		}
 	}
 
@@ -205,6 +202,8 @@ public class WorldManager {
 	 * This file contains the world data and was generated by
 	 * an external tool which is able to create playable minerva worlds.<br />
 	 * 
+	 * The import is one transaction. If it fails, nothing will be stored.
+	 * 
 	 * @param File The world import file (*.world)
 	 *
 	 * @throws WorldFileExtensionException Wrong file extension. 
@@ -221,13 +220,34 @@ public class WorldManager {
 		WorldFile world = new WorldFile(worldFile, appConfig.getAssetsWorldDirectory());
 
 		world.parse();
-		this.store(world);
 
-		world.createCountryDependencies();
-		this.store(world);
+		// The complete import is one transaction. The country ids
+		// are generated while saving the countries, so the country
+		// dependencies can be created within the same transaction.
+		boolean committed = false;
+		this.beginTransaction();
+
+		try {
+			this.save(world);
+
+			world.createCountryDependencies();
+			this.saveNeighbours(world);
+
+			this.commitTransaction();
+			committed = true;
+		} finally {
+			if (!committed) {
+				this.rollbackTransaction();
+			}
+			this.invalidate(world);
+		}
 
 		world.moveAssets();
 		world.clean();
+
+		// The map assets could be overwritten by the import.
+		MapAssetManager.getInstance().release(world.getMap());
+		MapAssetManager.getInstance().release(world.getMapUnderlay());
 	}
 
 	/**
@@ -240,11 +260,32 @@ public class WorldManager {
 	 */
 	public Vector<World> getList() throws DataAccessException {
 		Vector<World> worlds;
+		long generation = this.cache.getGeneration();
+
 		try {
 			worlds = WorldService.getInstance().findAll();
 
-			for (World world : worlds) {
-				this.loadDependencies(world);
+			// Replace the cached worlds and load the missing ones.
+			Vector<World> missing = new Vector<World>();
+			for (int i = 0; i < worlds.size(); i++) {
+				World cached = this.cache.get(worlds.get(i).getId());
+
+				if (cached == null) {
+					missing.add(worlds.get(i));
+				} else {
+					worlds.set(i, cached);
+				}
+			}
+
+			if (!missing.isEmpty()) {
+				this.loadDependencies(missing,
+					CountryService.getInstance().findAll(),
+					NeighbourService.getInstance().findAll()
+				);
+
+				for (World world : missing) {
+					this.cache.put(world, generation);
+				}
 			}
 		} catch (PersistenceException e) {
 			throw new DataAccessException(e.getMessage());
@@ -312,10 +353,17 @@ public class WorldManager {
 	 * 
 	 */
 	public World get(World world) throws WorldDoesNotExistException, DataAccessException {
-		
+		World cached = this.cache.get(world.getId());
+		if (cached != null) {
+			return cached;
+		}
+
+		long generation = this.cache.getGeneration();
+
 		try {
 			world = WorldService.getInstance().find(world.getId());
 			this.loadDependencies(world);
+			this.cache.put(world, generation);
 
 			return world;
 		} catch (WorldNotFoundException e) {
@@ -325,6 +373,206 @@ public class WorldManager {
 		}
 	}
 
+	/**
+	 * Loads a world, which is ready to play. This means that all
+	 * countries have their anchors on the map. The world is shared
+	 * (see: world cache), so it must not be modified.<br />
+	 * 
+	 * The countries of a world, which was imported before the importer
+	 * calculated the country geometry, will be located on a copy of the
+	 * cached world. The copy replaces the cached world, so the map images
+	 * are decoded only once. The decoded images are not kept.
+	 * 
+	 * @param id The world id.
+	 * @return The world with the country geometry.
+	 * 
+	 * @throws WorldDoesNotExistException If the world wasn't found.
+	 * @throws DataAccessException Common data access exception (e. g. the map images are not readable).
+	 * 
+	 */
+	public World getPlayable(int id) throws WorldDoesNotExistException, DataAccessException {
+		World world = this.get(id);
+
+		if (this.hasCountryGeometry(world)) {
+			return world;
+		}
+
+		synchronized (world) {
+			// The countries were located by another thread in the meantime.
+			World cached = this.cache.get(id);
+			if ((cached != null) && (cached != world) && this.hasCountryGeometry(cached)) {
+				return cached;
+			}
+
+			BufferedImage map = null;
+			BufferedImage mapUnderlay = null;
+
+			try {
+				map = MapAssetManager.getInstance().getImage(world.getMap());
+				mapUnderlay = MapAssetManager.getInstance().getImage(world.getMapUnderlay());
+			} catch (IOException e) {
+				throw new DataAccessException("Die Weltkarte der Welt '" + world.getName() + "' konnte nicht geladen werden. Grund: " + e.getMessage());
+			}
+
+			World located = world.copy();
+			MapTool.locateCountries(map, mapUnderlay, located.getCountries());
+
+			this.cache.replace(world, located);
+
+			return located;
+		}
+	}
+
+	/**
+	 * Saves the world, its continents and its countries (without the
+	 * country dependencies). The continents and countries will be saved
+	 * in batches. After that, all value objects have their generated ids.
+	 * 
+	 * @param world The world, which should be saved.
+	 * 
+	 * @throws WorldNotStorable If the world, a continent or a country exists already.
+	 * @throws DataAccessException Common data access exception.
+	 * 
+	 */
+	private void save(World world) throws WorldNotStorable, DataAccessException {
+		try {
+			WorldService.getInstance().save(world);
+
+			// Each continent only once (the countries share the continent objects).
+			Vector<Continent> continents = new Vector<Continent>();
+			IdentityHashMap<Continent, Boolean> knownContinents = new IdentityHashMap<Continent, Boolean>();
+
+			for (Country country : world.getCountries()) {
+				if (knownContinents.put(country.getContinent(), Boolean.TRUE) == null) {
+					continents.add(country.getContinent());
+				}
+				country.setWorldId(world.getId());
+			}
+
+			ContinentService.getInstance().saveAll(continents);
+			CountryService.getInstance().saveAll(world.getCountries());
+
+			// The countries have new ids now.
+			world.invalidateCountryIndices();
+		} catch (CountryExistsException e) {
+			throw new WorldNotStorable(e.getMessage());
+		} catch (ContinentExistsException e) {
+			throw new WorldNotStorable(e.getMessage());
+		} catch (WorldExistsException e) {
+			throw new WorldNotStorable(e.getMessage());
+		} catch (PersistenceException e) {
+			throw new DataAccessException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Saves the country dependencies (neighbour relations) of
+	 * the given world in one batch. The countries must have
+	 * their generated ids.
+	 * 
+	 * @param world The world with the country dependencies.
+	 * 
+	 * @throws WorldNotStorable If a neighbour relation exists already.
+	 * @throws DataAccessException Common data access exception.
+	 * 
+	 */
+	private void saveNeighbours(World world) throws WorldNotStorable, DataAccessException {
+		Vector<Neighbour> neighbourMappings = new Vector<Neighbour>();
+
+		for (Country country : world.getCountries()) {
+			if (world.hasNeighbours(country)) {
+				Vector<Country> neighbours = world.getNeighbours(country);
+
+				for (Country neighbour : neighbours) {
+					Neighbour neighbourMapping = new Neighbour();
+					neighbourMapping.setId(neighbour.getId());
+					neighbourMapping.getReference().setId(country.getId());
+					neighbourMappings.add(neighbourMapping);
+				}
+			}
+		}
+
+		try {
+			NeighbourService.getInstance().saveAll(neighbourMappings);
+		} catch (NeighbourExistsException e) {
+			throw new WorldNotStorable(e.getMessage());
+		} catch (PersistenceException e) {
+			throw new DataAccessException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Starts a persistence transaction for the current thread.
+	 * 
+	 * @throws DataAccessException If the transaction could not be started.
+	 * 
+	 */
+	private void beginTransaction() throws DataAccessException {
+		try {
+			PersistenceService.beginTransaction();
+		} catch (PersistenceException e) {
+			throw new DataAccessException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Commits the persistence transaction of the current thread.
+	 * 
+	 * @throws DataAccessException If the commit fails (the transaction was rolled back).
+	 * 
+	 */
+	private void commitTransaction() throws DataAccessException {
+		try {
+			PersistenceService.commitTransaction();
+		} catch (PersistenceException e) {
+			throw new DataAccessException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Rolls the persistence transaction of the current thread back.
+	 * A failed rollback will be ignored, because it happens while
+	 * an other exception is thrown (which is more important).
+	 * 
+	 */
+	private void rollbackTransaction() {
+		try {
+			PersistenceService.rollbackTransaction();
+		} catch (PersistenceException e) {
+			// The original exception will be thrown.
+		}
+	}
+
+	/**
+	 * Removes the given world from the world cache and the shared
+	 * topologies, so that the next request loads the stored version.
+	 * 
+	 * @param world The stored world.
+	 * 
+	 */
+	private void invalidate(World world) {
+		this.cache.remove(world.getId());
+		GameManager.getInstance().removeTopology(world.getId());
+	}
+
+	/**
+	 * Checks if the country geometry of the given world was calculated
+	 * by the importer. A country, which is not on the map, has no anchor
+	 * nevertheless, so one anchor is enough.
+	 * 
+	 * @param world The world with its countries.
+	 * @return true, if the anchors are available.
+	 * 
+	 */
+	private boolean hasCountryGeometry(World world) {
+		for (Country country : world.getCountries()) {
+			if (country.getAnchor() != null) {
+				return true;
+			}
+		}
+		return world.getCountries().isEmpty();
+	}
+
 	/**
 	 * Load country dependencies for a given world
 	 * from the persistence layer.
@@ -335,26 +583,81 @@ public class WorldManager {
 	 */
 	private void loadDependencies(World world) throws DataAccessException {
 		try {
-			Vector<Country> countries = CountryService.getInstance().findAll(world);
-			
-			for (Country country : countries) {
-				try {
-					country.setContinent(ContinentService.getInstance().find(country.getContinent().getId()));
-				} catch (ContinentNotFoundException e) {
-					// It is a big problem, if a continent wasn't found.
-					// Means, that the data model, which the persistence layer delivers,
-					// is not consistent anymore. So we wrap the ContinentNotFoundException
-					// into an DataAccessException.
-					throw new PersistenceException(e.getMessage());
-				}
-	
-				for (Neighbour neighbour : NeighbourService.getInstance().loadAll(country)) {
-					world.connectCountries(country, neighbour);
-				}
+			Vector<World> worlds = new Vector<World>(1);
+			worlds.add(world);
+
+			this.loadDependencies(worlds,
+				CountryService.getInstance().findAll(world),
+				NeighbourService.getInstance().loadAll(world)
+			);
+		} catch (PersistenceException e) {
+			throw new DataAccessException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Assembles the country dependencies of the given worlds in memory.
+	 * The countries and neighbour relations were read with set-based
+	 * queries (one query per type, instead of one query per country),
+	 * the continents will be read with one additional query.
+	 * 
+	 * Countries and neighbour relations which does not belong
+	 * to one of the given worlds will be ignored.
+	 * 
+	 * @param worlds The worlds for which we should assemble the country dependencies.
+	 * @param countries The countries of the worlds.
+	 * @param neighbours The neighbour relations of the countries (reference = source country).
+	 * 
+	 * @throws DataAccessException If a continent wasn't found or on common data access problems.
+	 * 
+	 */
+	private void loadDependencies(Vector<World> worlds, Vector<Country> countries, Vector<Neighbour> neighbours) throws DataAccessException {
+		HashMap<Integer, Continent> continents = new HashMap<Integer, Continent>();
+		try {
+			for (Continent continent : ContinentService.getInstance().findAll()) {
+				continents.put(continent.getId(), continent);
 			}
-			world.setCountries(countries);
 		} catch (PersistenceException e) {
 			throw new DataAccessException(e.getMessage());
 		}
+
+		HashMap<Integer, World> worldsById = new HashMap<Integer, World>(worlds.size() * 2);
+		HashMap<Integer, Vector<Country>> countriesByWorld = new HashMap<Integer, Vector<Country>>(worlds.size() * 2);
+		for (World world : worlds) {
+			worldsById.put(world.getId(), world);
+			countriesByWorld.put(world.getId(), new Vector<Country>());
+		}
+
+		HashMap<Integer, Country> countriesById = new HashMap<Integer, Country>(countries.size() * 2);
+		for (Country country : countries) {
+			Vector<Country> worldCountries = countriesByWorld.get(country.getWorldId());
+			if (worldCountries == null) {
+				continue;
+			}
+
+			Continent continent = continents.get(country.getContinent().getId());
+			if (continent == null) {
+				// It is a big problem, if a continent wasn't found.
+				// Means, that the data model, which the persistence layer delivers,
+				// is not consistent anymore.
+				throw new DataAccessException("Der Kontinent mit der ID '"+country.getContinent().getId()
+						+"' (Land: '"+country.getName()+"') existiert nicht.");
+			}
+			country.setContinent(continent);
+
+			worldCountries.add(country);
+			countriesById.put(country.getId(), country);
+		}
+
+		for (Neighbour neighbour : neighbours) {
+			Country country = countriesById.get(neighbour.getReference().getId());
+			if (country != null) {
+				worldsById.get(country.getWorldId()).connectCountries(country, neighbour);
+			}
+		}
+
+		for (World world : worlds) {
+			world.setCountries(countriesByWorld.get(world.getId()));
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,319 @@
+/*
+ * Minerva - Game, Copyright 2010 Christian Bollmann, Carina Strempel, André König
+ * Hochschule Bremen - University of Applied Sciences - All Rights Reserved.
+ *
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Contact:
+ *     Christian Bollmann: cbollmann@stud.hs-bremen.de
+ *     Carina Strempel: cstrempel@stud.hs-bremen.de
+ *     André König: akoenig@stud.hs-bremen.de
+ * 
+ * Web:
+ *     http://minerva.idira.de
+ * 
+ */
+package de.hochschule.bremen.minerva.server.net;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.hochschule.bremen.minerva.commons.net.ClientExecutables;
+import de.hochschule.bremen.minerva.commons.vo.GameStateDelta;
+import de.hochschule.bremen.minerva.commons.vo.Player;
+import de.hochschule.bremen.minerva.server.core.logic.Game;
+import de.hochschule.bremen.minerva.server.util.ConsoleLogger;
+
+/**
+ * Delivers the client notifications asynchronously, so that a slow
+ * or dead client never blocks the acting player or the other clients.<br />
+ * 
+ * Each client has its own outbox, which will be drained by a pooled
+ * thread. There is at most one pending and one running delivery per
+ * client, so a hanging client blocks only its own thread and never the
+ * deliveries to the other clients.
+ * A notification contains the changes of the game state since the
+ * version, which was delivered to the client before (see
+ * {@link GameStateDelta}). So a client, which falls behind, gets one
+ * delta with the latest state and not every intermediate one. Clients,
+ * which do not respond within the delivery timeout (or fail), will be
+ * evicted from their game. This also applies to released outboxes,
+ * whose last delivery is still running.
+ * 
+ * <br />
+ * Usage:
+ * 
+ * <pre>
+ * ClientNotifier.getInstance().<theMethod>
+ * </pre>
+ * 
+ * @since 1.0
+ * @version $Id$
+ * 
+ */
+public class ClientNotifier {
+
+	private static final ConsoleLogger LOGGER = ConsoleLogger.getLogger();
+
+	private static final long DELIVERY_TIMEOUT = 10000;
+
+	private static ClientNotifier instance = null;
+
+	private ExecutorService executor = null;
+
+	private ScheduledExecutorService watchdog = null;
+
+	private ConcurrentHashMap<Player, Outbox> outboxes = new ConcurrentHashMap<Player, Outbox>();
+
+	// The outboxes with a running delivery (including the released ones).
+	private Set<Outbox> deliveries = Collections.newSetFromMap(new ConcurrentHashMap<Outbox, Boolean>());
+
+	/**
+	 * Private singleton. See: ClientNotifier#getInstance()
+	 * 
+	 */
+	private ClientNotifier() {
+		ThreadFactory threadFactory = new ThreadFactory() {
+			private AtomicInteger count = new AtomicInteger(0);
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "minerva-notifier-" + this.count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+
+		// Unbounded, because a hanging client holds its thread until the call returns.
+		this.executor = Executors.newCachedThreadPool(threadFactory);
+
+		this.watchdog = Executors.newSingleThreadScheduledExecutor(threadFactory);
+		this.watchdog.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				ClientNotifier.this.evictUnresponsiveClients();
+			}
+		}, DELIVERY_TIMEOUT, DELIVERY_TIMEOUT / 2, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * The client notifier is a singleton class. It is not
+	 * possible to create more than one instance.
+	 * 
+	 * @return The ClientNotifier instance.
+	 * 
+	 */
+	public static synchronized ClientNotifier getInstance() {
+		if (ClientNotifier.instance == null) {
+			ClientNotifier.instance = new ClientNotifier();
+		}
+
+		return ClientNotifier.instance;
+	}
+
+	/**
+	 * Queues a "refreshGameState" notification for the given client and
+	 * returns immediately. If there is already a pending notification
+	 * for this client, the notifications will be coalesced.
+	 * 
+	 * @param game The game, which was changed.
+	 * @param player The player of the client.
+	 * @param client The client executables of the player.
+	 * @param registry The client map of the game. An unresponsive client will be removed from it.
+	 * 
+	 */
+	public void refreshGameState(Game game, Player player, ClientExecutables client, ConcurrentMap<Player, ClientExecutables> registry) {
+		Outbox outbox = this.outboxes.get(player);
+
+		if ((outbox == null) || (!outbox.isFor(game, client))) {
+			Outbox created = new Outbox(game, player, client, registry);
+			outbox = this.outboxes.putIfAbsent(player, created);
+
+			if ((outbox == null) || (!outbox.isFor(game, client))) {
+				this.outboxes.put(player, created);
+				outbox = created;
+			}
+		}
+
+		outbox.pending.set(true);
+		this.schedule(outbox);
+	}
+
+	/**
+	 * Releases the outbox of the given player (e. g. the game was killed).
+	 * Pending notifications will be delivered nevertheless and are still
+	 * watched by the delivery timeout.
+	 * 
+	 * @param player The player.
+	 * 
+	 */
+	public void release(Player player) {
+		this.outboxes.remove(player);
+	}
+
+	/**
+	 * Submits the drain task of the given outbox, if it is
+	 * not already queued or running.
+	 * 
+	 * @param outbox The outbox.
+	 * 
+	 */
+	private void schedule(Outbox outbox) {
+		if (outbox.scheduled.compareAndSet(false, true)) {
+			this.executor.execute(outbox);
+		}
+	}
+
+	/**
+	 * Evicts all clients, whose current delivery takes longer
+	 * than the delivery timeout.
+	 * 
+	 */
+	private void evictUnresponsiveClients() {
+		long now = System.currentTimeMillis();
+
+		for (Outbox outbox : this.deliveries) {
+			long started = outbox.deliveryStarted;
+
+			if ((started != 0) && ((now - started) > DELIVERY_TIMEOUT)) {
+				this.evict(outbox, "Zeitüberschreitung");
+
+				Thread worker = outbox.worker;
+				if (worker != null) {
+					worker.interrupt();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes the client of the given outbox from its game.
+	 * 
+	 * @param outbox The outbox.
+	 * @param reason The reason (for logging).
+	 * 
+	 */
+	private void evict(Outbox outbox, String reason) {
+		if (outbox.evicted.compareAndSet(false, true)) {
+			outbox.registry.remove(outbox.player, outbox.client);
+			this.outboxes.remove(outbox.player, outbox);
+
+			LOGGER.error("Der Client des Spielers '"+outbox.player.getUsername()+"' wurde entfernt ("+reason+").");
+		}
+	}
+
+	/**
+	 * The outbox of one client. The outbox itself is the drain task,
+	 * which delivers the pending notification.
+	 * 
+	 */
+	private class Outbox implements Runnable {
+
+		private final Game game;
+		private final Player player;
+		private final ClientExecutables client;
+		private final ConcurrentMap<Player, ClientExecutables> registry;
+
+		private final AtomicBoolean pending = new AtomicBoolean(false);
+		private final AtomicBoolean scheduled = new AtomicBoolean(false);
+		private final AtomicBoolean evicted = new AtomicBoolean(false);
+
+		// The version, which was delivered to the client (only accessed by the drain task).
+		private long deliveredVersion = GameStateDelta.NO_VERSION;
+
+		private volatile long deliveryStarted = 0;
+		private volatile Thread worker = null;
+
+		/**
+		 * Creates the outbox of a client.
+		 * 
+		 * @param game The game.
+		 * @param player The player.
+		 * @param client The client executables.
+		 * @param registry The client map of the game.
+		 * 
+		 */
+		private Outbox(Game game, Player player, ClientExecutables client, ConcurrentMap<Player, ClientExecutables> registry) {
+			this.game = game;
+			this.player = player;
+			this.client = client;
+			this.registry = registry;
+		}
+
+		/**
+		 * Is this the outbox of the given client in the given game?
+		 * 
+		 * @param game The game.
+		 * @param client The client executables.
+		 * @return boolean
+		 * 
+		 */
+		private boolean isFor(Game game, ClientExecutables client) {
+			return ((this.game == game) && (this.client == client));
+		}
+
+		/**
+		 * Delivers the pending notification. The changes will be determined
+		 * at delivery time, so this is always the latest state.
+		 * 
+		 */
+		@Override
+		public void run() {
+			this.worker = Thread.currentThread();
+
+			try {
+				while (!this.evicted.get() && this.pending.getAndSet(false)) {
+					GameStateDelta delta;
+					synchronized (this.game) {
+						delta = this.game.getChanges(this.deliveredVersion);
+					}
+
+					this.deliveryStarted = System.currentTimeMillis();
+					ClientNotifier.this.deliveries.add(this);
+					this.client.refreshGameState(delta);
+					ClientNotifier.this.deliveries.remove(this);
+					this.deliveryStarted = 0;
+
+					this.deliveredVersion = delta.getToVersion();
+				}
+			} catch (Exception e) {
+				ClientNotifier.this.evict(this, e.getMessage());
+			} finally {
+				ClientNotifier.this.deliveries.remove(this);
+				this.deliveryStarted = 0;
+				this.worker = null;
+				Thread.interrupted();
+
+				this.scheduled.set(false);
+
+				// Notifications, which arrived after the last delivery, need a new run.
+				if ((!this.evicted.get()) && (this.pending.get())) {
+					ClientNotifier.this.schedule(this);
+				}
+			}
+		}
+	}
+}
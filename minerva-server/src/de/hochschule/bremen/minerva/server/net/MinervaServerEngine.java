@@ -29,21 +29,20 @@
  */
 package de.hochschule.bremen.minerva.server.net;
 
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.net.UnknownHostException;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Vector;
-
-import javax.imageio.ImageIO;
+import java.util.concurrent.ConcurrentHashMap;
 
 import de.hochschule.bremen.minerva.commons.exceptions.CountriesNotInRelationException;
 import de.hochschule.bremen.minerva.commons.exceptions.CountryOwnerException;
 import de.hochschule.bremen.minerva.commons.exceptions.DataAccessException;
 import de.hochschule.bremen.minerva.commons.exceptions.GameAlreadyStartedException;
+import de.hochschule.bremen.minerva.commons.exceptions.GameDoesNotExistException;
 import de.hochschule.bremen.minerva.commons.exceptions.IsOwnCountryException;
 import de.hochschule.bremen.minerva.commons.exceptions.NoPlayerLoggedInException;
 import de.hochschule.bremen.minerva.commons.exceptions.NoPlayerSlotAvailableException;
@@ -52,6 +51,7 @@ import de.hochschule.bremen.minerva.commons.exceptions.NotEnoughPlayersLoggedInE
 import de.hochschule.bremen.minerva.commons.exceptions.PlayerAlreadyLoggedInException;
 import de.hochschule.bremen.minerva.commons.exceptions.PlayerDoesNotExistException;
 import de.hochschule.bremen.minerva.commons.exceptions.PlayerExistsException;
+import de.hochschule.bremen.minerva.commons.exceptions.WorldDoesNotExistException;
 import de.hochschule.bremen.minerva.commons.exceptions.WorldFileExtensionException;
 import de.hochschule.bremen.minerva.commons.exceptions.WorldFileNotFoundException;
 import de.hochschule.bremen.minerva.commons.exceptions.WorldFileParseException;
@@ -60,22 +60,27 @@ import de.hochschule.bremen.minerva.commons.exceptions.WorldNotStorable;
 import de.hochschule.bremen.minerva.commons.exceptions.WrongPasswordException;
 import de.hochschule.bremen.minerva.commons.net.ClientExecutables;
 import de.hochschule.bremen.minerva.commons.net.ServerExecutables;
-import de.hochschule.bremen.minerva.commons.util.MapTool;
 import de.hochschule.bremen.minerva.commons.vo.AttackResult;
 import de.hochschule.bremen.minerva.commons.vo.Country;
 import de.hochschule.bremen.minerva.commons.vo.CountryCard;
+import de.hochschule.bremen.minerva.commons.vo.GameCommand;
+import de.hochschule.bremen.minerva.commons.vo.GameCommandResult;
+import de.hochschule.bremen.minerva.commons.vo.GameInfo;
+import de.hochschule.bremen.minerva.commons.vo.GameSnapshot;
+import de.hochschule.bremen.minerva.commons.vo.GameStateDelta;
 import de.hochschule.bremen.minerva.commons.vo.Mission;
 import de.hochschule.bremen.minerva.commons.vo.Player;
 import de.hochschule.bremen.minerva.commons.vo.PlayerState;
 import de.hochschule.bremen.minerva.commons.vo.World;
 import de.hochschule.bremen.minerva.server.core.logic.Game;
 import de.hochschule.bremen.minerva.server.core.logic.Turn;
+import de.hochschule.bremen.minerva.server.core.logic.WorldTopology;
 import de.hochschule.bremen.minerva.server.manager.AccountManager;
-import de.hochschule.bremen.minerva.server.manager.ApplicationConfigurationManager;
+import de.hochschule.bremen.minerva.server.manager.GameManager;
+import de.hochschule.bremen.minerva.server.manager.MapAssetManager;
 import de.hochschule.bremen.minerva.server.manager.WorldManager;
 import de.hochschule.bremen.minerva.server.util.ConsoleLogger;
 import de.hochschule.bremen.minerva.server.util.WorldFile;
-import de.hochschule.bremen.minerva.server.vo.ApplicationConfiguration;
 import de.root1.simon.Registry;
 import de.root1.simon.Simon;
 import de.root1.simon.exceptions.NameBindingException;
@@ -88,6 +93,12 @@ import de.root1.simon.exceptions.SimonRemoteException;
  * 
  * This facade was the 'GameEngineLocal' in the "hotseat" version ;)
  *
+ * The engine, which is bound in the registry, is the lobby. Each login creates
+ * a new engine instance (the session of the logged in player). The session routes
+ * all game calls to the game the player has joined. Game calls are synchronized
+ * on the game object only, so that the server is able to host a lot of games
+ * in parallel.
+ *
  * @since 1.0
  * @version $Id: MinervaServerEngine.java 839 2010-08-07 19:50:36Z andre.koenig $
  * 
@@ -98,11 +109,17 @@ public class MinervaServerEngine implements ServerExecutables {
 
 	private static final ConsoleLogger LOGGER = ConsoleLogger.getLogger(); 
 
-	private Game game = new Game();
+	// The clients with whose client executables, grouped by the game id. The client executable
+	// interface provides the methods, which the server is able to execute on the client.
+	// Note that this map is shared between the lobby and all sessions.
+	private ConcurrentHashMap<Integer, ConcurrentHashMap<Player, ClientExecutables>> clients = null;
 
-	// The clients with whose client executables. The client executable interface
-	// provides the methods, which the server is able to execute on the client.
-	private HashMap<Player, ClientExecutables> clients = new HashMap<Player, ClientExecutables>();
+	// The session player and its client executables (null in the lobby).
+	private Player player = null;
+	private ClientExecutables clientExecutables = null;
+
+	// The game, which the session player has joined.
+	private Game game = null;
 
 	/**
 	 * Create the minerva server engine.
@@ -116,6 +133,8 @@ public class MinervaServerEngine implements ServerExecutables {
 	 *
 	 */
 	public MinervaServerEngine(String name, int port) throws UnknownHostException, IOException, NameBindingException, DataAccessException {
+		this.clients = new ConcurrentHashMap<Integer, ConcurrentHashMap<Player, ClientExecutables>>();
+
 		Registry registry = Simon.createRegistry(port);
 		registry.bind(name, this);
 		
@@ -123,44 +142,43 @@ public class MinervaServerEngine implements ServerExecutables {
 		AccountManager.getInstance().logout();
 	}
 
+	/**
+	 * Creates the session of a logged in player.
+	 *
+	 * @param clients The shared client map.
+	 * @param player The logged in player.
+	 * @param clientExecutables The methods, which the server is able to execute on the client.
+	 *
+	 */
+	private MinervaServerEngine(ConcurrentHashMap<Integer, ConcurrentHashMap<Player, ClientExecutables>> clients, Player player, ClientExecutables clientExecutables) {
+		this.clients = clients;
+		this.player = player;
+		this.clientExecutables = clientExecutables;
+	}
+
     /**
-     * Login a player into the current game
+     * Login a player and create the players session.
+     * Use {@link #createGame()} or {@link #joinGame(int)} on the
+     * returned session, for joining a game.
      *
      * @param player The player value object.
      * @param clientExecutables The methods, which the server is able to execute.
      *
+     * @return The session of the logged in player.
+     *
      * @throws SimonRemoteException
-     * @throws GameAlreadyStartedException It is not possible to login a player if the game is already running. 
+     * @throws PlayerAlreadyLoggedInException
      * @throws WrongPasswordException
      * @throws PlayerDoesNotExistException
-     * @throws NoPlayerSlotAvailableException
      * @throws DataAccessException
      * 
      */
 	@Override
-	public void login(Player player, ClientExecutables clientExecutables) throws SimonRemoteException, PlayerAlreadyLoggedInException, GameAlreadyStartedException, WrongPasswordException, PlayerDoesNotExistException, NoPlayerSlotAvailableException, DataAccessException {
+	public ServerExecutables login(Player player, ClientExecutables clientExecutables) throws SimonRemoteException, PlayerAlreadyLoggedInException, WrongPasswordException, PlayerDoesNotExistException, DataAccessException {
 		LOGGER.log("login(): login this player: "+player.toString());
 		AccountManager.getInstance().login(player);
 
-		// If the player count is 0
-		// We create a new game.
-		if (this.game.getPlayerCount() == 0) {
-			this.game = null;
-			player.setMaster(true);
-		}
-
-		player.setState(PlayerState.GAME_INIT);
-
-		if (this.game == null) {
-			this.game = new Game();
-		}
-
-		this.game.addPlayer(player);
-
-		// Put the new client in our central client map.
-		this.clients.put(player, clientExecutables);
-
-		this.notifyClients();
+		return new MinervaServerEngine(this.clients, player, clientExecutables);
 	}
 
     /**
@@ -219,6 +237,63 @@ public class MinervaServerEngine implements ServerExecutables {
 		return WorldManager.getInstance().getList(flatView);
 	}
 
+	/**
+	 * Creates a new game and adds the session player
+	 * as the gamemaster to it.
+	 *
+	 * @return The id of the new game.
+	 *
+	 * @throws SimonRemoteException
+	 *
+	 */
+	@Override
+	public int createGame() throws SimonRemoteException {
+		Game created = GameManager.getInstance().create();
+		LOGGER.log("createGame(): Created the game with the id: "+created.getId());
+
+		try {
+			this.join(created);
+		} catch (GameAlreadyStartedException e) {
+			// It is not possible, that the game was already started.
+			// We created it a few code lines before.
+		} catch (NoPlayerSlotAvailableException e) {
+			// It is not possible, that the new game is full.
+		}
+
+		return created.getId();
+	}
+
+	/**
+	 * Returns all games, which are hosted by this server.
+	 *
+	 * @return A vector with the game descriptions.
+	 *
+	 * @throws SimonRemoteException
+	 *
+	 */
+	@Override
+	public Vector<GameInfo> getGames() throws SimonRemoteException {
+		LOGGER.log("getGames()");
+		return GameManager.getInstance().getList();
+	}
+
+	/**
+	 * Adds the session player to the game with the given id.
+	 *
+	 * @param gameId The id of the game to join.
+	 *
+	 * @throws SimonRemoteException
+	 * @throws GameDoesNotExistException
+	 * @throws GameAlreadyStartedException It is not possible to join a game if the game is already running.
+	 * @throws NoPlayerSlotAvailableException
+	 *
+	 */
+	@Override
+	public void joinGame(int gameId) throws SimonRemoteException, GameDoesNotExistException, GameAlreadyStartedException, NoPlayerSlotAvailableException {
+		LOGGER.log("joinGame(): Join the game with the id: "+gameId);
+		this.join(GameManager.getInstance().get(gameId));
+	}
+
     /**
      * Starts the game session. Please verify, that
      * you have already defined all necessary data for starting a game.
@@ -232,10 +307,16 @@ public class MinervaServerEngine implements ServerExecutables {
 	@Override
 	public void startGame() throws SimonRemoteException, NotEnoughPlayersLoggedInException, NoPlayerLoggedInException, WorldNotDefinedException, DataAccessException {
 		LOGGER.log("startGame(): THE GAME WAS STARTED!");
-		for (Player player :this.game.getPlayers()) {
-			player.setState(PlayerState.IDLE);
+		Game game = this.getGame();
+		synchronized (game) {
+			for (Player player : game.getPlayers()) {
+				player.setState(PlayerState.IDLE);
+			}
+			game.start();
+
+			// Record the seed, so that it is possible to reproduce the random decisions.
+			LOGGER.log("startGame(): Game "+game.getId()+" uses the seed: "+game.getSeed());
 		}
-		this.game.start();
 		
 		this.notifyClients();
 	}
@@ -245,7 +326,10 @@ public class MinervaServerEngine implements ServerExecutables {
      * After executing this method it is possible to login new
      * players and start a new game session.
      *
-     * @param createNewOne Create a new game object after killing the old one?
+     * The game will be removed from the server. The sessions of the
+     * other players drop the killed game on their next call.
+     *
+     * @param createNewOne Not supported by the server, which hosts a lot of games. A new game has to be created with {@link #createGame()}.
      *
      * @throws SimonRemoteException
      * @throws DataAccessException
@@ -253,16 +337,39 @@ public class MinervaServerEngine implements ServerExecutables {
      */
 	@Override
 	public void killGame(boolean createNewOne) throws SimonRemoteException, DataAccessException {
+		Game game = this.getGame();
+		Vector<Player> players;
+
+		synchronized (game) {
+			game.kill();
+			players = new Vector<Player>(game.getPlayers());
+		}
+
 		// If there are players ...
-		if (this.game.getPlayerCount() > 0) {
-			AccountManager.getInstance().logout();
-		
-			if (createNewOne) {
-				this.game = new Game();
+		if (!players.isEmpty()) {
+			for (Player player : players) {
+				try {
+					AccountManager.getInstance().logout(player);
+				} catch (PlayerDoesNotExistException e) {
+					// It is not possible, that the player does not exist.
+					// The player was logged in before.
+				}
 			}
+
+			GameManager.getInstance().remove(game);
 			LOGGER.log("killGame(): THE GAME WAS KILLED! :o");
-			this.notifyClients();
+
+			// The last notification for the clients of the killed game.
+			ConcurrentHashMap<Player, ClientExecutables> gameClients = this.clients.remove(game.getId());
+			if (gameClients != null) {
+				for (Entry<Player, ClientExecutables> entry : gameClients.entrySet()) {
+					ClientNotifier.getInstance().refreshGameState(game, entry.getKey(), entry.getValue(), gameClients);
+					ClientNotifier.getInstance().release(entry.getKey());
+				}
+			}
 		}
+
+		this.game = null;
 	}
 
     /**
@@ -276,14 +383,24 @@ public class MinervaServerEngine implements ServerExecutables {
 	@Override
 	public void setGameWorld(World world) throws SimonRemoteException, DataAccessException {
 		LOGGER.log("setGameWorld(): Gamemaster defined the following world to play on: '"+world.getName()+"'");
-		
-		ApplicationConfiguration appConfig = ApplicationConfigurationManager.get();
-		String filepath = appConfig.getAssetsWorldDirectory();
 
-		world.setMapImage(this.convertMapImage(filepath + world.getMap()));
-		world.setMapUnderlayImage(this.convertMapImage(filepath + world.getMapUnderlay()));
+		// The world topology is shared between all games on this world.
+		WorldTopology topology = GameManager.getInstance().getTopology(world.getId());
+
+		// The world (with its country geometry) comes from the world cache.
+		if (topology == null) {
+			try {
+				World playable = WorldManager.getInstance().getPlayable(world.getId());
+				topology = GameManager.getInstance().addTopology(new WorldTopology(playable));
+			} catch (WorldDoesNotExistException e) {
+				throw new DataAccessException(e.getMessage());
+			}
+		}
 
-		this.game.setWorld(world);
+		Game game = this.getGame();
+		synchronized (game) {
+			game.setTopology(topology);
+		}
 	}
 
     /**
@@ -299,7 +416,11 @@ public class MinervaServerEngine implements ServerExecutables {
 	@Override
 	public World getGameWorld() throws SimonRemoteException {
 		LOGGER.log("getGameWorld(): The world was requested.");
-		return this.game.getWorld();
+		Game game = this.getGame();
+
+		synchronized (game) {
+			return game.getWorld();
+		}
 	}
 
     /**
@@ -313,7 +434,42 @@ public class MinervaServerEngine implements ServerExecutables {
 	@Override
 	public Vector<Player> getGamePlayers() throws SimonRemoteException {
 		LOGGER.log("getGamePlayers(): Requested logged in players.");
-		return this.game.getPlayers();
+		return this.getGame().getPlayers();
+	}
+
+    /**
+     * Returns a consistent snapshot of the game, so that the
+     * client is able to render the game with one call.
+     * 
+     * @return The snapshot.
+     *
+     * @throws SimonRemoteException
+     *
+     */
+	@Override
+	public GameSnapshot getGameSnapshot() throws SimonRemoteException {
+		Game game = this.getGame();
+		synchronized (game) {
+			return game.getSnapshot();
+		}
+	}
+
+    /**
+     * Returns the changes of the game state since the given version.
+     * Clients use this call for catching up, if they missed a notification.
+     * 
+     * @param sinceVersion The version of the clients state (GameStateDelta.NO_VERSION for the complete state).
+     * @return The changes.
+     *
+     * @throws SimonRemoteException
+     *
+     */
+	@Override
+	public GameStateDelta getGameChanges(long sinceVersion) throws SimonRemoteException {
+		Game game = this.getGame();
+		synchronized (game) {
+			return game.getChanges(sinceVersion);
+		}
 	}
 
 	/**
@@ -327,7 +483,7 @@ public class MinervaServerEngine implements ServerExecutables {
 	@Override
 	public Vector<Mission> getGameMissions() throws SimonRemoteException {
 		LOGGER.log("getGameMissions()");
-		return this.game.getMissions();
+		return this.getGame().getMissions();
 	}
 	
     /**
@@ -340,14 +496,23 @@ public class MinervaServerEngine implements ServerExecutables {
      */
 	@Override
 	public boolean isGameFinished() throws SimonRemoteException {
-		// Turn count 0 means, that a new game object was created
-		// in the killGame().
-		if (this.game.getTurnCount() == 0) {
-			LOGGER.log("isGameFinished(): Game finished? -> Yes :(");
+		// The game was killed by another player or it was removed after it finished (see killGame() and notifyClients()).
+		if (this.dropKilledGame()) {
+			LOGGER.log("isGameFinished(): Game finished? -> Yes, removed :(");
 			return true;
-		} else {
-			LOGGER.log("isGameFinished(): Game finished? -> " + ((this.game.isFinished()) ? "Yes :(" : "No :)"));			
-			return this.game.isFinished();
+		}
+
+		Game game = this.getGame();
+
+		synchronized (game) {
+			// Turn count 0 means, that the game was not started yet.
+			if (game.getTurnCount() == 0) {
+				LOGGER.log("isGameFinished(): Game finished? -> Yes :(");
+				return true;
+			} else {
+				LOGGER.log("isGameFinished(): Game finished? -> " + ((game.isFinished()) ? "Yes :(" : "No :)"));			
+				return game.isFinished();
+			}
 		}
 	}
 
@@ -359,11 +524,25 @@ public class MinervaServerEngine implements ServerExecutables {
      *
 	 */
 	@Override
-	public String getGameMapImage() throws IOException {
-		LOGGER.log("getGameMapImage(): Load the map image (world = '" + this.game.getWorld().getName() + "').");
-		
-		BufferedImage mapImage = this.game.getWorld().getMapImage();
-		return MapTool.toBase64(mapImage);
+	public byte[] getGameMapImage() throws IOException {
+		World world = this.getGame().getTopology().getWorld();
+		LOGGER.log("getGameMapImage(): Load the map image (world = '" + world.getName() + "').");
+
+		return MapAssetManager.getInstance().getBytes(world.getMap());
+	}
+
+	/**
+	 * Returns the md5 hash of the map from the current game world.
+	 * The client uses this hash as key for its map cache.
+	 *
+	 * @return The md5 hash of the map image bytes.
+	 * @throws IOException 
+	 *
+	 */
+	@Override
+	public String getGameMapImageHash() throws IOException {
+		World world = this.getGame().getTopology().getWorld();
+		return MapAssetManager.getInstance().getHash(world.getMap());
 	}
 
 	/**
@@ -376,11 +555,25 @@ public class MinervaServerEngine implements ServerExecutables {
      *
 	 */
 	@Override
-	public String getGameMapUnderlayImage() throws IOException {
-		LOGGER.log("getGameMapImage(): Load the map image underlay (world = '" + this.game.getWorld().getName() + "').");
+	public byte[] getGameMapUnderlayImage() throws IOException {
+		World world = this.getGame().getTopology().getWorld();
+		LOGGER.log("getGameMapImage(): Load the map image underlay (world = '" + world.getName() + "').");
 
-		BufferedImage mapImage = this.game.getWorld().getMapUnderlayImage();
-		return MapTool.toBase64(mapImage);
+		return MapAssetManager.getInstance().getBytes(world.getMapUnderlay());
+	}
+
+	/**
+	 * Returns the md5 hash of the map underlay from the current game world.
+	 * The client uses this hash as key for its map cache.
+	 *
+	 * @return The md5 hash of the map underlay image bytes.
+	 * @throws IOException 
+	 *
+	 */
+	@Override
+	public String getGameMapUnderlayImageHash() throws IOException {
+		World world = this.getGame().getTopology().getWorld();
+		return MapAssetManager.getInstance().getHash(world.getMapUnderlay());
 	}
 
     /**
@@ -393,8 +586,12 @@ public class MinervaServerEngine implements ServerExecutables {
      */
 	@Override
 	public Player getGameWinner() throws SimonRemoteException {
-		LOGGER.log("getGameWinner(): AND THE WINNER IS: " + ((this.game.isFinished()) ? this.game.getWinner().getUsername() : "nobody - Game is still running."));
-		return this.game.getWinner();
+		Game game = this.getGame();
+
+		synchronized (game) {
+			LOGGER.log("getGameWinner(): AND THE WINNER IS: " + ((game.isFinished()) ? game.getWinner().getUsername() : "nobody - Game is still running."));
+			return game.getWinner();
+		}
 	}
 
 	/**
@@ -402,7 +599,10 @@ public class MinervaServerEngine implements ServerExecutables {
 	 * @param state player state
 	 */
 	public void setCurrentPlayerState(PlayerState state) throws SimonRemoteException {
-		this.game.getCurrentTurn().getCurrentPlayer().setState(state);
+		Game game = this.getGame();
+		synchronized (game) {
+			game.getCurrentTurn().getCurrentPlayer().setState(state);
+		}
 		this.notifyClients();
 	}
 	
@@ -417,8 +617,11 @@ public class MinervaServerEngine implements ServerExecutables {
 	@Override
 	public void releaseCard(CountryCard card) throws SimonRemoteException {
 		LOGGER.log("releaseCard(): Release the card from country: '"+card.getReference().getName()+"'");
-		Turn turn = this.game.getCurrentTurn();
-		turn.releaseCard(card);
+		Game game = this.getGame();
+		synchronized (game) {
+			Turn turn = game.getCurrentTurn();
+			turn.releaseCard(card);
+		}
 
 		this.notifyClients();
 	}
@@ -434,8 +637,11 @@ public class MinervaServerEngine implements ServerExecutables {
 	@Override
 	public void releaseCards(Vector<CountryCard> cards) throws SimonRemoteException {
 		LOGGER.log("releaseCards(): Release a card stack.");
-		Turn turn = this.game.getCurrentTurn();
-		turn.releaseCardSeries(cards);
+		Game game = this.getGame();
+		synchronized (game) {
+			Turn turn = game.getCurrentTurn();
+			turn.releaseCardSeries(cards);
+		}
 
 		this.notifyClients();
 	}
@@ -450,7 +656,11 @@ public class MinervaServerEngine implements ServerExecutables {
      */
 	@Override
 	public int getAllocatableArmyCount() throws SimonRemoteException {
-		int armyCount = this.game.getCurrentTurn().getAllocatableArmyCount();
+		Game game = this.getGame();
+		int armyCount;
+		synchronized (game) {
+			armyCount = game.getCurrentTurn().getAllocatableArmyCount();
+		}
 		LOGGER.log("getAllocatableArmyCount(): Allocatable armies in this turn: "+armyCount);
 		return armyCount;
 	}
@@ -468,8 +678,34 @@ public class MinervaServerEngine implements ServerExecutables {
 	@Override
 	public void allocateArmy(Country allocatable) throws SimonRemoteException, NotEnoughArmiesException, CountryOwnerException {
 		LOGGER.log("allocateArmy(): Allocate one army on country '"+ allocatable.getName() +"'");
-        Turn turn = this.game.getCurrentTurn();
-        turn.allocateArmy(allocatable);
+		Game game = this.getGame();
+		synchronized (game) {
+			Turn turn = game.getCurrentTurn();
+			turn.allocateArmy(allocatable);
+		}
+
+        this.notifyClients();
+	}
+
+    /**
+     * Places several armies at once. The whole placement will be
+     * validated first and the clients will be notified only once.
+     *
+     * @param allocations The army count per country id.
+     *
+     * @throws SimonRemoteException
+     * @throws NotEnoughArmiesException 
+     * @throws CountryOwnerException 
+     * 
+     */
+	@Override
+	public void allocateArmies(Map<Integer, Integer> allocations) throws SimonRemoteException, NotEnoughArmiesException, CountryOwnerException {
+		LOGGER.log("allocateArmies(): Allocate armies on "+ allocations.size() +" countries.");
+		Game game = this.getGame();
+		synchronized (game) {
+			Turn turn = game.getCurrentTurn();
+			turn.allocateArmies(allocations);
+		}
 
         this.notifyClients();
 	}
@@ -489,10 +725,45 @@ public class MinervaServerEngine implements ServerExecutables {
      */
 	@Override
 	public AttackResult attack(Country source, Country destination, int armyCount) throws SimonRemoteException, CountriesNotInRelationException, NotEnoughArmiesException, IsOwnCountryException {
-		Turn turn = this.game.getCurrentTurn();
-		AttackResult result = turn.attack(source, destination, armyCount);
+		Game game = this.getGame();
+		AttackResult result;
+		synchronized (game) {
+			Turn turn = game.getCurrentTurn();
+			result = turn.attack(source, destination, armyCount);
+		}
 		LOGGER.log("attack(): Attacking '"+destination.getName()+"' from '"+source.getName()+"' with " + armyCount + " army units. Result: "+result.toString());
 
+        this.notifyClients();
+        return result;
+	}
+
+    /**
+     * Attacks a country repeatedly (blitz attack) until it is conquered
+     * or one of the stop conditions is reached. All rounds are resolved
+     * within one call.
+     * 
+     * @param source The country from which the attack will be started.
+     * @param destination The country which should be attacked.
+     * @param minAttackerArmies Stop when the source country has less armies than this.
+     * @param maxRounds Maximum number of rounds (0 = unlimited).
+     *
+     * @throws SimonRemoteException
+     * @throws CountriesNotInRelationException
+     * @throws NotEnoughArmiesException
+     * @throws IsOwnCountryException
+     * 
+     */
+	@Override
+	public AttackResult blitzAttack(Country source, Country destination, int minAttackerArmies, int maxRounds) throws SimonRemoteException, CountriesNotInRelationException, NotEnoughArmiesException, IsOwnCountryException {
+		Game game = this.getGame();
+		AttackResult result;
+		synchronized (game) {
+			Turn turn = game.getCurrentTurn();
+			result = turn.blitzAttack(source, destination, minAttackerArmies, maxRounds);
+		}
+		LOGGER.log("blitzAttack(): Attacking '"+destination.getName()+"' from '"+source.getName()+"'. Result: "+result);
+
+        this.notifyClients();
         return result;
 	}
 
@@ -513,12 +784,97 @@ public class MinervaServerEngine implements ServerExecutables {
 	public void move(Country source, Country destination, int armyCount) throws SimonRemoteException, CountriesNotInRelationException, NotEnoughArmiesException, CountryOwnerException {
 		LOGGER.log("move(): Move "+armyCount+" army units from '"+source.getName()+"' to '"+destination.getName()+"'.");
 
-		Turn turn = this.game.getCurrentTurn();
-        turn.moveArmies(source, destination, armyCount);
+		Game game = this.getGame();
+		synchronized (game) {
+			Turn turn = game.getCurrentTurn();
+			turn.moveArmies(source, destination, armyCount);
+		}
 
         this.notifyClients();
 	}
 
+    /**
+     * Executes a batch of game commands in the given order. The whole
+     * batch runs within one game lock and the clients will be notified
+     * only once. If a command fails, the following commands will be skipped.
+     *
+     * @param commands The game commands.
+     * @return The results (one result per command).
+     *
+     * @throws SimonRemoteException
+     *
+     */
+	@Override
+	public Vector<GameCommandResult> executeCommands(Vector<GameCommand> commands) throws SimonRemoteException {
+		LOGGER.log("executeCommands(): Execute "+commands.size()+" commands.");
+
+		Vector<GameCommandResult> results = new Vector<GameCommandResult>(commands.size());
+		Game game = this.getGame();
+		try {
+			synchronized (game) {
+				boolean failed = false;
+
+				for (GameCommand command : commands) {
+					if (failed) {
+						results.add(new GameCommandResult(command, false, null, null));
+						continue;
+					}
+
+					// An unexpected runtime exception (e. g. an unknown country) is the
+					// result of the failed command as well, so that the results of the
+					// previous (executed) commands will not get lost.
+					try {
+						results.add(new GameCommandResult(command, true, null, this.executeCommand(game, command)));
+					} catch (Exception e) {
+						LOGGER.log("executeCommands(): Command "+command+" failed: "+e);
+						results.add(new GameCommandResult(command, true, e, null));
+						failed = true;
+					}
+				}
+			}
+		} finally {
+			// The previous commands have changed the game state.
+			this.notifyClients();
+		}
+
+		return results;
+	}
+
+	/**
+	 * Executes one game command. The caller must hold the game lock.
+	 *
+	 * @param game The game.
+	 * @param command The game command.
+	 * @return The attack result, if the command was an attack command, otherwise null.
+	 *
+	 * @throws Exception The game exception (e. g. NotEnoughArmiesException).
+	 *
+	 */
+	private AttackResult executeCommand(Game game, GameCommand command) throws Exception {
+		Turn turn = game.getCurrentTurn();
+
+		switch (command.getType()) {
+			case RELEASE_CARDS:
+				turn.releaseCardSeries(command.getCards());
+				break;
+			case ALLOCATE_ARMIES:
+				turn.allocateArmies(command.getAllocations());
+				break;
+			case ATTACK:
+				return turn.attack(command.getSource(), command.getDestination(), command.getArmyCount());
+			case MOVE:
+				turn.moveArmies(command.getSource(), command.getDestination(), command.getArmyCount());
+				break;
+			case FINISH_TURN:
+				game.nextTurn();
+				break;
+			case SET_PLAYER_STATE:
+				turn.getCurrentPlayer().setState(command.getState());
+				break;
+		}
+		return null;
+	}
+
     /**
      * Starts the next turn.
      *
@@ -527,27 +883,58 @@ public class MinervaServerEngine implements ServerExecutables {
      */
 	@Override
 	public void finishTurn() throws SimonRemoteException {
-        this.game.nextTurn();
+		Game game = this.getGame();
+		synchronized (game) {
+			game.nextTurn();
+		}
 
         this.notifyClients();
 	}
 	
 	/**
-	 * Notifies all registered clients by invoking the
-	 * "refreshPlayer" method on the client side.
+	 * Notifies all clients, which joined the session game, by invoking
+	 * the "refreshGameState" method on the client side.
 	 * The client knows then, that something has changed.
 	 *
+	 * The notifications will be delivered asynchronously by the
+	 * {@link ClientNotifier}, so this method returns immediately.
+	 * 
+	 * A finished game will not change anymore. So it will be removed
+	 * from the server, after the last notification was queued.
+	 *
 	 * @throws SimonRemoteException
 	 *
 	 */
 	private void notifyClients() throws SimonRemoteException {
+		Game notified = this.game;
+
+		if ((notified == null) || (this.dropKilledGame())) {
+			return;
+		}
+
+		boolean finished;
+		synchronized (notified) {
+			finished = (notified.isRunning() && notified.isFinished());
+		}
+
 		LOGGER.log("notifyClients");
-		Iterator<Entry<Player, ClientExecutables>> iter = this.clients.entrySet().iterator();
+		ConcurrentHashMap<Player, ClientExecutables> gameClients = this.getClients(notified);
+		Iterator<Entry<Player, ClientExecutables>> iter = gameClients.entrySet().iterator();
 		while (iter.hasNext()) {
 			Entry<Player, ClientExecutables> entry = iter.next();
-			ClientExecutables client = entry.getValue();
-			
-			client.refreshPlayer(entry.getKey());
+
+			ClientNotifier.getInstance().refreshGameState(notified, entry.getKey(), entry.getValue(), gameClients);
+		}
+
+		if (finished) {
+			GameManager.getInstance().remove(notified);
+
+			if (this.clients.remove(notified.getId(), gameClients)) {
+				for (Player player : gameClients.keySet()) {
+					ClientNotifier.getInstance().release(player);
+				}
+				LOGGER.log("notifyClients(): The finished game with the id " + notified.getId() + " was removed.");
+			}
 		}
 	}
 
@@ -568,20 +955,130 @@ public class MinervaServerEngine implements ServerExecutables {
 	}
 
 	/**
-	 * Converts the map image to an {@link BufferedImage}.
+	 * Adds the session player to the given game and registers
+	 * the client executables for the game notifications.
+	 * The first player, which joins a game, is the gamemaster.
+	 * If the session player has already joined another game, it
+	 * leaves this game first.
 	 *
-	 * @param filepath
-	 * 
-	 * @return The {@link BufferedImage} image object.
+	 * @param joinable The game to join.
+	 *
+	 * @throws SimonRemoteException If the session player plays in another (running) game.
+	 * @throws GameAlreadyStartedException
+	 * @throws NoPlayerSlotAvailableException
 	 *
 	 */
-	private BufferedImage convertMapImage(String filepath) {
-		BufferedImage map = null; 
-		try {
-			map = ImageIO.read(new File(filepath));
-		} catch (IOException e) {
-			LOGGER.error("Loading map image failed. Path: '"+filepath+"'. Reason: " + e.getMessage());
+	private void join(Game joinable) throws SimonRemoteException, GameAlreadyStartedException, NoPlayerSlotAvailableException {
+		if ((this.game != null) && (this.game != joinable) && (!this.dropKilledGame())) {
+			this.leave();
+		}
+
+		synchronized (joinable) {
+			boolean master = (joinable.getPlayerCount() == 0);
+
+			joinable.addPlayer(this.player);
+
+			this.player.setMaster(master);
+			this.player.setState(PlayerState.GAME_INIT);
+		}
+
+		// Put the new client in the client map of the game.
+		this.getClients(joinable).put(this.player, this.clientExecutables);
+		this.game = joinable;
+
+		this.notifyClients();
+	}
+
+	/**
+	 * Removes the session player from its game, which is not running.
+	 * A game without players will be removed from the server, otherwise
+	 * the remaining players will be notified.
+	 *
+	 * @throws SimonRemoteException If the game is running.
+	 *
+	 */
+	private void leave() throws SimonRemoteException {
+		Game left = this.game;
+		boolean empty;
+
+		synchronized (left) {
+			try {
+				left.removePlayer(this.player);
+			} catch (GameAlreadyStartedException e) {
+				throw new SimonRemoteException("Der Spieler '" + this.player.getUsername() + "' spielt bereits im laufenden Spiel " + left.getId() + " und kann es nicht verlassen.");
+			}
+			empty = (left.getPlayerCount() == 0);
+		}
+
+		ConcurrentHashMap<Player, ClientExecutables> gameClients = this.clients.get(left.getId());
+		if (gameClients != null) {
+			gameClients.remove(this.player);
+		}
+
+		if (empty) {
+			GameManager.getInstance().remove(left);
+			this.clients.remove(left.getId());
+		} else {
+			this.notifyClients();
 		}
-		return map;
+
+		LOGGER.log("leave(): The player '" + this.player.getUsername() + "' left the game with the id: " + left.getId());
+		this.game = null;
+	}
+
+	/**
+	 * Drops the reference to the session game, if the game was
+	 * killed (by another session) or removed after it finished.
+	 *
+	 * @return true, if the game was killed and dropped.
+	 *
+	 */
+	private boolean dropKilledGame() {
+		Game joined = this.game;
+
+		if ((joined != null) && (!GameManager.getInstance().contains(joined))) {
+			this.game = null;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the game, which the session player has joined.
+	 *
+	 * @return The session game.
+	 *
+	 * @throws SimonRemoteException If the session has not joined a game (or this is the lobby).
+	 *
+	 */
+	private Game getGame() throws SimonRemoteException {
+		this.dropKilledGame();
+
+		if (this.game == null) {
+			throw new SimonRemoteException("Der Spieler ist keinem Spiel beigetreten.");
+		}
+		return this.game;
+	}
+
+	/**
+	 * Returns the clients, which joined the given game.
+	 *
+	 * @param game The game.
+	 * @return The client map of the game.
+	 *
+	 */
+	private ConcurrentHashMap<Player, ClientExecutables> getClients(Game game) {
+		ConcurrentHashMap<Player, ClientExecutables> gameClients = this.clients.get(game.getId());
+
+		if (gameClients == null) {
+			ConcurrentHashMap<Player, ClientExecutables> created = new ConcurrentHashMap<Player, ClientExecutables>();
+			gameClients = this.clients.putIfAbsent(game.getId(), created);
+
+			if (gameClients == null) {
+				gameClients = created;
+			}
+		}
+
+		return gameClients;
 	}
 }
\ No newline at end of file
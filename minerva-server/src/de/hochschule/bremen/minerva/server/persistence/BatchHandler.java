@@ -0,0 +1,59 @@
+/*
+ * Minerva - Game, Copyright 2010 Christian Bollmann, Carina Strempel, André König
+ * Hochschule Bremen - University of Applied Sciences - All Rights Reserved.
+ *
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Contact:
+ *     Christian Bollmann: cbollmann@stud.hs-bremen.de
+ *     Carina Strempel: cstrempel@stud.hs-bremen.de
+ *     André König: akoenig@stud.hs-bremen.de
+ * 
+ * Web:
+ *     http://minerva.idira.de
+ * 
+ */
+package de.hochschule.bremen.minerva.server.persistence;
+
+import java.util.Vector;
+
+import de.hochschule.bremen.minerva.commons.vo.ValueObject;
+import de.hochschule.bremen.minerva.server.persistence.exceptions.EntryExistsException;
+import de.hochschule.bremen.minerva.server.persistence.exceptions.PersistenceException;
+
+/**
+ * Optional extension of the {@link Handler} interface. A batch handler
+ * is able to save many value objects at once, instead of one round trip
+ * per value object (e.g. the countries of an imported world).
+ * 
+ * @since 1.0
+ * @version $Id$
+ *
+ */
+public interface BatchHandler {
+
+	/**
+	 * Saves all given value objects (create or update). After that,
+	 * all value objects hold their generated identifiers.
+	 * 
+	 * @param registrables The saveable value objects.
+	 * @throws EntryExistsException If one of the value objects exists already.
+	 * @throws PersistenceException Common persistence exception
+	 * 
+	 */
+	public void saveAll(Vector<? extends ValueObject> registrables) throws EntryExistsException, PersistenceException;
+}
@@ -29,9 +29,12 @@
  */
 package de.hochschule.bremen.minerva.server.persistence;
 
+import de.hochschule.bremen.minerva.server.persistence.exceptions.PersistenceException;
+
 /**
  * Interface that defines that a persistence layer must implement
- * a factory method for creating the handler.
+ * a factory method for creating the handler and the transaction
+ * handling. A transaction is bound to the current thread.
  * 
  * @since 1.0
  * @version $Id: Persistence.java 663 2010-07-04 16:24:05Z andre.koenig $
@@ -47,4 +50,29 @@ public interface Persistence {
 	 * 
 	 */
 	public Handler createHandler(Class<?> type);
+
+	/**
+	 * Starts a transaction for the current thread. All following
+	 * operations of all handlers will be part of this transaction.
+	 * 
+	 * @throws PersistenceException If the transaction could not be started.
+	 * 
+	 */
+	public void beginTransaction() throws PersistenceException;
+
+	/**
+	 * Commits the transaction of the current thread.
+	 * 
+	 * @throws PersistenceException If the commit fails (the transaction was rolled back).
+	 * 
+	 */
+	public void commitTransaction() throws PersistenceException;
+
+	/**
+	 * Rolls the transaction of the current thread back.
+	 * 
+	 * @throws PersistenceException If the rollback fails.
+	 * 
+	 */
+	public void rollbackTransaction() throws PersistenceException;
 }
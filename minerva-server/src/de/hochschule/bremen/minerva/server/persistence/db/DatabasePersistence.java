@@ -37,11 +37,14 @@ import de.hochschule.bremen.minerva.commons.vo.Player;
 import de.hochschule.bremen.minerva.commons.vo.World;
 import de.hochschule.bremen.minerva.server.persistence.Handler;
 import de.hochschule.bremen.minerva.server.persistence.Persistence;
+import de.hochschule.bremen.minerva.server.persistence.db.exceptions.DatabaseIOException;
+import de.hochschule.bremen.minerva.server.persistence.db.handler.AbstractDatabaseHandler;
 import de.hochschule.bremen.minerva.server.persistence.db.handler.ContinentHandler;
 import de.hochschule.bremen.minerva.server.persistence.db.handler.CountryHandler;
 import de.hochschule.bremen.minerva.server.persistence.db.handler.NeighbourHandler;
 import de.hochschule.bremen.minerva.server.persistence.db.handler.PlayerHandler;
 import de.hochschule.bremen.minerva.server.persistence.db.handler.WorldHandler;
+import de.hochschule.bremen.minerva.server.persistence.exceptions.PersistenceException;
 
 /**
  * Database persistence handler creator.
@@ -75,4 +78,49 @@ public class DatabasePersistence implements Persistence {
 		}
 		return null;
 	}
+
+	/**
+	 * Starts a database transaction for the current thread.
+	 * 
+	 * @throws PersistenceException
+	 * 
+	 */
+	@Override
+	public void beginTransaction() throws PersistenceException {
+		try {
+			AbstractDatabaseHandler.beginTransaction();
+		} catch (DatabaseIOException e) {
+			throw new PersistenceException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Commits the database transaction of the current thread.
+	 * 
+	 * @throws PersistenceException
+	 * 
+	 */
+	@Override
+	public void commitTransaction() throws PersistenceException {
+		try {
+			AbstractDatabaseHandler.commitTransaction();
+		} catch (DatabaseIOException e) {
+			throw new PersistenceException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Rolls the database transaction of the current thread back.
+	 * 
+	 * @throws PersistenceException
+	 * 
+	 */
+	@Override
+	public void rollbackTransaction() throws PersistenceException {
+		try {
+			AbstractDatabaseHandler.rollbackTransaction();
+		} catch (DatabaseIOException e) {
+			throw new PersistenceException(e.getMessage());
+		}
+	}
 }
\ No newline at end of file
@@ -29,89 +29,267 @@
  */
 package de.hochschule.bremen.minerva.server.persistence.db.handler;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.DriverManager;
-import java.sql.Statement;
+import java.util.Vector;
 
 import de.hochschule.bremen.minerva.commons.vo.ValueObject;
 import de.hochschule.bremen.minerva.server.persistence.db.exceptions.DatabaseConnectionException;
 import de.hochschule.bremen.minerva.server.persistence.db.exceptions.DatabaseDuplicateRecordException;
 import de.hochschule.bremen.minerva.server.persistence.db.exceptions.DatabaseIOException;
+import de.hochschule.bremen.minerva.server.persistence.db.handler.ConnectionPool.PooledConnection;
 
 /**
  * The abstract database handler, which every database handler should inherit from.
- * Provides database connection handling, sending sql statements and so on.
+ * Provides database connection handling, sending sql statements and so on.<br />
+ * 
+ * All handlers share a small connection pool. Each statement borrows a connection,
+ * executes the cached prepared statement for the given sql string and gives the
+ * connection back. Result sets never leave this class, they will be converted
+ * (see: resultSetToObject) and closed immediately.<br />
+ * 
+ * A transaction binds one connection to the current thread (see: beginTransaction).
+ * All statements of all handlers, which are executed by this thread, will use
+ * this connection until the transaction is committed or rolled back.
+ * 
+ * @param <T> The value object type of the handler.
  * 
  * @since 1.0
  * @version $Id: AbstractDatabaseHandler.java 663 2010-07-04 16:24:05Z andre.koenig $
  *
  */
-public abstract class AbstractDatabaseHandler {
+public abstract class AbstractDatabaseHandler<T extends ValueObject> {
 	
-	private static Connection connection = null;
+	private static ConnectionPool pool = null;
 
 	private static String databaseName = "database";
 	private static String databaseDriver = "org.apache.derby.jdbc.EmbeddedDriver";
 
+	// The maximum number of parallel database connections.
+	private static int databasePoolSize = 4;
+
 	private static String ERROR_DB_DRIVER = "The database driver wasn't found. What about the driver jar? Is it available?";
 	private static String ERROR_DB_LOCKED = "Unable to connect to the specified database. Is it locked? Is the 'sqlexplorer' currently running? ;)";
-	private static String ERROR_DB_DISCONNECT_FAILED = "Unable to disconnect from the database.";
+
+	// SQL states of this class mean: The connection is unusable.
+	private static String SQL_STATE_CONNECTION_EXCEPTION = "08";
+
+	private static String ERROR_TRANSACTION_RUNNING = "There is already a running transaction in this thread.";
+	private static String ERROR_NO_TRANSACTION = "There is no running transaction in this thread.";
+
+	// Error codes (derby) of unique constraint violations.
+	private static final int ERROR_CODE_DUPLICATE_KEY = 30000;
+	private static final int ERROR_CODE_DUPLICATE_INDEX = 20000;
+
+	private static final Object[] NO_PARAMS = {};
+
+	// The connection of the running transaction (per thread).
+	private static final ThreadLocal<PooledConnection> transaction = new ThreadLocal<PooledConnection>();
 
 	/**
-	 * Creates an database connection.
+	 * Returns the connection pool. The database driver
+	 * will be loaded with the first call.
+	 * 
+	 * @return The connection pool.
 	 * 
 	 * @throws DatabaseConnectionException
 	 *
 	 */
-	private void connect() throws DatabaseConnectionException {
-		try {
-			if (AbstractDatabaseHandler.connection == null) {
+	private static synchronized ConnectionPool getPool() throws DatabaseConnectionException {
+		if (AbstractDatabaseHandler.pool == null) {
+			try {
 				Class.forName(AbstractDatabaseHandler.databaseDriver).newInstance();
-				AbstractDatabaseHandler.connection = DriverManager.getConnection("jdbc:derby:"+AbstractDatabaseHandler.databaseName+";create=true");
+			} catch (InstantiationException e) {
+				throw new DatabaseConnectionException(e.getMessage());
+			} catch (IllegalAccessException e) {
+				throw new DatabaseConnectionException(e.getMessage());
+			} catch (ClassNotFoundException e) {
+				throw new DatabaseConnectionException(ERROR_DB_DRIVER);
 			}
-		} catch (InstantiationException e) {
-			throw new DatabaseConnectionException(e.getMessage());
-		} catch (IllegalAccessException e) {
-			throw new DatabaseConnectionException(e.getMessage());
-		} catch (ClassNotFoundException e) {
-			throw new DatabaseConnectionException(ERROR_DB_DRIVER);
+
+			AbstractDatabaseHandler.pool = new ConnectionPool("jdbc:derby:"+AbstractDatabaseHandler.databaseName+";create=true", AbstractDatabaseHandler.databasePoolSize);
+		}
+
+		return AbstractDatabaseHandler.pool;
+	}
+
+	/**
+	 * Borrows a database connection from the pool. If the current
+	 * thread is running a transaction, the transaction connection
+	 * will be returned.
+	 * 
+	 * @return The connection.
+	 * 
+	 * @throws DatabaseConnectionException
+	 *
+	 */
+	private static PooledConnection connect() throws DatabaseConnectionException {
+		PooledConnection bound = AbstractDatabaseHandler.transaction.get();
+		if (bound != null) {
+			return bound;
+		}
+
+		try {
+			return AbstractDatabaseHandler.getPool().acquire();
 		} catch (SQLException e) {
 			throw new DatabaseConnectionException(ERROR_DB_LOCKED);
 		}
 	}
 
 	/**
-	 * Disconnects an active database connection.
+	 * Gives a borrowed connection back to the pool. The connection
+	 * of a running transaction stays bound to the current thread.
+	 * 
+	 * @param connection The borrowed connection.
+	 * @param error The error, which occurred while using the connection (or null).
+	 * 
+	 */
+	private static void release(PooledConnection connection, SQLException error) {
+		if (connection == AbstractDatabaseHandler.transaction.get()) {
+			return;
+		}
+
+		boolean broken = (error != null) && (error.getSQLState() != null) && error.getSQLState().startsWith(SQL_STATE_CONNECTION_EXCEPTION);
+
+		synchronized (AbstractDatabaseHandler.class) {
+			if (AbstractDatabaseHandler.pool != null) {
+				AbstractDatabaseHandler.pool.release(connection, broken);
+				return;
+			}
+		}
+
+		// The pool was closed (disconnect) while the connection was in use.
+		connection.close();
+	}
+
+	/**
+	 * Starts a transaction for the current thread. All following
+	 * statements of this thread will be executed in this transaction,
+	 * until {@link #commitTransaction()} or {@link #rollbackTransaction()}
+	 * will be called.
+	 * 
+	 * @throws DatabaseIOException If there is already a running transaction or on connection problems.
+	 * 
+	 */
+	public static void beginTransaction() throws DatabaseIOException {
+		if (AbstractDatabaseHandler.transaction.get() != null) {
+			throw new DatabaseIOException(ERROR_TRANSACTION_RUNNING);
+		}
+
+		PooledConnection connection = AbstractDatabaseHandler.connect();
+		try {
+			connection.begin();
+		} catch (SQLException e) {
+			AbstractDatabaseHandler.release(connection, e);
+			throw new DatabaseIOException("Error while starting a transaction: "+e.getMessage());
+		}
+
+		AbstractDatabaseHandler.transaction.set(connection);
+	}
+
+	/**
+	 * Commits the transaction of the current thread.
+	 * 
+	 * @throws DatabaseIOException If there is no running transaction or the commit fails.
+	 * 
+	 */
+	public static void commitTransaction() throws DatabaseIOException {
+		PooledConnection connection = AbstractDatabaseHandler.endTransaction();
+		SQLException error = null;
+
+		try {
+			connection.commit();
+		} catch (SQLException e) {
+			error = e;
+			throw new DatabaseIOException("Error while committing the transaction: "+e.getMessage());
+		} finally {
+			AbstractDatabaseHandler.release(connection, error);
+		}
+	}
+
+	/**
+	 * Rolls the transaction of the current thread back.
+	 * 
+	 * @throws DatabaseIOException If there is no running transaction or the rollback fails.
+	 * 
+	 */
+	public static void rollbackTransaction() throws DatabaseIOException {
+		PooledConnection connection = AbstractDatabaseHandler.endTransaction();
+		SQLException error = null;
+
+		try {
+			connection.rollback();
+		} catch (SQLException e) {
+			error = e;
+			throw new DatabaseIOException("Error while rolling back the transaction: "+e.getMessage());
+		} finally {
+			AbstractDatabaseHandler.release(connection, error);
+		}
+	}
+
+	/**
+	 * Unbinds the transaction connection from the current thread.
+	 * 
+	 * @return The transaction connection.
+	 * 
+	 * @throws DatabaseIOException If there is no running transaction.
+	 * 
+	 */
+	private static PooledConnection endTransaction() throws DatabaseIOException {
+		PooledConnection connection = AbstractDatabaseHandler.transaction.get();
+		if (connection == null) {
+			throw new DatabaseIOException(ERROR_NO_TRANSACTION);
+		}
+
+		AbstractDatabaseHandler.transaction.remove();
+		return connection;
+	}
+
+	/**
+	 * Disconnects all idle database connections. Connections in use
+	 * will be closed as soon as their statement has been executed.
 	 * 
 	 * @throws DatabaseConnectionException
 	 *
 	 */
 	public void disconnect() throws DatabaseConnectionException {
-		try {
-			if (AbstractDatabaseHandler.connection != null) {
-				AbstractDatabaseHandler.connection.close();
+		synchronized (AbstractDatabaseHandler.class) {
+			if (AbstractDatabaseHandler.pool != null) {
+				AbstractDatabaseHandler.pool.close();
+				AbstractDatabaseHandler.pool = null;
 			}
-		} catch (SQLException e) {
-			throw new DatabaseConnectionException(ERROR_DB_DISCONNECT_FAILED);
 		}
 	}
 
 	/**
-	 * Creates a prepared statements.
+	 * Returns the cached prepared statement for the given sql
+	 * statement and sets the parameters.
 	 * 
+	 * @param connection The borrowed connection.
 	 * @param sql Raw sql statement.
 	 * @param params Parameters, which are insertable into the sql statement.
 	 * 
 	 * @throws SQLException
 	 * 
 	 */
-	private PreparedStatement createPreparedStatement(String sql, Object[] params) throws SQLException {
-		PreparedStatement statement = AbstractDatabaseHandler.connection.prepareStatement(sql);
-		statement.clearParameters();
+	private PreparedStatement createPreparedStatement(PooledConnection connection, String sql, Object[] params) throws SQLException {
+		PreparedStatement statement = connection.prepare(sql);
+		this.setParameters(statement, params);
+
+		return statement;
+	}
 
+	/**
+	 * Sets the parameters of the given prepared statement.
+	 * 
+	 * @param statement The prepared statement.
+	 * @param params Parameters, which are insertable into the sql statement.
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	private void setParameters(PreparedStatement statement, Object[] params) throws SQLException {
 		for (int i = 0; i < params.length; i++) {
 			Object param = params[i];
 			Class<? extends Object> paramType = param.getClass();
@@ -124,51 +302,115 @@ public abstract class AbstractDatabaseHandler {
 				statement.setShort(i+1, (Short)param);
 			}
 		}
-
-		return statement;
 	}
 
 	/**
-	 * Executes an sql select statement.
+	 * Executes an sql select statement and converts
+	 * all records into value objects.
 	 * 
 	 * @param sql The executable sql statement.
-	 * @return The result set
+	 * @return The value objects.
 	 * 
 	 * @throws DatabaseIOException
 	 * 
 	 */
-	protected ResultSet select(String sql) throws DatabaseIOException {
-		this.connect();
+	protected Vector<T> selectAll(String sql) throws DatabaseIOException {
+		return this.selectAll(sql, NO_PARAMS);
+	}
+
+	/**
+	 * Executes an prepared sql select statement and converts
+	 * all records into value objects.
+	 * 
+	 * @param sql The executable raw sql statement.
+	 * @param params The parameters for the sql statement.
+	 * @return The value objects.
+	 * 
+	 * @throws DatabaseIOException
+	 * 
+	 */
+	protected Vector<T> selectAll(String sql, Object[] params) throws DatabaseIOException {
+		Vector<T> records = new Vector<T>();
+
+		PooledConnection connection = AbstractDatabaseHandler.connect();
+		SQLException error = null;
 
 		try {
-			Statement statement = AbstractDatabaseHandler.connection.createStatement();
-			statement.execute(sql);
-			return statement.getResultSet();
+			ResultSet record = this.createPreparedStatement(connection, sql, params).executeQuery();
+			try {
+				while (record.next()) {
+					records.add(this.resultSetToObject(record));
+				}
+			} finally {
+				record.close();
+			}
 		} catch (SQLException e) {
-			throw new DatabaseIOException("Error while selecting data from the database: "+e.getMessage() + " - "+e.getErrorCode());
+			error = e;
+			throw new DatabaseIOException("Error while selecting data (with params) from the database: "+e.getMessage() + " - "+e.getErrorCode());
+		} finally {
+			AbstractDatabaseHandler.release(connection, error);
 		}
+
+		return records;
 	}
-	
+
 	/**
-	 * Executes an prepared sql select statement.
+	 * Executes an prepared sql select statement and converts
+	 * the first record into a value object.
 	 * 
 	 * @param sql The executable raw sql statement.
 	 * @param params The parameters for the sql statement.
-	 * @return The result set.
+	 * @return The value object or null, if there is no record.
 	 * 
 	 * @throws DatabaseIOException
 	 * 
 	 */
-	protected ResultSet select(String sql, Object[] params) throws DatabaseIOException {
-		this.connect();
+	protected T selectOne(String sql, Object[] params) throws DatabaseIOException {
+		T found = null;
 
-		try {
-			PreparedStatement statement = this.createPreparedStatement(sql, params);
-			statement.execute();
-			return statement.getResultSet();
+		PooledConnection connection = AbstractDatabaseHandler.connect();
+		SQLException error = null;
 
+		try {
+			ResultSet record = this.createPreparedStatement(connection, sql, params).executeQuery();
+			try {
+				if (record.next()) {
+					found = this.resultSetToObject(record);
+				}
+			} finally {
+				record.close();
+			}
 		} catch (SQLException e) {
+			error = e;
 			throw new DatabaseIOException("Error while selecting data (with params) from the database: "+e.getMessage() + " - "+e.getErrorCode());
+		} finally {
+			AbstractDatabaseHandler.release(connection, error);
+		}
+
+		return found;
+	}
+
+	/**
+	 * Executes an prepared sql statement, which modifies records.
+	 * 
+	 * @param sql The executable raw sql statement.
+	 * @param params The parameters for the sql statement.
+	 * 
+	 * @throws SQLException
+	 * @throws DatabaseConnectionException
+	 * 
+	 */
+	private void execute(String sql, Object[] params) throws SQLException, DatabaseConnectionException {
+		PooledConnection connection = AbstractDatabaseHandler.connect();
+		SQLException error = null;
+
+		try {
+			this.createPreparedStatement(connection, sql, params).executeUpdate();
+		} catch (SQLException e) {
+			error = e;
+			throw e;
+		} finally {
+			AbstractDatabaseHandler.release(connection, error);
 		}
 	}
 
@@ -182,12 +424,8 @@ public abstract class AbstractDatabaseHandler {
 	 * 
 	 */
 	protected void insert(String sql, Object[] params) throws DatabaseIOException {
-		this.connect();
-
 		try {
-			PreparedStatement statement = this.createPreparedStatement(sql, params);
-			statement.executeUpdate();
-			statement.close();
+			this.execute(sql, params);
 		} catch (SQLException e) {
 			switch (e.getErrorCode()) {
 				case 30000:
@@ -212,13 +450,8 @@ public abstract class AbstractDatabaseHandler {
 	 * 
 	 */
 	protected void update(String sql, Object[] params) throws DatabaseIOException {
-		this.connect();
-
 		try {
-			PreparedStatement statement = this.createPreparedStatement(sql, params);
-			statement.executeUpdate();
-
-			statement.close();
+			this.execute(sql, params);
 		} catch (SQLException e) {
 			switch (e.getErrorCode()) {
 				case 30000:	
@@ -243,15 +476,121 @@ public abstract class AbstractDatabaseHandler {
 	 * 
 	 */
 	protected void delete(String sql, Object[] params) throws DatabaseIOException {
-		this.connect();
-
 		try {
-			PreparedStatement statement = this.createPreparedStatement(sql, params);
-			statement.execute();
+			this.execute(sql, params);
 		} catch (SQLException e) {
 			throw new DatabaseIOException("Error while deleting a record from the database: "+e.getMessage() + "("+e.getErrorCode()+")");
 		}
 	}
+
+	/**
+	 * Executes an prepared sql statement once for each parameter
+	 * set. All parameter sets will be sent as one batch.
+	 * 
+	 * @param sql The executable raw sql statement.
+	 * @param params The parameter sets (one per record).
+	 * @return The update counts (one per record).
+	 * 
+	 * @throws SQLException
+	 * @throws DatabaseConnectionException
+	 * 
+	 */
+	private int[] executeBatch(String sql, Vector<Object[]> params) throws SQLException, DatabaseConnectionException {
+		if (params.isEmpty()) {
+			return new int[0];
+		}
+
+		PooledConnection connection = AbstractDatabaseHandler.connect();
+		PreparedStatement statement = null;
+		SQLException error = null;
+
+		try {
+			statement = connection.prepare(sql);
+
+			for (Object[] record : params) {
+				this.setParameters(statement, record);
+				statement.addBatch();
+			}
+
+			return statement.executeBatch();
+		} catch (SQLException e) {
+			error = e;
+
+			// The statement is cached, so we have to remove the unsent records.
+			if (statement != null) {
+				try {
+					statement.clearBatch();
+				} catch (SQLException ignored) {
+					// The original exception is more important.
+				}
+			}
+			throw e;
+		} finally {
+			AbstractDatabaseHandler.release(connection, error);
+		}
+	}
+
+	/**
+	 * Executes an prepared sql insert statement for each
+	 * parameter set (batch insert).
+	 * 
+	 * @param sql The executable raw sql statement.
+	 * @param params The parameter sets (one per record).
+	 * 
+	 * @throws DatabaseIOException
+	 * 
+	 */
+	protected void insertBatch(String sql, Vector<Object[]> params) throws DatabaseIOException {
+		try {
+			this.executeBatch(sql, params);
+		} catch (SQLException e) {
+			if (AbstractDatabaseHandler.isDuplicate(e)) {
+				throw new DatabaseDuplicateRecordException("Error while inserting the new records. A record exists already.");
+			}
+			throw new DatabaseIOException("Error while inserting new records into the database: "+e.getMessage());
+		}
+	}
+
+	/**
+	 * Executes an prepared sql update statement for each
+	 * parameter set (batch update).
+	 * 
+	 * @param sql The executable raw sql statement.
+	 * @param params The parameter sets (one per record).
+	 * @return The update counts (one per record). 0 means, that the record wasn't found.
+	 * 
+	 * @throws DatabaseIOException
+	 * 
+	 */
+	protected int[] updateBatch(String sql, Vector<Object[]> params) throws DatabaseIOException {
+		try {
+			return this.executeBatch(sql, params);
+		} catch (SQLException e) {
+			if (AbstractDatabaseHandler.isDuplicate(e)) {
+				throw new DatabaseDuplicateRecordException("Error while updating the records. There is already a similar entry in the database.");
+			}
+			throw new DatabaseIOException("Error while updating records: "+e.getMessage());
+		}
+	}
+
+	/**
+	 * Checks if the given exception (or one of the chained
+	 * exceptions of a batch) is a unique constraint violation.
+	 * 
+	 * @param e The sql exception.
+	 * @return true, if a record exists already.
+	 * 
+	 */
+	private static boolean isDuplicate(SQLException e) {
+		for (SQLException current = e; current != null; current = current.getNextException()) {
+			int errorCode = current.getErrorCode();
+
+			if ((errorCode == ERROR_CODE_DUPLICATE_KEY) || (errorCode == ERROR_CODE_DUPLICATE_INDEX)) {
+				return true;
+			}
+		}
+		return false;
+	}
 	
 	/**
 	 * Converter method, which every handler should implement.
@@ -263,5 +602,5 @@ public abstract class AbstractDatabaseHandler {
 	 * @throws SQLException
 	 *
 	 */
-	protected abstract ValueObject resultSetToObject(ResultSet convertable) throws SQLException;
-}
\ No newline at end of file
+	protected abstract T resultSetToObject(ResultSet convertable) throws SQLException;
+}
@@ -0,0 +1,297 @@
+/*
+ * Minerva - Game, Copyright 2010 Christian Bollmann, Carina Strempel, André König
+ * Hochschule Bremen - University of Applied Sciences - All Rights Reserved.
+ *
+ * $Id$
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Contact:
+ *     Christian Bollmann: cbollmann@stud.hs-bremen.de
+ *     Carina Strempel: cstrempel@stud.hs-bremen.de
+ *     André König: akoenig@stud.hs-bremen.de
+ * 
+ * Web:
+ *     http://minerva.idira.de
+ * 
+ */
+package de.hochschule.bremen.minerva.server.persistence.db.handler;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import de.hochschule.bremen.minerva.server.persistence.db.exceptions.DatabaseConnectionException;
+
+/**
+ * A small pool of database connections. Every connection holds its own
+ * cache of prepared statements, keyed by the raw sql strings of the
+ * handlers. A connection (and its statements) is used by only one
+ * thread at a time, between {@link #acquire()} and {@link #release(PooledConnection, boolean)}.
+ * 
+ * @since 1.0
+ * @version $Id$
+ *
+ */
+class ConnectionPool {
+
+	// Maximum number of prepared statements per connection. The handlers
+	// use a fixed set of sql strings, so the cache should never be full.
+	private static final int STATEMENT_CACHE_SIZE = 64;
+
+	private static final long ACQUIRE_TIMEOUT = 30;
+
+	private static String ERROR_POOL_EXHAUSTED = "No database connection available. All connections are in use.";
+	private static String ERROR_POOL_CLOSED = "The database connection pool was closed.";
+
+	private final String url;
+	private final int maxSize;
+
+	private final LinkedBlockingQueue<PooledConnection> idle = new LinkedBlockingQueue<PooledConnection>();
+
+	private int size = 0;
+	private boolean closed = false;
+
+	/**
+	 * Creates an empty pool. The connections will be opened on demand.
+	 * 
+	 * @param url The jdbc url.
+	 * @param maxSize The maximum number of open connections.
+	 * 
+	 */
+	ConnectionPool(String url, int maxSize) {
+		this.url = url;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Borrows a connection from the pool. Opens a new connection
+	 * if no idle connection is available and the pool is not full,
+	 * otherwise it waits for a released connection.
+	 * 
+	 * @return The connection.
+	 * 
+	 * @throws SQLException If the connection could not be opened.
+	 * @throws DatabaseConnectionException If the pool is exhausted or closed.
+	 * 
+	 */
+	PooledConnection acquire() throws SQLException, DatabaseConnectionException {
+		PooledConnection connection = this.idle.poll();
+		if (connection != null) {
+			return connection;
+		}
+
+		synchronized (this) {
+			if (this.closed) {
+				throw new DatabaseConnectionException(ERROR_POOL_CLOSED);
+			}
+
+			if (this.size < this.maxSize) {
+				PooledConnection created = new PooledConnection(DriverManager.getConnection(this.url));
+				this.size++;
+				return created;
+			}
+		}
+
+		try {
+			connection = this.idle.poll(ACQUIRE_TIMEOUT, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		if (connection == null) {
+			throw new DatabaseConnectionException(ERROR_POOL_EXHAUSTED);
+		}
+		return connection;
+	}
+
+	/**
+	 * Gives a borrowed connection back to the pool.
+	 * 
+	 * @param connection The connection.
+	 * @param broken Is the connection unusable (e.g. after a connection error)?
+	 *               Broken connections will be closed.
+	 * 
+	 */
+	void release(PooledConnection connection, boolean broken) {
+		boolean discard = broken;
+
+		synchronized (this) {
+			if (this.closed) {
+				discard = true;
+			}
+			if (discard) {
+				this.size--;
+			}
+		}
+
+		if (discard) {
+			connection.close();
+		} else {
+			this.idle.offer(connection);
+		}
+	}
+
+	/**
+	 * Closes all idle connections. Borrowed connections will be
+	 * closed when they are released.
+	 * 
+	 */
+	void close() {
+		synchronized (this) {
+			this.closed = true;
+		}
+
+		PooledConnection connection;
+		while ((connection = this.idle.poll()) != null) {
+			synchronized (this) {
+				this.size--;
+			}
+			connection.close();
+		}
+	}
+
+	/**
+	 * A database connection with its prepared statement cache.
+	 * 
+	 */
+	static class PooledConnection {
+
+		private final Connection connection;
+
+		// sql -> prepared statement (least recently used order).
+		private final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+			private static final long serialVersionUID = -3467360522446839014L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+				if (this.size() > STATEMENT_CACHE_SIZE) {
+					PooledConnection.closeQuietly(eldest.getValue());
+					return true;
+				}
+				return false;
+			}
+		};
+
+		/**
+		 * Wraps the given connection.
+		 * 
+		 * @param connection The jdbc connection.
+		 * 
+		 */
+		PooledConnection(Connection connection) {
+			this.connection = connection;
+		}
+
+		/**
+		 * Returns the cached prepared statement for the given sql.
+		 * The statement will be prepared on the first request.
+		 * 
+		 * @param sql The raw sql statement.
+		 * @return The prepared statement (without parameters).
+		 * 
+		 * @throws SQLException
+		 * 
+		 */
+		PreparedStatement prepare(String sql) throws SQLException {
+			PreparedStatement statement = this.statements.get(sql);
+
+			if (statement == null) {
+				statement = this.connection.prepareStatement(sql);
+				this.statements.put(sql, statement);
+			} else {
+				statement.clearParameters();
+			}
+
+			return statement;
+		}
+
+		/**
+		 * Starts a transaction (disables the auto commit mode).
+		 * 
+		 * @throws SQLException
+		 * 
+		 */
+		void begin() throws SQLException {
+			this.connection.setAutoCommit(false);
+		}
+
+		/**
+		 * Commits the transaction and switches back
+		 * to the auto commit mode. If the commit fails,
+		 * the transaction will be rolled back.
+		 * 
+		 * @throws SQLException
+		 * 
+		 */
+		void commit() throws SQLException {
+			try {
+				this.connection.commit();
+			} catch (SQLException e) {
+				this.rollback();
+				throw e;
+			}
+			this.connection.setAutoCommit(true);
+		}
+
+		/**
+		 * Rolls the transaction back and switches back
+		 * to the auto commit mode.
+		 * 
+		 * @throws SQLException
+		 * 
+		 */
+		void rollback() throws SQLException {
+			this.connection.rollback();
+			this.connection.setAutoCommit(true);
+		}
+
+		/**
+		 * Closes all cached statements and the connection.
+		 * 
+		 */
+		void close() {
+			for (PreparedStatement statement : this.statements.values()) {
+				PooledConnection.closeQuietly(statement);
+			}
+			this.statements.clear();
+
+			try {
+				this.connection.close();
+			} catch (SQLException e) {
+				// The connection is gone anyway.
+			}
+		}
+
+		/**
+		 * Closes the given statement and ignores errors.
+		 * 
+		 * @param statement The statement.
+		 * 
+		 */
+		private static void closeQuietly(PreparedStatement statement) {
+			try {
+				statement.close();
+			} catch (SQLException e) {
+				// Nothing to do. The statement is not used anymore.
+			}
+		}
+	}
+}
@@ -36,6 +36,7 @@ import java.util.Vector;
 
 import de.hochschule.bremen.minerva.commons.vo.Continent;
 import de.hochschule.bremen.minerva.commons.vo.ValueObject;
+import de.hochschule.bremen.minerva.server.persistence.BatchHandler;
 import de.hochschule.bremen.minerva.server.persistence.Handler;
 import de.hochschule.bremen.minerva.server.persistence.db.exceptions.DatabaseDuplicateRecordException;
 import de.hochschule.bremen.minerva.server.persistence.db.exceptions.DatabaseIOException;
@@ -51,14 +52,14 @@ import de.hochschule.bremen.minerva.server.persistence.exceptions.PersistenceExc
  * @version $Id: ContinentHandler.java 663 2010-07-04 16:24:05Z andre.koenig $
  *
  */
-public class ContinentHandler extends AbstractDatabaseHandler implements Handler {
+public class ContinentHandler extends AbstractDatabaseHandler<Continent> implements Handler, BatchHandler {
 
 	private final static HashMap<String, String> sql = new HashMap<String, String>();
 
 	static {
 		sql.put("selectById", "select \"id\", \"name\" from continent where \"id\" = ?");
 		sql.put("selectByName", "select \"id\", \"name\" from continent where \"name\" = ?");
-		sql.put("selectAll", "select \"id\", \"name\" from continent order by name");
+		sql.put("selectAll", "select \"id\", \"name\" from continent order by \"name\"");
 		sql.put("insert", "insert into continent (\"name\") values (?)");
 		sql.put("update", "update continent set \"name\" = ? where \"id\" = ?");
 		sql.put("delete", "delete from continent where \"id\" = ?");
@@ -132,19 +133,10 @@ public class ContinentHandler extends AbstractDatabaseHandler implements Handler
 	 * 
 	 */
 	private Continent read(String sql, Object[] params) throws ContinentNotFoundException, DatabaseIOException {
-		Continent continent = null;
-
-		try {
-			ResultSet record = this.select(sql, params);
+		Continent continent = this.selectOne(sql, params);
 
-			if (record.next()) {
-				continent = this.resultSetToObject(record);
-				record.close();
-			} else {
-				throw new ContinentNotFoundException();
-			}
-		} catch (SQLException e) {
-			throw new DatabaseIOException("Error while reading from result set: " + e.getErrorCode());
+		if (continent == null) {
+			throw new ContinentNotFoundException();
 		}
 
 		return continent;
@@ -160,26 +152,77 @@ public class ContinentHandler extends AbstractDatabaseHandler implements Handler
 	 */
 	@Override
 	public Vector<Continent> readAll() throws PersistenceException {
-		Vector<Continent> continents = new Vector<Continent>();
+		try {
+			return this.selectAll(sql.get("selectAll"));
+		} catch (DatabaseIOException e) {
+			throw new PersistenceException("Error occurred while receiving "
+											+"a continent list from the database: "
+											 +e.getMessage());
+		}
+	}
+
+	/**
+	 * Persists all given continents in the database. The existing
+	 * continents will be updated with one batch, the new ones will
+	 * be inserted with a second batch. The generated ids of the new
+	 * continents will be read with one query afterwards.
+	 * 
+	 * @param registrables The registrable continents.
+	 * 
+	 * @throws ContinentExistsException 
+	 * @throws PersistenceException
+	 * 
+	 */
+	@Override
+	public void saveAll(Vector<? extends ValueObject> registrables) throws ContinentExistsException, PersistenceException {
+		Vector<Object[]> updates = new Vector<Object[]>();
+		for (ValueObject registrable : registrables) {
+			Continent continent = (Continent)registrable;
+
+			if (continent.getId() > 0) {
+				Object[] params = {continent.getName(), continent.getId()};
+				updates.add(params);
+			}
+		}
 
 		try {
-			ResultSet record = this.select(sql.get("selectAll"));
+			int[] updated = this.updateBatch(sql.get("update"), updates);
+
+			// Insert the new continents and the continents, which weren't found by their id.
+			Vector<Continent> insertables = new Vector<Continent>();
+			Vector<Object[]> inserts = new Vector<Object[]>();
+			int update = 0;
+
+			for (ValueObject registrable : registrables) {
+				Continent continent = (Continent)registrable;
 
-			while (record.next()) {
-				continents.add(this.resultSetToObject(record));
+				if ((continent.getId() <= 0) || (updated[update++] == 0)) {
+					Object[] params = {continent.getName()};
+					inserts.add(params);
+					insertables.add(continent);
+				}
 			}
 
-			record.close();
+			this.insertBatch(sql.get("insert"), inserts);
+
+			// The new continents do not have a continent id.
+			// So we read all continents and fulfill the ids by the names.
+			if (!insertables.isEmpty()) {
+				HashMap<String, Integer> ids = new HashMap<String, Integer>();
+				for (Continent stored : this.selectAll(sql.get("selectAll"))) {
+					ids.put(stored.getName(), stored.getId());
+				}
+
+				for (Continent continent : insertables) {
+					continent.setId(ids.get(continent.getName()));
+				}
+			}
+		} catch (DatabaseDuplicateRecordException ex) {
+			throw new ContinentExistsException("Unable to serialize the continents. "
+					+"There is already a similar one.");
 		} catch (DatabaseIOException e) {
-			throw new PersistenceException(e.getMessage());
-		} catch (SQLException e) {
-			throw new PersistenceException("Error occurred while receiving "
-											+"a continent list from the database: "
-											 +e.getMessage()+" - "
-											 +e.getErrorCode());
+			throw new PersistenceException("Unable to serialize the continents. Reason: "+e.getMessage());
 		}
-
-		return continents;
 	}
 
 	/**
@@ -29,9 +29,13 @@
  */
 package de.hochschule.bremen.minerva.server.persistence.db.handler;
 
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Map.Entry;
 import java.util.Vector;
 
 import de.hochschule.bremen.minerva.commons.util.ColorTool;
@@ -39,6 +43,7 @@ import de.hochschule.bremen.minerva.commons.vo.Continent;
 import de.hochschule.bremen.minerva.commons.vo.Country;
 import de.hochschule.bremen.minerva.commons.vo.ValueObject;
 import de.hochschule.bremen.minerva.commons.vo.World;
+import de.hochschule.bremen.minerva.server.persistence.BatchHandler;
 import de.hochschule.bremen.minerva.server.persistence.Handler;
 import de.hochschule.bremen.minerva.server.persistence.db.exceptions.DatabaseDuplicateRecordException;
 import de.hochschule.bremen.minerva.server.persistence.db.exceptions.DatabaseIOException;
@@ -54,19 +59,23 @@ import de.hochschule.bremen.minerva.server.persistence.exceptions.PersistenceExc
  * @version $Id: CountryHandler.java 663 2010-07-04 16:24:05Z andre.koenig $
  *
  */
-public class CountryHandler extends AbstractDatabaseHandler implements Handler {
+public class CountryHandler extends AbstractDatabaseHandler<Country> implements Handler, BatchHandler {
 
 	//private static Logger LOGGER = Logger.getLogger(CountryHandler.class.getName());
 	
+	// Marks an unknown anchor or bounding box (e.g. worlds which were imported before the calculation existed).
+	private final static int UNKNOWN_POSITION = -1;
+
 	private final static HashMap<String, String> sql = new HashMap<String, String>();
 
 	static {
-		sql.put("selectById", "select \"id\", \"token\", \"name\", \"color\", \"continent\", \"world\" from country where \"id\" = ?");
-		sql.put("selectByName", "select \"id\", \"token\", \"name\", \"color\", \"continent\", \"world\" from country where \"name\" = ?");
-		sql.put("selectAllByWorldId", "select \"id\", \"token\", \"name\", \"color\", \"continent\", \"world\" from country where \"world\" = ?");
-		sql.put("selectAllByContinentId", "select \"id\", \"token\", \"name\", \"color\", \"continent\", \"world\" from country where \"continent\" = ?");
-		sql.put("insert", "insert into country (\"token\", \"name\", \"color\", \"continent\", \"world\") values (?, ?, ?, ?, ?)");
-		sql.put("update", "update country set \"token\" = ?, \"name\" = ?, \"color\" = ?, \"continent\" = ?, \"world\" = ? where \"id\" = ?");
+		sql.put("selectById", "select \"id\", \"token\", \"name\", \"color\", \"continent\", \"world\", \"anchor_x\", \"anchor_y\", \"bounds_x\", \"bounds_y\", \"bounds_width\", \"bounds_height\" from country where \"id\" = ?");
+		sql.put("selectByName", "select \"id\", \"token\", \"name\", \"color\", \"continent\", \"world\", \"anchor_x\", \"anchor_y\", \"bounds_x\", \"bounds_y\", \"bounds_width\", \"bounds_height\" from country where \"name\" = ?");
+		sql.put("selectAll", "select \"id\", \"token\", \"name\", \"color\", \"continent\", \"world\", \"anchor_x\", \"anchor_y\", \"bounds_x\", \"bounds_y\", \"bounds_width\", \"bounds_height\" from country order by \"world\", \"id\"");
+		sql.put("selectAllByWorldId", "select \"id\", \"token\", \"name\", \"color\", \"continent\", \"world\", \"anchor_x\", \"anchor_y\", \"bounds_x\", \"bounds_y\", \"bounds_width\", \"bounds_height\" from country where \"world\" = ?");
+		sql.put("selectAllByContinentId", "select \"id\", \"token\", \"name\", \"color\", \"continent\", \"world\", \"anchor_x\", \"anchor_y\", \"bounds_x\", \"bounds_y\", \"bounds_width\", \"bounds_height\" from country where \"continent\" = ?");
+		sql.put("insert", "insert into country (\"token\", \"name\", \"color\", \"continent\", \"world\", \"anchor_x\", \"anchor_y\", \"bounds_x\", \"bounds_y\", \"bounds_width\", \"bounds_height\") values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+		sql.put("update", "update country set \"token\" = ?, \"name\" = ?, \"color\" = ?, \"continent\" = ?, \"world\" = ?, \"anchor_x\" = ?, \"anchor_y\" = ?, \"bounds_x\" = ?, \"bounds_y\" = ?, \"bounds_width\" = ?, \"bounds_height\" = ? where \"id\" = ?");
 		sql.put("delete", "delete from country where \"id\" = ?");
 	}
 
@@ -138,32 +147,20 @@ public class CountryHandler extends AbstractDatabaseHandler implements Handler {
 	 * 
 	 */
 	private Country read(String sql, Object[] params) throws CountryNotFoundException, DatabaseIOException {
-		Country country = null;
-
-		try {
-			ResultSet record = this.select(sql, params);
+		Country country = this.selectOne(sql, params);
 
-			if (record.next()) {
-				country = this.resultSetToObject(record);
-				record.close();
-			} else {
-				throw new CountryNotFoundException();
-			}
-		} catch (SQLException e) {
-			throw new DatabaseIOException("Error while reading from result set: " + e.getErrorCode());
+		if (country == null) {
+			throw new CountryNotFoundException();
 		}
 
 		return country;
 	}
 
 	/**
-	 * Reads all countries from the database.
-	 * We also read the first world from the database and use
-	 * this as reference for selecting the countries. Well, the
-	 * first world is our default world ;)
-	 * 
-	 * This is a wrapper class for the private method:
-	 * readAll(int byWorldId).
+	 * Reads all countries (of all worlds) from the database
+	 * with one single query. The countries are ordered by
+	 * world and id. Use the country's world id for
+	 * assigning them to their worlds.
 	 * 
 	 * @return A collection with the selected countries.
 	 *
@@ -172,10 +169,12 @@ public class CountryHandler extends AbstractDatabaseHandler implements Handler {
 	 */
 	@Override
 	public Vector<Country> readAll() throws PersistenceException {
-		WorldHandler handler = new WorldHandler();
-		Vector<World> worlds = handler.readAll();
-
-		return this.readAll(worlds.firstElement());
+		try {
+			return this.readAll(sql.get("selectAll"), new Object[0]);
+		} catch (PersistenceException e) {
+			throw new PersistenceException("Error while reading all countries "
+					+"from the database: "+e.getMessage());
+		}
 	}
 
 	/**
@@ -255,23 +254,11 @@ public class CountryHandler extends AbstractDatabaseHandler implements Handler {
 	 *
 	 */
 	private Vector<Country> readAll(String sql, Object[] params) throws PersistenceException {
-		Vector<Country> countries = new Vector<Country>();
-
 		try {
-			ResultSet record = this.select(sql, params);
-
-			while (record.next()) {
-				countries.add(this.resultSetToObject(record));
-			}
-
-			record.close();
+			return this.selectAll(sql, params);
 		} catch (DatabaseIOException e) {
 			throw new PersistenceException(e.getMessage());
-		} catch (SQLException e) {
-			throw new PersistenceException("SQL error code: "+e.getErrorCode());
 		}
-
-		return countries;		
 	}
 	
 	/**
@@ -314,26 +301,9 @@ public class CountryHandler extends AbstractDatabaseHandler implements Handler {
 				// will update the record else we will insert it.
 				this.read(registrableCountry.getId());
 
-				Object[] params = {
-					registrableCountry.getToken(),
-					registrableCountry.getName(),
-					ColorTool.toHexCode(registrableCountry.getColor()),
-					registrableCountry.getContinent().getId(),
-					registrableCountry.getWorldId(),
-					registrableCountry.getId()
-				};
-
-				this.update(sql.get("update"), params);
+				this.update(sql.get("update"), this.toParams(registrableCountry, true));
 			} catch (CountryNotFoundException e) {
-				Object[] params = {
-					registrableCountry.getToken(),
-					registrableCountry.getName(),
-					ColorTool.toHexCode(registrableCountry.getColor()),
-					registrableCountry.getContinent().getId(),
-					registrableCountry.getWorldId()
-				};
-
-				this.insert(sql.get("insert"), params);
+				this.insert(sql.get("insert"), this.toParams(registrableCountry, false));
 			}
 		} catch (DatabaseDuplicateRecordException ex) {
 			throw new CountryExistsException("Unable to serialize the "
@@ -355,6 +325,122 @@ public class CountryHandler extends AbstractDatabaseHandler implements Handler {
 		candidate = registrableCountry;
 	}
 
+	/**
+	 * Persists all given countries in the database. The existing
+	 * countries will be updated with one batch, the new ones will
+	 * be inserted with a second batch. The generated ids of the new
+	 * countries will be read with one query per world afterwards.
+	 * 
+	 * @param candidates The registrable countries.
+	 * 
+	 * @throws CountryExistsException
+	 * @throws PersistenceException
+	 * 
+	 */
+	@Override
+	public void saveAll(Vector<? extends ValueObject> candidates) throws CountryExistsException, PersistenceException {
+		Vector<Object[]> updates = new Vector<Object[]>();
+		for (ValueObject candidate : candidates) {
+			Country country = (Country)candidate;
+
+			if (country.getId() > 0) {
+				updates.add(this.toParams(country, true));
+			}
+		}
+
+		try {
+			int[] updated = this.updateBatch(sql.get("update"), updates);
+
+			// Insert the new countries and the countries, which weren't found by their id.
+			HashMap<Integer, Vector<Country>> insertables = new HashMap<Integer, Vector<Country>>();
+			Vector<Object[]> inserts = new Vector<Object[]>();
+			int update = 0;
+
+			for (ValueObject candidate : candidates) {
+				Country country = (Country)candidate;
+
+				if ((country.getId() <= 0) || (updated[update++] == 0)) {
+					inserts.add(this.toParams(country, false));
+
+					Vector<Country> worldCountries = insertables.get(country.getWorldId());
+					if (worldCountries == null) {
+						worldCountries = new Vector<Country>();
+						insertables.put(country.getWorldId(), worldCountries);
+					}
+					worldCountries.add(country);
+				}
+			}
+
+			this.insertBatch(sql.get("insert"), inserts);
+
+			// The new countries do not have a country id. So we read the countries of
+			// the world and fulfill the ids by the token and name (unique per world).
+			for (Entry<Integer, Vector<Country>> entry : insertables.entrySet()) {
+				HashMap<String, Integer> ids = new HashMap<String, Integer>();
+				Object[] params = {entry.getKey()};
+
+				for (Country stored : this.selectAll(sql.get("selectAllByWorldId"), params)) {
+					ids.put(CountryHandler.toKey(stored), stored.getId());
+				}
+
+				for (Country country : entry.getValue()) {
+					country.setId(ids.get(CountryHandler.toKey(country)));
+				}
+			}
+		} catch (DatabaseDuplicateRecordException ex) {
+			throw new CountryExistsException("Unable to serialize the "
+						+"countries. There is already a similar one.");
+		} catch (DatabaseIOException e) {
+			throw new PersistenceException("Unable to serialize the countries. Reason: "+e.getMessage());
+		}
+	}
+
+	/**
+	 * Converts the given country into the parameters of
+	 * the insert or update statement.
+	 * 
+	 * @param country The country.
+	 * @param update Parameters for the update statement (with the id as last parameter)?
+	 * @return The statement parameters.
+	 * 
+	 */
+	private Object[] toParams(Country country, boolean update) {
+		// An unknown anchor or bounding box will be stored as -1.
+		Point anchor = country.getAnchor();
+		int anchorX = (anchor == null) ? UNKNOWN_POSITION : anchor.x;
+		int anchorY = (anchor == null) ? UNKNOWN_POSITION : anchor.y;
+
+		Rectangle bounds = country.getBounds();
+		int boundsX = (bounds == null) ? UNKNOWN_POSITION : bounds.x;
+		int boundsY = (bounds == null) ? UNKNOWN_POSITION : bounds.y;
+		int boundsWidth = (bounds == null) ? UNKNOWN_POSITION : bounds.width;
+		int boundsHeight = (bounds == null) ? UNKNOWN_POSITION : bounds.height;
+
+		Object[] params = {
+			country.getToken(),
+			country.getName(),
+			ColorTool.toHexCode(country.getColor()),
+			country.getContinent().getId(),
+			country.getWorldId(),
+			anchorX, anchorY,
+			boundsX, boundsY, boundsWidth, boundsHeight,
+			country.getId()
+		};
+
+		return (update) ? params : Arrays.copyOf(params, params.length - 1);
+	}
+
+	/**
+	 * Returns the key, which identifies a country within its world.
+	 * 
+	 * @param country The country.
+	 * @return The key (token and name).
+	 * 
+	 */
+	private static String toKey(Country country) {
+		return country.getToken() + "\n" + country.getName();
+	}
+
 	/**
 	 * Converts a database result set to an
 	 * country value object.
@@ -382,6 +468,14 @@ public class CountryHandler extends AbstractDatabaseHandler implements Handler {
 
 		country.setWorldId(current.getInt(6));
 
+		if (current.getInt(7) != UNKNOWN_POSITION) {
+			country.setAnchor(new Point(current.getInt(7), current.getInt(8)));
+		}
+
+		if (current.getInt(9) != UNKNOWN_POSITION) {
+			country.setBounds(new Rectangle(current.getInt(9), current.getInt(10), current.getInt(11), current.getInt(12)));
+		}
+
 		return country;
 	}
 }
\ No newline at end of file
@@ -37,6 +37,8 @@ import java.util.Vector;
 import de.hochschule.bremen.minerva.commons.vo.Country;
 import de.hochschule.bremen.minerva.commons.vo.Neighbour;
 import de.hochschule.bremen.minerva.commons.vo.ValueObject;
+import de.hochschule.bremen.minerva.commons.vo.World;
+import de.hochschule.bremen.minerva.server.persistence.BatchHandler;
 import de.hochschule.bremen.minerva.server.persistence.Handler;
 import de.hochschule.bremen.minerva.server.persistence.db.exceptions.DatabaseDuplicateRecordException;
 import de.hochschule.bremen.minerva.server.persistence.db.exceptions.DatabaseIOException;
@@ -52,13 +54,16 @@ import de.hochschule.bremen.minerva.server.persistence.exceptions.PersistenceExc
  * @version $Id: NeighbourHandler.java 663 2010-07-04 16:24:05Z andre.koenig $
  *
  */
-public class NeighbourHandler extends AbstractDatabaseHandler implements Handler {
+public class NeighbourHandler extends AbstractDatabaseHandler<Neighbour> implements Handler, BatchHandler {
 
 	private final static HashMap<String, String> sql = new HashMap<String, String>();
 
 	static {
 		sql.put("selectByMappingId", "select \"id\", \"neighbour_country\", \"country\" as \"neighbour\" from neighbour where \"id\" = ?");
 		sql.put("selectByReferencedCountryId", "select \"id\", \"neighbour_country\", \"country\" as \"neighbour\" from neighbour where \"country\" = ?");
+		sql.put("selectAll", "select \"id\", \"neighbour_country\", \"country\" as \"neighbour\" from neighbour order by \"country\", \"neighbour_country\"");
+		sql.put("selectAllByWorldId", "select n.\"id\", n.\"neighbour_country\", n.\"country\" as \"neighbour\" from neighbour n inner join country c on n.\"country\" = c.\"id\" where c.\"world\" = ? order by n.\"country\", n.\"neighbour_country\"");
+		sql.put("selectAllByCountryWorld", "select n.\"id\", n.\"neighbour_country\", n.\"country\" as \"neighbour\" from neighbour n inner join country c on n.\"country\" = c.\"id\" where c.\"world\" = (select \"world\" from country where \"id\" = ?)");
 		sql.put("insert", "insert into neighbour (\"country\", \"neighbour_country\") values (?, ?)");
 		sql.put("update", "update neighbour set \"country\" = ?, \"neighbour_country\" = ? where \"id\" = ?");
 	}
@@ -104,60 +109,84 @@ public class NeighbourHandler extends AbstractDatabaseHandler implements Handler
 	 * 
 	 */
 	private Neighbour read(String sql, Object[] params) throws NeighbourNotFoundException, DatabaseIOException {
-		Neighbour neighbour = null;
-
-		try {
-			ResultSet record = this.select(sql, params);
+		Neighbour neighbour = this.selectOne(sql, params);
 
-			if (record.next()) {
-				neighbour = this.resultSetToObject(record);
-				record.close();
-			} else {
-				throw new NeighbourNotFoundException();
-			}
-		} catch (SQLException e) {
-			throw new DatabaseIOException("Error while reading from result set: " + e.getErrorCode());
+		if (neighbour == null) {
+			throw new NeighbourNotFoundException();
 		}
 
 		return neighbour;
 	}
 
 	/**
-	 * Reads all neighbours by a given reference country
+	 * Reads all neighbours by a given reference value object.
+	 * This is a country (the neighbours of this country) or
+	 * a world (all neighbour relations of the world's countries).
 	 * 
-	 * @param referencedCountry The country whose neighbours we are looking for.
+	 * @param reference The country or world whose neighbours we are looking for.
 	 * @return A vector with all neighbours.
 	 *
 	 * @throws PersistenceException
 	 * 
 	 */
 	@Override
-	public Vector<Neighbour> readAll(ValueObject referencedCountry) throws PersistenceException {
-		Country referenceCountry = (Country)referencedCountry;
-		Vector<Neighbour> neighbours = new Vector<Neighbour>();
+	public Vector<Neighbour> readAll(ValueObject reference) throws PersistenceException {
+		Vector<Neighbour> neighbours = null;
 
-		try {
-			Object[] params = {referenceCountry.getId()};
-			ResultSet record = this.select(sql.get("selectByReferencedCountryId"), params);
+		if (reference instanceof Country) {
+			neighbours = this.readAll((Country)reference);
+		} else if (reference instanceof World) {
+			neighbours = this.readAll((World)reference);
+		} else {
+			throw new PersistenceException("There is no method implementation for the given value object: "+reference.getClass());
+		}
 
-			while (record.next()) {
-				Neighbour neighbour = this.resultSetToObject(record);
-				neighbours.add(neighbour);
-			}
+		return neighbours;
+	}
 
-			record.close();
+	/**
+	 * Reads all neighbours by a given reference country
+	 * 
+	 * @param referenceCountry The country whose neighbours we are looking for.
+	 * @return A vector with all neighbours.
+	 *
+	 * @throws PersistenceException
+	 * 
+	 */
+	private Vector<Neighbour> readAll(Country referenceCountry) throws PersistenceException {
+		try {
+			Object[] params = {referenceCountry.getId()};
+			return this.selectAll(sql.get("selectByReferencedCountryId"), params);
 		} catch (DatabaseIOException e) {
-			throw new PersistenceException(e.getMessage());
-		} catch (SQLException e) {
 			throw new PersistenceException("Error occurred while "
 											+"receiving a neighbours "
 											+"from the database (reference "
 											+"country = "+referenceCountry.getId()+"): "
-											+e.getMessage()
-											+" - "+e.getErrorCode());
+											+e.getMessage());
 		}
+	}
 
-		return neighbours;
+	/**
+	 * Reads all neighbour relations of the countries which
+	 * are linked to the given world with one single query.
+	 * 
+	 * @param byWorld The world whose neighbour relations we are looking for.
+	 * @return A vector with all neighbours (the reference country is the source of the relation).
+	 *
+	 * @throws PersistenceException
+	 * 
+	 */
+	private Vector<Neighbour> readAll(World byWorld) throws PersistenceException {
+		try {
+			Object[] params = {byWorld.getId()};
+			return this.selectAll(sql.get("selectAllByWorldId"), params);
+		} catch (DatabaseIOException e) {
+			throw new PersistenceException("Error occurred while "
+											+"receiving the neighbours "
+											+"from the database (world = "
+											+byWorld.getId()+"): "
+											+e.getMessage());
+		}
 	}
 
 	/**
@@ -205,6 +234,94 @@ public class NeighbourHandler extends AbstractDatabaseHandler implements Handler
 		}
 	}
 	
+	/**
+	 * Saves all given neighbour-country mappings. The existing mappings
+	 * will be updated with one batch, the new ones will be inserted
+	 * with a second batch. The generated mapping ids will be read with
+	 * one query per world afterwards.
+	 * 
+	 * @param registrables The registrable neighbour value objects.
+	 * 
+	 * @throws NeighbourExistsException
+	 * @throws PersistenceException
+	 * 
+	 */
+	@Override
+	public void saveAll(Vector<? extends ValueObject> registrables) throws NeighbourExistsException, PersistenceException {
+		Vector<Object[]> updates = new Vector<Object[]>();
+		for (ValueObject registrable : registrables) {
+			Neighbour neighbour = (Neighbour)registrable;
+
+			if (neighbour.getMappingId() > 0) {
+				Object[] params = {
+					neighbour.getReference().getId(),
+					neighbour.getId(),
+					neighbour.getMappingId()
+				};
+				updates.add(params);
+			}
+		}
+
+		try {
+			int[] updated = this.updateBatch(sql.get("update"), updates);
+
+			// Insert the new mappings and the mappings, which weren't found by their id.
+			HashMap<String, Neighbour> insertables = new HashMap<String, Neighbour>();
+			Vector<Object[]> inserts = new Vector<Object[]>();
+			int update = 0;
+
+			for (ValueObject registrable : registrables) {
+				Neighbour neighbour = (Neighbour)registrable;
+
+				if ((neighbour.getMappingId() <= 0) || (updated[update++] == 0)) {
+					Object[] params = {
+						neighbour.getReference().getId(),
+						neighbour.getId()
+					};
+					inserts.add(params);
+					insertables.put(NeighbourHandler.toKey(neighbour), neighbour);
+				}
+			}
+
+			this.insertBatch(sql.get("insert"), inserts);
+
+			// Read the mapping ids. One query delivers all mappings of
+			// the world to which the reference country belongs.
+			while (!insertables.isEmpty()) {
+				Neighbour first = insertables.values().iterator().next();
+				Object[] params = {first.getReference().getId()};
+
+				for (Neighbour stored : this.selectAll(sql.get("selectAllByCountryWorld"), params)) {
+					Neighbour neighbour = insertables.remove(NeighbourHandler.toKey(stored));
+
+					if (neighbour != null) {
+						neighbour.setMappingId(stored.getMappingId());
+					}
+				}
+
+				// Avoids an endless loop, if the mapping wasn't found.
+				// Not possible, we created the mapping moments before.
+				insertables.remove(NeighbourHandler.toKey(first));
+			}
+		} catch (DatabaseDuplicateRecordException e) {
+			throw new NeighbourExistsException("Unable to serialize the "
+					+"neighbour relations. There is already a similar relation.");
+		} catch (DatabaseIOException e) {
+			throw new PersistenceException("Unable to serialize the neighbour mappings. Reason: "+e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the key, which identifies a neighbour relation.
+	 * 
+	 * @param neighbour The neighbour value object.
+	 * @return The key (reference country id and neighbour id).
+	 * 
+	 */
+	private static String toKey(Neighbour neighbour) {
+		return neighbour.getReference().getId() + "-" + neighbour.getId();
+	}
+
 	/**
 	 * Converts a database result set to an
 	 * neighbour value object.
@@ -228,12 +345,25 @@ public class NeighbourHandler extends AbstractDatabaseHandler implements Handler
 	}
 
 	/**
-	 * Not in use. But the interface forces me to declare this method.
-	 * What a pity! Would be great to define a second interface, but, well the time :(
+	 * Reads all neighbour relations (of all worlds)
+	 * from the database with one single query.
+	 * 
+	 * @return A vector with all neighbours (the reference country is the source of the relation).
+	 *
+	 * @throws PersistenceException
 	 * 
 	 */
 	@Override
-	public Vector<? extends ValueObject> readAll() throws PersistenceException {return null;}
+	public Vector<Neighbour> readAll() throws PersistenceException {
+		try {
+			return this.selectAll(sql.get("selectAll"));
+		} catch (DatabaseIOException e) {
+			throw new PersistenceException("Error occurred while "
+											+"receiving all neighbours "
+											+"from the database: "
+											+e.getMessage());
+		}
+	}
 
 	/**
 	 * Not in use. But the interface forces me to declare this method.
@@ -52,7 +52,7 @@ import de.hochschule.bremen.minerva.server.persistence.exceptions.PlayerNotFound
  * @version $Id: PlayerHandler.java 663 2010-07-04 16:24:05Z andre.koenig $
  *
  */
-public class PlayerHandler extends AbstractDatabaseHandler implements Handler {
+public class PlayerHandler extends AbstractDatabaseHandler<Player> implements Handler {
 
 	private final static HashMap<String, String> sql = new HashMap<String, String>();
 
@@ -134,19 +134,10 @@ public class PlayerHandler extends AbstractDatabaseHandler implements Handler {
 	 *
 	 */
 	private Player read(String sql, Object[] params) throws PlayerNotFoundException, DatabaseIOException {
-		Player player = null;
-
-		try {
-			ResultSet record = this.select(sql, params);
+		Player player = this.selectOne(sql, params);
 
-			if (record.next()) {
-				player = this.resultSetToObject(record);
-				record.close();
-			} else {
-				throw new PlayerNotFoundException();
-			}
-		} catch (SQLException e) {
-			throw new DatabaseIOException("Error while reading from result set: " + e.getErrorCode());
+		if (player == null) {
+			throw new PlayerNotFoundException();
 		}
 
 		return player;
@@ -161,24 +152,12 @@ public class PlayerHandler extends AbstractDatabaseHandler implements Handler {
 	 */
 	@Override
 	public Vector<Player> readAll() throws PersistenceException {
-		Vector<Player> players = new Vector<Player>();
-
 		try {
-			ResultSet record = this.select(sql.get("selectAll"));
-
-			while (record.next()) {
-				players.add(this.resultSetToObject(record));
-			}
-
-			record.close();
+			return this.selectAll(sql.get("selectAll"));
 		} catch (DatabaseIOException e) {
-			throw new PersistenceException(e.getMessage());
-		} catch (SQLException e) {
 			throw new PersistenceException("Error occurred while receiving a player list from the database: "
-											 +e.getMessage()+" - "+e.getErrorCode());
+											 +e.getMessage());
 		}
-		
-		return players;
 	}
 
 	/**
@@ -51,7 +51,7 @@ import de.hochschule.bremen.minerva.server.persistence.exceptions.WorldNotFoundE
  * @version $Id: WorldHandler.java 663 2010-07-04 16:24:05Z andre.koenig $
  *
  */
-public class WorldHandler extends AbstractDatabaseHandler implements Handler {
+public class WorldHandler extends AbstractDatabaseHandler<World> implements Handler {
 
 	private final static HashMap<String, String> sql = new HashMap<String, String>();
 
@@ -131,19 +131,10 @@ public class WorldHandler extends AbstractDatabaseHandler implements Handler {
 	 *
 	 */
 	private World read(String sql, Object[] params) throws WorldNotFoundException, DatabaseIOException {
-		World world = new World();
-
-		try {
-			ResultSet record = this.select(sql, params);
+		World world = this.selectOne(sql, params);
 
-			if (record.next()) {
-				world = this.resultSetToObject(record);
-				record.close();
-			} else {
-				throw new WorldNotFoundException();
-			}
-		} catch (SQLException e) {
-			throw new DatabaseIOException("Error while reading from result set: " + e.getErrorCode());
+		if (world == null) {
+			throw new WorldNotFoundException();
 		}
 
 		return world;
@@ -160,24 +151,12 @@ public class WorldHandler extends AbstractDatabaseHandler implements Handler {
 	 */
 	@Override
 	public Vector<World> readAll() throws PersistenceException {
-		Vector<World> worlds = new Vector<World>();
-
 		try {
-			ResultSet record = this.select(sql.get("selectAll"));
-
-			while (record.next()) {
-				worlds.add(this.resultSetToObject(record));
-			}
-
-			record.close();
+			return this.selectAll(sql.get("selectAll"));
 		} catch (DatabaseIOException e) {
-			throw new PersistenceException(e.getMessage());
-		} catch (SQLException e) {
 			throw new PersistenceException("Error occurred while receiving a world list from the database: "
-											 +e.getMessage()+" - "+e.getErrorCode());
+											 +e.getMessage());
 		}
-
-		return worlds;
 	}
 
 	/**
@@ -36,6 +36,7 @@ import de.hochschule.bremen.minerva.commons.vo.Player;
 import de.hochschule.bremen.minerva.commons.vo.World;
 import de.hochschule.bremen.minerva.server.persistence.Handler;
 import de.hochschule.bremen.minerva.server.persistence.Persistence;
+import de.hochschule.bremen.minerva.server.persistence.exceptions.PersistenceException;
 import de.hochschule.bremen.minerva.server.persistence.file.handler.ContinentHandler;
 import de.hochschule.bremen.minerva.server.persistence.file.handler.CountryHandler;
 import de.hochschule.bremen.minerva.server.persistence.file.handler.NeighbourHandler;
@@ -60,4 +61,18 @@ public class FilebasedPersistence implements Persistence {
 		return null;
 	}
 
+	@Override
+	public void beginTransaction() throws PersistenceException {
+		System.out.println("FilebasedPersistence.beginTransaction() - Filebased storage is not implemented.");
+	}
+
+	@Override
+	public void commitTransaction() throws PersistenceException {
+		System.out.println("FilebasedPersistence.commitTransaction() - Filebased storage is not implemented.");
+	}
+
+	@Override
+	public void rollbackTransaction() throws PersistenceException {
+		System.out.println("FilebasedPersistence.rollbackTransaction() - Filebased storage is not implemented.");
+	}
 }
@@ -33,6 +33,7 @@ import java.util.Vector;
 
 import de.hochschule.bremen.minerva.commons.vo.Continent;
 import de.hochschule.bremen.minerva.commons.vo.ValueObject;
+import de.hochschule.bremen.minerva.server.persistence.BatchHandler;
 import de.hochschule.bremen.minerva.server.persistence.Handler;
 import de.hochschule.bremen.minerva.server.persistence.exceptions.ContinentExistsException;
 import de.hochschule.bremen.minerva.server.persistence.exceptions.ContinentNotFoundException;
@@ -153,6 +154,30 @@ public class ContinentService extends PersistenceService {
 		}
 	}
 
+	/**
+	 * Saves all given continents at once (if the persistence
+	 * handler supports it, otherwise one after another).
+	 * 
+	 * @param candidates The saveable continents.
+	 * 
+	 * @throws ContinentExistsException
+	 * @throws PersistenceException Common persistence exception.
+	 * 
+	 */
+	public void saveAll(Vector<Continent> candidates) throws ContinentExistsException, PersistenceException {
+		try {
+			if (handler instanceof BatchHandler) {
+				((BatchHandler)handler).saveAll(candidates);
+			} else {
+				for (Continent candidate : candidates) {
+					handler.save(candidate);
+				}
+			}
+		} catch (EntryExistsException e) {
+			throw new ContinentExistsException(e.getMessage());
+		}
+	}
+
 	/**
 	 * Deletes a continent.
 	 * 
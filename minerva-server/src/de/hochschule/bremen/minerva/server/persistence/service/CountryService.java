@@ -33,6 +33,7 @@ import java.util.Vector;
 
 import de.hochschule.bremen.minerva.commons.vo.Country;
 import de.hochschule.bremen.minerva.commons.vo.ValueObject;
+import de.hochschule.bremen.minerva.server.persistence.BatchHandler;
 import de.hochschule.bremen.minerva.server.persistence.Handler;
 import de.hochschule.bremen.minerva.server.persistence.exceptions.CountryExistsException;
 import de.hochschule.bremen.minerva.server.persistence.exceptions.CountryNotFoundException;
@@ -170,6 +171,30 @@ public class CountryService extends PersistenceService {
 		}
 	}
 
+	/**
+	 * Saves all given countries at once (if the persistence
+	 * handler supports it, otherwise one after another).
+	 * 
+	 * @param candidates The saveable countries.
+	 * 
+	 * @throws CountryExistsException
+	 * @throws PersistenceException Common persistence exception.
+	 * 
+	 */
+	public void saveAll(Vector<Country> candidates) throws CountryExistsException, PersistenceException {
+		try {
+			if (handler instanceof BatchHandler) {
+				((BatchHandler)handler).saveAll(candidates);
+			} else {
+				for (Country candidate : candidates) {
+					handler.save(candidate);
+				}
+			}
+		} catch (EntryExistsException e) {
+			throw new CountryExistsException(e.getMessage());
+		}
+	}
+
 	/**
 	 * Deletes a country.
 	 * 
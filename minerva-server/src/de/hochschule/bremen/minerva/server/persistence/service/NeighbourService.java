@@ -34,6 +34,8 @@ import java.util.Vector;
 import de.hochschule.bremen.minerva.commons.vo.Country;
 import de.hochschule.bremen.minerva.commons.vo.Neighbour;
 import de.hochschule.bremen.minerva.commons.vo.ValueObject;
+import de.hochschule.bremen.minerva.commons.vo.World;
+import de.hochschule.bremen.minerva.server.persistence.BatchHandler;
 import de.hochschule.bremen.minerva.server.persistence.Handler;
 import de.hochschule.bremen.minerva.server.persistence.exceptions.EntryExistsException;
 import de.hochschule.bremen.minerva.server.persistence.exceptions.EntryNotFoundException;
@@ -95,6 +97,22 @@ public class NeighbourService extends PersistenceService {
 		return (Vector<Neighbour>)handler.readAll(byCountry);
 	}
 
+	/**
+	 * Loads all neighbour relations of the given world's countries
+	 * with one single query. The reference country of each neighbour
+	 * is the source of the relation.
+	 * 
+	 * @param byWorld The world, which neighbour relations should determined.
+	 * @return A vector with the neighbour relations.
+	 * 
+	 * @throws PersistenceException Common persistence exception.
+	 * 
+	 */
+	@SuppressWarnings("unchecked")
+	public Vector<Neighbour> loadAll(World byWorld) throws PersistenceException {
+		return (Vector<Neighbour>)handler.readAll(byWorld);
+	}
+
 	/**
 	 * Finds a neighbour by an given id.
 	 * 
@@ -131,6 +149,30 @@ public class NeighbourService extends PersistenceService {
 		}
 	}
 
+	/**
+	 * Saves all given neighbours at once (if the persistence
+	 * handler supports it, otherwise one after another).
+	 * 
+	 * @param candidates The saveable neighbours.
+	 * 
+	 * @throws NeighbourExistsException
+	 * @throws PersistenceException Common persistence exception.
+	 * 
+	 */
+	public void saveAll(Vector<Neighbour> candidates) throws NeighbourExistsException, PersistenceException {
+		try {
+			if (handler instanceof BatchHandler) {
+				((BatchHandler)handler).saveAll(candidates);
+			} else {
+				for (Neighbour candidate : candidates) {
+					handler.save(candidate);
+				}
+			}
+		} catch (EntryExistsException e) {
+			throw new NeighbourExistsException(e.getMessage());
+		}
+	}
+
 	/**
 	 * Not implemented yet (not necessary at the moment).
 	 * This method should remove the country/neighbour-mapping.
@@ -140,12 +182,19 @@ public class NeighbourService extends PersistenceService {
 	public void delete(ValueObject candidate) throws PersistenceException {}
 
 	/**
-	 * Not implemented yet (not necessary at the moment).
-	 * Use {@link CountryService#findAll()} instead (Neighbour is a Country subclass).
+	 * Returns a vector with all neighbour relations (of all worlds).
+	 * The reference country of each neighbour is the source of the relation.
+	 * 
+	 * @return Neighbour vector.
+	 *
+	 * @throws PersistenceException Common persistence exception.
 	 * 
 	 */
 	@Override
-	public Vector<?> findAll() throws PersistenceException {return null;}
+	@SuppressWarnings("unchecked")
+	public Vector<Neighbour> findAll() throws PersistenceException {
+		return (Vector<Neighbour>)handler.readAll();
+	}
 
 	/**
 	 * Not implemented yet (not necessary at the moment).
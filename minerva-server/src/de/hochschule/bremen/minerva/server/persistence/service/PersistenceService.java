@@ -63,6 +63,38 @@ public abstract class PersistenceService {
 
 	abstract public void delete(ValueObject candidate) throws PersistenceException;
 
+	/**
+	 * Starts a transaction for the current thread. All following
+	 * operations of all services will be part of this transaction,
+	 * until it will be committed or rolled back.
+	 * 
+	 * @throws PersistenceException If the transaction could not be started.
+	 * 
+	 */
+	public static void beginTransaction() throws PersistenceException {
+		PersistenceService.storage.beginTransaction();
+	}
+
+	/**
+	 * Commits the transaction of the current thread.
+	 * 
+	 * @throws PersistenceException If the commit fails (the transaction was rolled back).
+	 * 
+	 */
+	public static void commitTransaction() throws PersistenceException {
+		PersistenceService.storage.commitTransaction();
+	}
+
+	/**
+	 * Rolls the transaction of the current thread back.
+	 * 
+	 * @throws PersistenceException If the rollback fails.
+	 * 
+	 */
+	public static void rollbackTransaction() throws PersistenceException {
+		PersistenceService.storage.rollbackTransaction();
+	}
+
 	/**
 	 * Possibility to switch the persistence engine.
 	 * We determine the current persistence engine and
@@ -29,6 +29,7 @@
  */
 package de.hochschule.bremen.minerva.server.util;
 
+import java.awt.image.BufferedImage;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
@@ -36,27 +37,26 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Vector;
-import java.util.Map.Entry;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
+import javax.imageio.ImageIO;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import de.hochschule.bremen.minerva.commons.exceptions.WorldFileExtensionException;
 import de.hochschule.bremen.minerva.commons.exceptions.WorldFileNotFoundException;
 import de.hochschule.bremen.minerva.commons.exceptions.WorldFileParseException;
 import de.hochschule.bremen.minerva.commons.util.ColorTool;
+import de.hochschule.bremen.minerva.commons.util.MapTool;
 import de.hochschule.bremen.minerva.commons.vo.Continent;
 import de.hochschule.bremen.minerva.commons.vo.Country;
 import de.hochschule.bremen.minerva.commons.vo.World;
@@ -76,6 +76,16 @@ public class WorldFile extends World {
 
 	private static final String WORLD_FILE_EXTENSION = ".world";
 	private static final String WORLD_FILE_XML = "data.xml";
+
+	// The element names of the world import file (data.xml).
+	private static final String NODE_META = "meta";
+	private static final String NODE_CONTINENTS = "continents";
+	private static final String NODE_CONTINENT = "continent";
+	private static final String NODE_COUNTRIES = "countries";
+	private static final String NODE_COUNTRY = "country";
+
+	// The parser messages start with the location, followed by this prefix.
+	private static final String XML_MESSAGE_PREFIX = "Message: ";
 	private static final File TEMP_DIR = new File(ApplicationConfigurationManager.get().getImporterWorkspaceDirectory());
 
 	// The "Importable" represents at the very beginning the "*.world file", but while the import process is running
@@ -106,8 +116,14 @@ public class WorldFile extends World {
 	// This temporally map contains the countries from the world import file.
 	private HashMap<Integer, Country> extractedCountries = new HashMap<Integer, Country>();
 
-	// The neighbor mapping. Because there is a different mapping in the worlds import file.
-	private HashMap<Integer, Vector<Integer>> neighbourMapping = new HashMap<Integer, Vector<Integer>>();
+	// The neighbor mapping (edge list with the country ids of the world import file).
+	// Because there is a different mapping in the worlds import file.
+	private int[] neighbourSources = new int[64];
+	private int[] neighbourTargets = new int[64];
+	private int neighbourCount = 0;
+
+	// The sections (meta, continents, countries), which were found in the world import file.
+	private HashSet<String> sections = new HashSet<String>();
 	
 	/**
 	 * Registers the world import file object.
@@ -138,24 +154,20 @@ public class WorldFile extends World {
 			this.validate();
 
 			this.extract();
-			
-			Element dataSource = this.openDataXml();
+
+			// Reads the data source (meta data, continents, countries
+			// and the neighbour mapping) in one streaming pass.
+			this.readDataXml();
 
 			// Data source validation.
 			// Is the world import file valid?
-			this.validate(dataSource);
+			this.validateDataXml();
 
-			this.extractMeta(dataSource);
-			this.extractContinents(dataSource);
-			this.extractCountries(dataSource);
+			this.extractCountryGeometry();
 		} catch (FileNotFoundException e) {
 			throw new WorldFileNotFoundException(this.importable);
 		} catch (IOException e) {
 			throw new WorldFileNotFoundException(this.importable);
-		} catch (SAXException e) {
-			throw new WorldFileParseException(e.getMessage());
-		} catch (ParserConfigurationException e) {
-			throw new WorldFileParseException(e.getMessage());
 		}
 	}
 
@@ -187,14 +199,16 @@ public class WorldFile extends World {
 			this.parse();
 		}
 
-		for (Entry<Integer, Vector<Integer>> entry : this.neighbourMapping.entrySet()) {
-			Country country = this.extractedCountries.get(entry.getKey());
+		for (int i = 0; i < this.neighbourCount; i++) {
+			Country country = this.extractedCountries.get(this.neighbourSources[i]);
+			Country neighbour = this.extractedCountries.get(this.neighbourTargets[i]);
 
-			for (int neighbourId : entry.getValue()) {
-				Country neighbour = this.extractedCountries.get(neighbourId);
-				
-				this.connectCountries(country, neighbour);
+			if (neighbour == null) {
+				throw new WorldFileParseException("Das Nachbarland mit der ID '" + this.neighbourTargets[i]
+						+ "' (Land: '" + country.getName() + "') existiert nicht.");
 			}
+
+			this.connectCountries(country, neighbour);
 		}
 	}
 
@@ -231,18 +245,96 @@ public class WorldFile extends World {
 	}
 
 	/**
-	 * Opens the world import file and returns the document root.
+	 * Reads the world import file (data.xml) with a streaming parser.
+	 * The document will not be loaded completely into the memory, the
+	 * meta data, continents, countries and the neighbour mapping will
+	 * be extracted in one pass.
 	 * 
-	 * @return The world import file root element.
-	 * @throws ParserConfigurationException
-	 * @throws SAXException Parser engine exception.
+	 * @throws WorldFileParseException If the document is not well-formed (with line and column).
 	 * @throws IOException File not found.
+	 * 
 	 */
-	private Element openDataXml() throws ParserConfigurationException, SAXException, IOException {
-		DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-		DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-		Document doc = docBuilder.parse(this.getImportable().toURI().toString());
-		return doc.getDocumentElement();
+	private void readDataXml() throws WorldFileParseException, IOException {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+
+		InputStream stream = new BufferedInputStream(new FileInputStream(this.getImportable()));
+		try {
+			XMLStreamReader reader = factory.createXMLStreamReader(stream);
+			try {
+				this.readDataXml(reader);
+			} finally {
+				reader.close();
+			}
+		} catch (XMLStreamException e) {
+			String message = e.getMessage();
+
+			// The message of the parser contains the location, we format it on our own.
+			if (message != null && message.contains(XML_MESSAGE_PREFIX)) {
+				message = message.substring(message.indexOf(XML_MESSAGE_PREFIX) + XML_MESSAGE_PREFIX.length());
+			}
+			throw new WorldFileParseException(WorldFile.locate(e.getLocation()) + message);
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Walks through the elements of the data source.
+	 * 
+	 * @param reader The data source reader.
+	 * 
+	 * @throws WorldFileParseException If the world import file has the wrong data structure.
+	 * @throws XMLStreamException If the document is not well-formed.
+	 * 
+	 */
+	private void readDataXml(XMLStreamReader reader) throws WorldFileParseException, XMLStreamException {
+		// The continent ids (from the world import file) of the countries. The continents
+		// will be assigned at the end, so the order of the sections does not matter.
+		int[] countryContinents = new int[64];
+		Vector<Country> countries = new Vector<Country>();
+
+		boolean inMeta = false;
+
+		while (reader.hasNext()) {
+			int event = reader.next();
+
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				String tag = reader.getLocalName();
+
+				if (tag.equals(NODE_META)) {
+					inMeta = true;
+					this.sections.add(tag);
+				} else if (tag.equals(NODE_CONTINENTS) || tag.equals(NODE_COUNTRIES)) {
+					this.sections.add(tag);
+				} else if (inMeta) {
+					this.extractMeta(tag, reader.getElementText());
+				} else if (tag.equals(NODE_CONTINENT)) {
+					this.extractContinent(reader);
+				} else if (tag.equals(NODE_COUNTRY)) {
+					if (countries.size() == countryContinents.length) {
+						countryContinents = Arrays.copyOf(countryContinents, countryContinents.length * 2);
+					}
+					countryContinents[countries.size()] = this.getIntAttribute(reader, "continent");
+					countries.add(this.extractCountry(reader));
+				}
+			} else if ((event == XMLStreamConstants.END_ELEMENT) && reader.getLocalName().equals(NODE_META)) {
+				inMeta = false;
+			}
+		}
+
+		for (int i = 0; i < countries.size(); i++) {
+			Country country = countries.get(i);
+			Continent continent = this.extractedContinents.get(countryContinents[i]);
+
+			if (continent == null) {
+				throw new WorldFileParseException("Der Kontinent mit der ID '" + countryContinents[i]
+						+ "' (Land: '" + country.getName() + "') existiert nicht.");
+			}
+			country.setContinent(continent);
+			this.addCountry(country);
+		}
 	}
 
 	/**
@@ -301,148 +393,211 @@ public class WorldFile extends World {
 	}
 	
 	/**
-	 * Extracts the meta data from the world import file
+	 * Extracts one meta data element from the world import file
 	 * and pushs the data into the object attributes.
 	 * 
-	 * @param dataSource The document root @see WorldFile#open()
-	 * @throws WorldFileParseException If the document is not well-formed.
+	 * @param tag The element name.
+	 * @param text The element text.
 	 * 
 	 */
-	private void extractMeta(Element dataSource) throws WorldFileParseException {
-		// The worlds token
-		String node = "token";
-		this.setToken(this.extractText(dataSource, node));
-		if (this.getToken().isEmpty()) {
-			throw new WorldFileParseException(this.importable, node);
+	private void extractMeta(String tag, String text) {
+		if (tag.equals("token")) {
+			this.setToken(text);
+		} else if (tag.equals("name")) {
+			this.setName(text);
+		} else if (tag.equals("description")) {
+			this.setDescription(text);
+		} else if (tag.equals("author")) {
+			this.setAuthor(text);
+		} else if (tag.equals("version")) {
+			this.setVersion(text);
+		} else if (tag.equals("map")) {
+			this.setMap(text);
+		} else if (tag.equals("map-underlay")) {
+			this.setMapUnderlay(text);
+		} else if (tag.equals("thumbnail")) {
+			this.setThumbnail(text);
 		}
+	}
 
-		// The worlds name
-		node = "name";
-		this.setName(this.extractText(dataSource, node));
-		if (this.getName().isEmpty()) {
-			throw new WorldFileParseException(this.importable, node);
-		}
+	/**
+	 * Extracts a continent from the world import file
+	 * and saves it in an temporally hash map.
+	 * 
+	 * @param reader The data source reader (positioned on the continent element).
+	 * @throws WorldFileParseException If an attribute is missing or invalid.
+	 * 
+	 */
+	private void extractContinent(XMLStreamReader reader) throws WorldFileParseException {
+		Continent continent = new Continent();
+		continent.setName(this.getAttribute(reader, "name"));
 
-		// The worlds description
-		node = "description";
-		this.setDescription(this.extractText(dataSource, node));
-		if (this.getDescription().isEmpty()) {
-			throw new WorldFileParseException(this.importable, node);
-		}
-		
-		// The author
-		node = "author";
-		this.setAuthor(this.extractText(dataSource, node));
-		if (this.getAuthor().isEmpty()) {
-			throw new WorldFileParseException(this.importable, node);
-		}
+		int id = this.getIntAttribute(reader, "id");
+		this.extractedContinents.put(id, continent);
+	}
 
-		// The version
-		node = "version";
-		this.setVersion(this.extractText(dataSource, node));
-		if (this.getVersion().isEmpty()) {
-			throw new WorldFileParseException(this.importable, node);
-		}
+	/**
+	 * Extracts a country from the world import file.
+	 * 
+	 * The world import file has an own "country-country" relation
+	 * mapping (the id's from the persistence layer differs from the
+	 * id's in the world import file). So the country will be saved
+	 * in an temporally hash map and the neighbour ids will be added
+	 * to the neighbour mapping.
+	 * 
+	 * @param reader The data source reader (positioned on the country element).
+	 * @return The country (without continent).
+	 * @throws WorldFileParseException If an attribute is missing or invalid.
+	 * 
+	 */
+	private Country extractCountry(XMLStreamReader reader) throws WorldFileParseException {
+		Country country = new Country();
+		country.setToken(this.getAttribute(reader, "token"));
+		country.setName(this.getAttribute(reader, "name"));
 
-		// The map
-		node = "map";
-		this.setMap(this.extractText(dataSource, node));
-		if (this.getMap().isEmpty()) {
-			throw new WorldFileParseException(this.importable, node);
+		String color = this.getAttribute(reader, "color");
+		try {
+			country.setColor(ColorTool.fromHexCode(color));
+		} catch (NumberFormatException e) {
+			throw new WorldFileParseException(WorldFile.locate(reader.getLocation())
+					+ "Die Farbe '" + color + "' ist ungültig.");
 		}
 
-		// The map underlay
-		node = "map-underlay";
-		this.setMapUnderlay(this.extractText(dataSource, node));
-		if (this.getMapUnderlay().isEmpty()) {
-			throw new WorldFileParseException(this.importable, node);
+		int id = this.getIntAttribute(reader, "id");
+		this.extractedCountries.put(id, country);
+
+		// Extract the neighbours (comma separated ids). Whitespace ends
+		// an id, so "1 2" is invalid and not the id 12.
+		String neighbours = this.getAttribute(reader, "neighbours");
+		int neighbourId = -1;
+		boolean neighbourEnded = false;
+
+		for (int i = 0; i <= neighbours.length(); i++) {
+			char c = (i < neighbours.length()) ? neighbours.charAt(i) : ',';
+
+			if ((c >= '0' && c <= '9') && (!neighbourEnded)) {
+				neighbourId = ((neighbourId < 0) ? 0 : neighbourId * 10) + (c - '0');
+			} else if (c == ',') {
+				if (neighbourId >= 0) {
+					this.addNeighbourMapping(id, neighbourId);
+				}
+				neighbourId = -1;
+				neighbourEnded = false;
+			} else if (Character.isWhitespace(c)) {
+				neighbourEnded = (neighbourId >= 0);
+			} else {
+				throw new WorldFileParseException(WorldFile.locate(reader.getLocation())
+						+ "Die Nachbarländer '" + neighbours + "' (Land: '" + country.getName() + "') sind ungültig.");
+			}
 		}
-		
-		// The thumbnail
-		node = "thumbnail";
-		this.setThumbnail(this.extractText(dataSource, node));
-		if (this.getThumbnail().isEmpty()) {
-			throw new WorldFileParseException(this.importable, node);
+
+		return country;
+	}
+
+	/**
+	 * Adds a country relation to the neighbour mapping.
+	 * 
+	 * @param countryId The country id (world import file).
+	 * @param neighbourId The neighbour id (world import file).
+	 * 
+	 */
+	private void addNeighbourMapping(int countryId, int neighbourId) {
+		if (this.neighbourCount == this.neighbourSources.length) {
+			this.neighbourSources = Arrays.copyOf(this.neighbourSources, this.neighbourCount * 2);
+			this.neighbourTargets = Arrays.copyOf(this.neighbourTargets, this.neighbourCount * 2);
 		}
+
+		this.neighbourSources[this.neighbourCount] = countryId;
+		this.neighbourTargets[this.neighbourCount] = neighbourId;
+		this.neighbourCount++;
 	}
-	
+
 	/**
-	 * Extracts the continent data from the world import file
-	 * and saves the data in an temporally hash map.
+	 * Returns the value of an attribute of the current element.
 	 * 
-	 * @param dataSource The document root @see WorldFile#open()
-	 * @throws WorldFileParseException If the document is not well-formed.
+	 * @param reader The data source reader.
+	 * @param name The attribute name.
+	 * @return The attribute value.
+	 * @throws WorldFileParseException If the attribute is missing.
 	 * 
 	 */
-	private void extractContinents(Element dataSource) throws WorldFileParseException {
-		String continentNode = "continent";
-		NodeList continents = dataSource.getElementsByTagName(continentNode);
-		
-		for (int i = 0; i < continents.getLength(); i++) {
-			NamedNodeMap node = continents.item(i).getAttributes();
-			Continent continent = new Continent();
-			continent.setName(node.getNamedItem("name").getNodeValue());
+	private String getAttribute(XMLStreamReader reader, String name) throws WorldFileParseException {
+		String value = reader.getAttributeValue(null, name);
 
-			int id = Integer.parseInt(node.getNamedItem("id").getNodeValue());
-			this.extractedContinents.put(id, continent);
+		if (value == null) {
+			throw new WorldFileParseException(WorldFile.locate(reader.getLocation())
+					+ "Das Attribut '" + name + "' des Elements '" + reader.getLocalName() + "' fehlt.");
 		}
+		return value;
+	}
 
-		if (this.extractedContinents.isEmpty()) {
-			throw new WorldFileParseException(this.importable, continentNode);
+	/**
+	 * Returns the numeric value of an attribute of the current element.
+	 * 
+	 * @param reader The data source reader.
+	 * @param name The attribute name.
+	 * @return The attribute value.
+	 * @throws WorldFileParseException If the attribute is missing or not a number.
+	 * 
+	 */
+	private int getIntAttribute(XMLStreamReader reader, String name) throws WorldFileParseException {
+		String value = this.getAttribute(reader, name);
+
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			throw new WorldFileParseException(WorldFile.locate(reader.getLocation())
+					+ "Der Wert '" + value + "' des Attributs '" + name + "' ist keine Zahl.");
 		}
 	}
 
 	/**
-	 * Extracts the countries from the world import file.
-	 * The countries will be pushed into the countries vector
-	 * World#getCountries()
+	 * Formats the given parser location (line and column).
 	 * 
-	 * The world import file has an own "country-country" relation
-	 * mapping (the id's from the persistence layer differs from the
-	 * id's in the world import file).
+	 * @param location The parser location (may be null).
+	 * @return The formatted location (as message prefix).
 	 * 
-	 * Further the method will extract the country dependencies
-	 * and add the correct continent to the country value object.
+	 */
+	private static String locate(Location location) {
+		if (location == null || location.getLineNumber() < 0) {
+			return "";
+		}
+		return "Zeile " + location.getLineNumber() + ", Spalte " + location.getColumnNumber() + ": ";
+	}
+
+	/**
+	 * Calculates the anchor point and the bounding box of each country
+	 * (see: MapTool#locateCountries). The maps will be scanned only once
+	 * while importing the world, so that the clients never have to
+	 * scan the map images. A country, which is not on the map underlay
+	 * (wrong color), will be imported without anchor and bounds.
 	 * 
-	 * @param dataSource The worlds import file root element
-	 * @throws WorldFileParseException If the world import file has the wrong data structure.
+	 * @throws WorldFileParseException If a map is not readable.
 	 * 
 	 */
-	private void extractCountries(Element dataSource) throws WorldFileParseException {
-		String countryNode = "country";
-		NodeList dataSourceCountries = dataSource.getElementsByTagName(countryNode);
-		
-		for (int i = 0; i < dataSourceCountries.getLength(); i++) {
-			NamedNodeMap dataSourceCountry = dataSourceCountries.item(i).getAttributes();
-
-			Country country = new Country();
-			country.setToken(dataSourceCountry.getNamedItem("token").getNodeValue());
-			country.setName(dataSourceCountry.getNamedItem("name").getNodeValue());
+	private void extractCountryGeometry() throws WorldFileParseException {
+		String workspacePath = this.getWorkspace().getAbsolutePath() + File.separator;
 
-			// TODO: Get the color from the file
-			country.setColor(ColorTool.fromHexCode(dataSourceCountry.getNamedItem("color").getNodeValue()));
+		BufferedImage map = null;
+		BufferedImage mapUnderlay = null;
 
-			int continentId = Integer.parseInt(dataSourceCountry.getNamedItem("continent").getNodeValue());
-			country.setContinent(this.extractedContinents.get(continentId));
+		try {
+			map = ImageIO.read(new File(workspacePath + this.getMap()));
+			mapUnderlay = ImageIO.read(new File(workspacePath + this.getMapUnderlay()));
+		} catch (IOException e) {
+			throw new WorldFileParseException(e.getMessage());
+		}
 
-			int id = Integer.parseInt(dataSourceCountry.getNamedItem("id").getNodeValue());
-			this.extractedCountries.put(id, country);
+		if (map == null || mapUnderlay == null) {
+			throw new WorldFileParseException("Die Weltkarte '" + ((map == null) ? this.getMap() : this.getMapUnderlay()) + "' ist kein gültiges Bild.");
+		}
 
-			// Extract the neighbours
-			String neighbourValue = dataSourceCountry.getNamedItem("neighbours").getNodeValue();
-			String[] neighbours = neighbourValue.split(",");
-			Vector<Integer> neighbourIds = new Vector<Integer>();
+		MapTool.locateCountries(map, mapUnderlay, this.getCountries());
 
-			for (String neighbourId : neighbours) {
-				neighbourIds.add(Integer.parseInt(neighbourId.trim()));
+		for (Country country : this.getCountries()) {
+			if (country.getAnchor() == null) {
+				ConsoleLogger.getLogger().error("Das Land '" + country.getName() + "' (Farbe: " + ColorTool.toHexCode(country.getColor()) + ") wurde auf der Weltkarte '" + this.getMapUnderlay() + "' nicht gefunden.");
 			}
-			this.neighbourMapping.put(id, neighbourIds);
-
-			this.addCountry(country);
-		}
-
-		if (this.extractedCountries.isEmpty()) {
-			throw new WorldFileParseException(this.importable, countryNode);
 		}
 	}
 	
@@ -467,37 +622,37 @@ public class WorldFile extends World {
 	 * @throws WorldFileParseException The world import file is not well-formed.
 	 *
 	 */
-	private void validate(Element dataSource) throws WorldFileParseException {
-		String nodeName = "meta";
-		Node node = dataSource.getElementsByTagName(nodeName).item(0);
-		if (node == null || node.getChildNodes().getLength() <= 0) {
-			throw new WorldFileParseException(this.importable, nodeName);
+	private void validateDataXml() throws WorldFileParseException {
+		for (String section : new String[] {NODE_META, NODE_CONTINENTS, NODE_COUNTRIES}) {
+			if (!this.sections.contains(section)) {
+				throw new WorldFileParseException(this.importable, section);
+			}
 		}
-		
-		nodeName = "continents";
-		node = dataSource.getElementsByTagName(nodeName).item(0);
-		if (node == null || node.getChildNodes().getLength() <= 0) {
-			throw new WorldFileParseException(this.importable, nodeName);
+
+		String[][] meta = {
+			{"token", this.getToken()},
+			{"name", this.getName()},
+			{"description", this.getDescription()},
+			{"author", this.getAuthor()},
+			{"version", this.getVersion()},
+			{"map", this.getMap()},
+			{"map-underlay", this.getMapUnderlay()},
+			{"thumbnail", this.getThumbnail()}
+		};
+
+		for (String[] node : meta) {
+			if (node[1] == null || node[1].isEmpty()) {
+				throw new WorldFileParseException(this.importable, node[0]);
+			}
 		}
 
-		nodeName = "countries";
-		node = dataSource.getElementsByTagName(nodeName).item(0);
-		if (node == null || node.getChildNodes().getLength() <= 0) {
-			throw new WorldFileParseException(this.importable, nodeName);
+		if (this.extractedContinents.isEmpty()) {
+			throw new WorldFileParseException(this.importable, NODE_CONTINENT);
 		}
-	}
 
-	/**
-	 * Extracts the text from an given xml node.
-	 * For example <tag>text</tag>.
-	 * 
-	 * @param tag The tag name from which this method will extract the text.
-	 * @return The tag content.
-	 * 
-	 */
-	private String extractText(Element root, String tag) {
-		NodeList nodes = root.getElementsByTagName(tag);
-		return (nodes.getLength() > 0) ? nodes.item(0).getTextContent() : "";
+		if (this.extractedCountries.isEmpty()) {
+			throw new WorldFileParseException(this.importable, NODE_COUNTRY);
+		}
 	}
 
 	/**